@@ -0,0 +1,76 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.io.FileDataService;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV export and import of the whole registry, one shot per iteration. The score is the time for
+ * all three files; divide by {@code size} for the time per record.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvBenchmark {
+    private FileDataService exporter;
+    private FileDataService importer;
+
+    @Setup(Level.Trial)
+    public void export(RegistryState registry) {
+        exporter = new FileDataService(registry.studentService, registry.courseService,
+                registry.enrollmentService);
+        exportAll(exporter);
+    }
+
+    // Import into an empty registry every time
+    @Setup(Level.Iteration)
+    public void emptyRegistry(RegistryState registry) {
+        StudentService students = new StudentService();
+        importer = new FileDataService(students, new CourseService(),
+                new EnrollmentService(students, registry.storage));
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropImported() {
+        importer = null;
+    }
+
+    @Benchmark
+    public void exportCSV() {
+        exportAll(exporter);
+    }
+
+    @Benchmark
+    public void importCSV(Blackhole blackhole) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        blackhole.consume(importer.importStudentsFromCSV(threads));
+        blackhole.consume(importer.importCoursesFromCSV(threads));
+        blackhole.consume(importer.importEnrollmentsFromCSV(threads));
+    }
+
+    private static void exportAll(FileDataService files) {
+        files.exportStudentsToCSV();
+        files.exportCoursesToCSV();
+        files.exportEnrollmentsToCSV();
+    }
+}
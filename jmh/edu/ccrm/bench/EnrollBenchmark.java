@@ -0,0 +1,49 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.domain.Semester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * New enrollments, reported per enrollment. Each shot enrolls the next {@link #PER_SHOT} students
+ * (round robin) in a course they have not taken yet, so the registry grows by a fixed amount
+ * whatever its size; the small iteration counts keep the smallest registry within its credit
+ * limits and course capacity.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class EnrollBenchmark {
+    // At most the student count of the smallest registry (10,000 / 8)
+    static final int PER_SHOT = 1000;
+    // The generated current term is FALL, so the other semesters have credit room
+    private static final Semester[] OPEN_SEMESTERS = {Semester.SPRING, Semester.SUMMER, Semester.WINTER};
+
+    private long next;
+
+    @Benchmark
+    @OperationsPerInvocation(PER_SHOT)
+    public void enrollStudent(RegistryState registry, Blackhole blackhole) {
+        int students = registry.students.length;
+        for (int n = 0; n < PER_SHOT; n++, next++) {
+            int student = (int) (next % students);
+            int pass = (int) (next / students);
+            blackhole.consume(registry.enrollmentService.enrollStudent(registry.students[student],
+                    registry.newCourseFor(student, pass), OPEN_SEMESTERS[pass % OPEN_SEMESTERS.length]));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package edu.ccrm.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Student lookup and GPA, as average time per call over students in a fixed random order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LookupBenchmark {
+    private int next;
+
+    @Benchmark
+    public void findStudentById(RegistryState registry, Blackhole blackhole) {
+        String id = registry.student(next++).getId();
+        blackhole.consume(registry.studentService.findStudentById(id));
+    }
+
+    @Benchmark
+    public double calculateGPA(RegistryState registry) {
+        return registry.enrollmentService.calculateGPA(registry.student(next++));
+    }
+}
@@ -0,0 +1,94 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.SyntheticDataGenerator;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * A generated registry shared by the benchmarks of one trial.
+ *
+ * {@code size} is a number of enrollment records, generated by {@link SyntheticDataGenerator} with a
+ * fixed seed (students = size / 8, each with eight enrollments over several terms). 10,000,000
+ * records needs roughly -Xmx8g with the default compact storage.
+ */
+@State(Scope.Benchmark)
+public class RegistryState {
+    static final int PER_STUDENT = 8;
+    private static final long SEED = 42;
+
+    static {
+        // Export/import must not overwrite the real data files; set before AppConfig is first read
+        try {
+            Path workDir = Files.createTempDirectory("ccrm-bench");
+            System.setProperty("ccrm.dataDir", workDir.resolve("data").toString());
+            System.setProperty("ccrm.backupDir", workDir.resolve("backups").toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"COMPACT"})
+    public EnrollmentService.Storage storage;
+
+    StudentService studentService;
+    CourseService courseService;
+    EnrollmentService enrollmentService;
+    Student[] students;
+    Course[] courses;
+    // Random student order, fixed seed so runs are comparable
+    final int[] order = new int[1 << 16];
+
+    @Setup(Level.Trial)
+    public void build() throws IOException {
+        studentService = new StudentService();
+        courseService = new CourseService();
+        enrollmentService = new EnrollmentService(studentService, storage);
+        // Spare capacity and credit room for the enrollStudent benchmark
+        SyntheticDataGenerator generator = new SyntheticDataGenerator.Builder(SEED)
+                .students(Math.max(1, size / PER_STUDENT))
+                .enrollmentsPerStudent(PER_STUDENT)
+                .capacityFactor(4)
+                .build();
+        generator.populate(studentService, courseService, enrollmentService);
+        courses = generator.getCourses().toArray(new Course[0]);
+        students = studentService.getAllStudents().toArray(new Student[0]);
+        for (Student student : students) {
+            student.setMaxCreditsPerSemester(24);
+        }
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < order.length; i++) {
+            order[i] = random.nextInt(students.length);
+        }
+    }
+
+    Student student(int i) {
+        return students[order[i & (order.length - 1)]];
+    }
+
+    // A course the student has never taken that still has a seat
+    Course newCourseFor(int student, int pass) {
+        Student s = students[student];
+        for (int n = (student * 31 + pass * 7) % courses.length; ; n = (n + 1) % courses.length) {
+            if (!s.isEnrolledIn(courses[n]) && courses[n].hasSeatsAvailable()) {
+                return courses[n];
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package edu.ccrm.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares two JMH JSON result files (-rf json) and lists every benchmark that got slower.
+ *
+ * Usage: RegressionCheck baseline.json current.json [thresholdPercent]
+ * Benchmarks are matched by name and parameters; the exit code is 1 when any score is more than
+ * the threshold (default 10) percent above the baseline. All modes used here are time per
+ * operation, so higher is slower.
+ */
+public class RegressionCheck {
+    // Field order as JMH writes it: benchmark ... params { ... } ... primaryMetric.score
+    private static final Pattern ENTRY = Pattern.compile(
+            "\"benchmark\"\\s*:\\s*\"([^\"]+)\".*?\"params\"\\s*:\\s*\\{([^}]*)\\}.*?\"score\"\\s*:\\s*([-0-9.eE+]+)",
+            Pattern.DOTALL);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: RegressionCheck baseline.json current.json [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        List<String> regressions = compare(read(Paths.get(args[0])), read(Paths.get(args[1])), threshold);
+        regressions.forEach(System.out::println);
+        if (!regressions.isEmpty()) {
+            System.exit(1);
+        }
+        System.out.println("No regressions above " + threshold + "%");
+    }
+
+    static Map<String, Double> read(Path file) throws IOException {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        Matcher m = ENTRY.matcher(Files.readString(file, StandardCharsets.UTF_8));
+        while (m.find()) {
+            String params = m.group(2).replaceAll("\\s+", "");
+            scores.put(m.group(1) + " [" + params + "]", Double.parseDouble(m.group(3)));
+        }
+        return scores;
+    }
+
+    static List<String> compare(Map<String, Double> baseline, Map<String, Double> current, double thresholdPercent) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            Double before = baseline.get(entry.getKey());
+            if (before == null || before <= 0) {
+                continue;
+            }
+            double change = (entry.getValue() - before) / before * 100;
+            if (change > thresholdPercent) {
+                regressions.add(String.format(Locale.ROOT, "REGRESSION %s: %.3f -> %.3f (+%.1f%%)",
+                        entry.getKey(), before, entry.getValue(), change));
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,102 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.io.SnapshotStore;
+import edu.ccrm.io.WriteAheadJournal;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start: snapshot load plus journal tail replay into empty services.
+ *
+ * The registry is built and checkpointed once per trial and nothing of it stays reachable, so each
+ * shot loads from disk only. {@code students} each get ten completed enrollments.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    private static final int PER_STUDENT = 10;
+    private static final int COURSES = 2000;
+
+    @Param({"10000", "1000000"})
+    public int students;
+
+    @Param({"COMPACT"})
+    public EnrollmentService.Storage storage;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void build() throws IOException {
+        dir = Files.createTempDirectory("ccrm-startup");
+        StudentService studentService = new StudentService();
+        CourseService courseService = new CourseService();
+        EnrollmentService enrollmentService = new EnrollmentService(studentService, storage);
+        WriteAheadJournal journal = new WriteAheadJournal(dir.resolve("journal"), 10);
+        journal.attach(studentService, courseService, enrollmentService);
+
+        journal.batch(() -> populate(studentService, courseService, enrollmentService));
+        new SnapshotStore(dir.resolve("snapshots"))
+                .checkpoint(journal, studentService, courseService, enrollmentService);
+        // Leave a journal tail to replay on top of the snapshot
+        studentService.addStudent(new Student("TAIL", "RTAIL", "Tail Student", "tail@uni.edu"));
+        journal.close();
+    }
+
+    @Benchmark
+    public EnrollmentService coldStart() throws IOException {
+        StudentService studentService = new StudentService();
+        CourseService courseService = new CourseService();
+        EnrollmentService enrollmentService = new EnrollmentService(studentService, storage);
+        long fromSegment = new SnapshotStore(dir.resolve("snapshots"))
+                .loadLatest(studentService, courseService, enrollmentService);
+        try (WriteAheadJournal journal = new WriteAheadJournal(dir.resolve("journal"), 10)) {
+            journal.replay(studentService, courseService, enrollmentService, fromSegment);
+        }
+        return enrollmentService;
+    }
+
+    private void populate(StudentService studentService, CourseService courseService,
+                          EnrollmentService enrollmentService) {
+        Department[] departments = Department.values();
+        for (int i = 0; i < COURSES; i++) {
+            courseService.addCourse(new Course.Builder("C" + i, "Course " + i, 1 + i % 4)
+                    .department(departments[i % departments.length])
+                    .maxCapacity(Integer.MAX_VALUE).build());
+        }
+        Grade[] grades = Grade.values();
+        for (int i = 0; i < students; i++) {
+            Student student = new Student("S" + i, "R" + i, "Student " + i, "s" + i + "@uni.edu");
+            student.setMaxCreditsPerSemester(24);
+            studentService.addStudent(student);
+            for (int k = 0; k < PER_STUDENT; k++) {
+                Course course = courseService.findCourseByCode("C" + ((i * 31 + k * 7) % COURSES));
+                enrollmentService.addEnrollment(Enrollment.restore("ENR" + (i * PER_STUDENT + k + 1), student,
+                        course, Semester.values()[k % 4], LocalDate.of(2024, 1, 1), grades[k % 9], "Completed"));
+            }
+        }
+    }
+}
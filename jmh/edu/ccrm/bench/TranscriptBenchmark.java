@@ -0,0 +1,48 @@
+package edu.ccrm.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transcript generation. Uncached measures rendering; cached measures the steady state the CLI
+ * sees once every student in the random order has been rendered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TranscriptBenchmark {
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void configureCache(RegistryState registry) {
+        registry.enrollmentService.getTranscriptEngine().setMaxCached(cached ? registry.students.length : 0);
+        if (cached) {
+            for (int i = 0; i < registry.order.length; i++) {
+                registry.enrollmentService.generateTranscript(registry.student(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public String generateTranscript(RegistryState registry) {
+        return registry.enrollmentService.generateTranscript(registry.student(next++));
+    }
+}
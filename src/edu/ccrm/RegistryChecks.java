@@ -0,0 +1,159 @@
+package edu.ccrm;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Shared helpers for the Test* checks: a seeded mix of registry mutations, and a field-by-field
+ * comparison of two registries.
+ */
+final class RegistryChecks {
+    static final int STUDENTS = 40;
+    static final int COURSES = 8;
+
+    private RegistryChecks() {
+    }
+
+    record Registry(StudentService students, CourseService courses, EnrollmentService enrollments) {
+        static Registry empty(EnrollmentService.Storage storage) {
+            StudentService students = new StudentService();
+            return new Registry(students, new CourseService(), new EnrollmentService(students, storage));
+        }
+    }
+
+    /**
+     * Adds students and courses, then applies {@code operations} random enrolls, grades,
+     * withdrawals (graded and ungraded), student edits and deactivations. Rejected operations
+     * are skipped, so the same seed gives the same registry in every storage mode.
+     */
+    static void runWorkload(Registry registry, long seed, int operations) {
+        Random random = new Random(seed);
+        Department[] departments = Department.values();
+        for (int i = 0; i < COURSES; i++) {
+            registry.courses().addCourse(new Course.Builder("C" + i, "Course " + i, 1 + i % 4)
+                    .department(departments[i % departments.length])
+                    .semester(Semester.values()[i % 3])
+                    .maxCapacity(12)
+                    .build());
+        }
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student("S" + i, "R" + i, "Student " + i, "student" + i + "@uni.edu");
+            student.setDepartment(departments[i % departments.length].name());
+            registry.students().addStudent(student);
+        }
+
+        List<String> ids = new ArrayList<>();
+        for (int op = 0; op < operations; op++) {
+            int kind = random.nextInt(10);
+            try {
+                if (kind < 4 || ids.isEmpty()) {
+                    Student student = registry.students().findStudentById("S" + random.nextInt(STUDENTS));
+                    Course course = registry.courses().findCourseByCode("C" + random.nextInt(COURSES));
+                    ids.add(registry.enrollments().enrollStudent(student, course,
+                            Semester.values()[random.nextInt(3)]).getEnrollmentId());
+                } else if (kind < 7) {
+                    registry.enrollments().recordGrade(ids.get(random.nextInt(ids.size())),
+                            Grade.values()[random.nextInt(Grade.values().length)]);
+                } else if (kind < 9) {
+                    registry.enrollments().withdrawStudent(ids.get(random.nextInt(ids.size())));
+                } else if (random.nextBoolean()) {
+                    int n = random.nextInt(STUDENTS);
+                    Student changes = new Student("S" + n, "R" + n + "-" + op, "Renamed " + op,
+                            "renamed" + op + "@college.edu");
+                    changes.setDepartment(departments[op % departments.length].getFullName());
+                    registry.students().updateStudent(changes);
+                } else {
+                    registry.students().deactivateStudent("S" + random.nextInt(STUDENTS));
+                }
+            } catch (IllegalArgumentException | IllegalStateException rejected) {
+                // Full course, credit limit, repeat enrollment, already withdrawn...
+            }
+        }
+    }
+
+    /**
+     * Throws if the two registries differ in any stored field or in derived state (seats,
+     * credits per semester, GPA, transcripts, per-student enrollment lists).
+     */
+    static void assertSameRegistry(String label, Registry expected, Registry actual) {
+        check(expected.students().getStudentCount() == actual.students().getStudentCount(),
+                label, "student count differs");
+        check(expected.courses().getCourseCount() == actual.courses().getCourseCount(),
+                label, "course count differs");
+        check(expected.enrollments().getEnrollmentCount() == actual.enrollments().getEnrollmentCount(),
+                label, "enrollment count differs");
+
+        for (Course course : expected.courses().getAllCourses()) {
+            Course copy = actual.courses().findCourseByCode(course.getCourseCode());
+            String what = "course " + course.getCourseCode();
+            check(copy != null, label, what + " is missing");
+            check(course.getTitle().equals(copy.getTitle()) && course.getCredits() == copy.getCredits()
+                    && course.getDepartment() == copy.getDepartment() && course.getSemester() == copy.getSemester()
+                    && course.getMaxCapacity() == copy.getMaxCapacity() && course.isActive() == copy.isActive(),
+                    label, what + " fields differ");
+            check(course.getCurrentEnrollment() == copy.getCurrentEnrollment(),
+                    label, what + " seat count differs");
+        }
+
+        for (Enrollment enrollment : expected.enrollments().getAllEnrollments()) {
+            Enrollment copy = actual.enrollments().findEnrollmentById(enrollment.getEnrollmentId());
+            String what = "enrollment " + enrollment.getEnrollmentId();
+            check(copy != null, label, what + " is missing");
+            check(enrollment.getStudent().getId().equals(copy.getStudent().getId())
+                    && enrollment.getCourse().getCourseCode().equals(copy.getCourse().getCourseCode())
+                    && enrollment.getSemester() == copy.getSemester()
+                    && enrollment.getEnrollmentDate().equals(copy.getEnrollmentDate()),
+                    label, what + " fields differ");
+            check(enrollment.getGrade() == copy.getGrade() && enrollment.isCompleted() == copy.isCompleted()
+                    && enrollment.isActive() == copy.isActive(), label, what + " state differs");
+        }
+
+        for (Student student : expected.students().getAllStudents()) {
+            Student copy = actual.students().findStudentById(student.getId());
+            String what = "student " + student.getId();
+            check(copy != null, label, what + " is missing");
+            check(Objects.equals(student.getRegNo(), copy.getRegNo())
+                    && student.getFullName().equals(copy.getFullName())
+                    && student.getEmail().equals(copy.getEmail())
+                    && Objects.equals(student.getDepartment(), copy.getDepartment())
+                    && student.isActive() == copy.isActive(), label, what + " fields differ");
+            for (Semester semester : Semester.values()) {
+                check(student.getSemesterCredits(semester) == copy.getSemesterCredits(semester),
+                        label, what + " " + semester + " credits differ");
+            }
+            check(enrollmentIds(expected.enrollments().getEnrollmentsByStudent(student))
+                    .equals(enrollmentIds(actual.enrollments().getEnrollmentsByStudent(copy))),
+                    label, what + " enrollments differ");
+            check(expected.enrollments().calculateGPA(student) == actual.enrollments().calculateGPA(copy),
+                    label, what + " GPA differs");
+            check(expected.enrollments().generateTranscript(student)
+                    .equals(actual.enrollments().generateTranscript(copy)), label, what + " transcript differs");
+        }
+    }
+
+    static List<String> enrollmentIds(List<Enrollment> enrollments) {
+        List<String> ids = new ArrayList<>(enrollments.size());
+        for (Enrollment enrollment : enrollments) {
+            ids.add(enrollment.getEnrollmentId());
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    static long countGradedWithdrawals(EnrollmentService enrollments) {
+        return enrollments.getAllEnrollments().stream().filter(e -> e.isCompleted() && !e.isActive()).count();
+    }
+
+    static void check(boolean condition, String label, String what) {
+        if (!condition) {
+            throw new IllegalStateException(label + ": " + what);
+        }
+    }
+}
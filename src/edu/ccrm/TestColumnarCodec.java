@@ -0,0 +1,73 @@
+package edu.ccrm;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.io.ColumnarCodec;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Round-trips registries through the columnar format, including empty tables.
+ */
+public class TestColumnarCodec {
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("ccrm-columnar");
+
+        // Empty registry: every table has zero rows
+        StudentService noStudents = new StudentService();
+        roundTrip(dir, "empty registry", noStudents, new CourseService(), new EnrollmentService(noStudents));
+
+        // Students and courses but no enrollments
+        StudentService students = new StudentService();
+        CourseService courses = new CourseService();
+        students.addStudent(new Student("S001", "2023001", "Alice Johnson", "alice@student.edu"));
+        courses.addCourse(new Course.Builder("CS101", "Java Programming", 3)
+                .department(Department.COMPUTER_SCIENCE).build());
+        roundTrip(dir, "1 student, 0 enrollments", students, courses, new EnrollmentService(students));
+
+        // Populated: one enrollment with a grade
+        EnrollmentService enrollments = new EnrollmentService(students);
+        Enrollment enrollment = enrollments.enrollStudent(students.findStudentById("S001"),
+                courses.findCourseByCode("CS101"), Semester.FALL);
+        enrollments.recordGrade(enrollment.getEnrollmentId(), Grade.A);
+        roundTrip(dir, "1 student, 1 enrollment", students, courses, enrollments);
+
+        System.out.println("All columnar round-trips passed");
+    }
+
+    private static void roundTrip(Path dir, String label, StudentService students, CourseService courses,
+                                  EnrollmentService enrollments) throws Exception {
+        for (boolean compress : new boolean[]{false, true}) {
+            Path file = dir.resolve("registry.ccol");
+            ColumnarCodec.write(file, students, courses, enrollments, compress);
+            if (Files.exists(file.resolveSibling("registry.ccol.tmp"))) {
+                throw new IllegalStateException(label + ": temp file left behind");
+            }
+
+            StudentService loadedStudents = new StudentService();
+            CourseService loadedCourses = new CourseService();
+            EnrollmentService loadedEnrollments = new EnrollmentService(loadedStudents);
+            int loaded = ColumnarCodec.load(file, loadedStudents, loadedCourses, loadedEnrollments);
+
+            check(label, "students", students.getStudentCount(), loadedStudents.getStudentCount());
+            check(label, "courses", courses.getAllCourses().size(), loadedCourses.getAllCourses().size());
+            check(label, "enrollments", enrollments.getAllEnrollments().size(), loaded);
+            for (Enrollment original : enrollments.getAllEnrollments()) {
+                Enrollment copy = loadedEnrollments.findEnrollmentById(original.getEnrollmentId());
+                if (copy == null || copy.getGrade() != original.getGrade()) {
+                    throw new IllegalStateException(label + ": enrollment " + original.getEnrollmentId() + " differs");
+                }
+            }
+            System.out.println(label + (compress ? " (compressed)" : "") + ": OK");
+        }
+    }
+
+    private static void check(String label, String what, int expected, int actual) {
+        if (expected != actual) {
+            throw new IllegalStateException(label + ": expected " + expected + " " + what + ", got " + actual);
+        }
+    }
+}
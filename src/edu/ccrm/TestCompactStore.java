@@ -0,0 +1,80 @@
+package edu.ccrm;
+
+import edu.ccrm.RegistryChecks.Registry;
+import edu.ccrm.domain.*;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentStanding;
+import edu.ccrm.util.AtomicIdGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs the same seeded workload on object and compact enrollment storage and checks that every
+ * query answers the same.
+ */
+public class TestCompactStore {
+    public static void main(String[] args) {
+        for (long seed = 31; seed <= 33; seed++) {
+            Registry objects = build(EnrollmentService.Storage.OBJECTS, seed);
+            Registry compact = build(EnrollmentService.Storage.COMPACT, seed);
+            compare("seed " + seed, objects, compact);
+        }
+        System.out.println("All compact storage checks passed");
+    }
+
+    private static Registry build(EnrollmentService.Storage storage, long seed) {
+        // Same ids in both registries
+        Enrollment.setIdGenerator(new AtomicIdGenerator(Enrollment.ID_PREFIX, 1));
+        Registry registry = Registry.empty(storage);
+        RegistryChecks.runWorkload(registry, seed, 1500);
+        return registry;
+    }
+
+    private static void compare(String label, Registry objects, Registry compact) {
+        RegistryChecks.assertSameRegistry(label, objects, compact);
+        EnrollmentService expected = objects.enrollments();
+        EnrollmentService actual = compact.enrollments();
+
+        RegistryChecks.check(ids(expected.getActiveEnrollments()).equals(ids(actual.getActiveEnrollments())),
+                label, "active enrollments differ");
+        for (Semester semester : Semester.values()) {
+            RegistryChecks.check(RegistryChecks.enrollmentIds(expected.getEnrollmentsBySemester(semester))
+                    .equals(RegistryChecks.enrollmentIds(actual.getEnrollmentsBySemester(semester))),
+                    label, semester + " enrollments differ");
+        }
+        for (Course course : objects.courses().getAllCourses()) {
+            Course other = compact.courses().findCourseByCode(course.getCourseCode());
+            // Enrollment order within a course is part of the contract (roster listings)
+            RegistryChecks.check(ids(expected.getEnrollmentsByCourse(course))
+                    .equals(ids(actual.getEnrollmentsByCourse(other))),
+                    label, course.getCourseCode() + " roster differs");
+        }
+        RegistryChecks.check(texts(expected.computeStandings()).equals(texts(actual.computeStandings())),
+                label, "standings differ");
+        for (Semester semester : Semester.values()) {
+            RegistryChecks.check(texts(expected.computeStandings(semester))
+                    .equals(texts(actual.computeStandings(semester))), label, semester + " standings differ");
+        }
+        System.out.println(label + ": OK (" + expected.getEnrollmentCount() + " enrollments, "
+                + expected.getActiveEnrollments().size() + " active, "
+                + RegistryChecks.countGradedWithdrawals(expected) + " graded withdrawals)");
+    }
+
+    private static List<String> ids(List<Enrollment> enrollments) {
+        return map(enrollments, Enrollment::getEnrollmentId);
+    }
+
+    private static List<String> texts(List<StudentStanding> standings) {
+        return map(standings, StudentStanding::toString);
+    }
+
+    private static <T> List<String> map(List<T> items, Function<T, String> key) {
+        List<String> keys = new ArrayList<>(items.size());
+        for (T item : items) {
+            keys.add(key.apply(item));
+        }
+        return keys;
+    }
+}
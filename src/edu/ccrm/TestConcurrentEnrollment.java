@@ -0,0 +1,195 @@
+package edu.ccrm;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.AtomicIdGenerator;
+import edu.ccrm.util.FileBlockIdGenerator;
+import edu.ccrm.util.IdGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Races enrollments against one seat and against one student's credit limit, then checks the
+ * enrollment id collision path: a new id that a restored enrollment already holds must fail
+ * without keeping the seat or credits, and reserveThrough must move new ids past it.
+ */
+public class TestConcurrentEnrollment {
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (EnrollmentService.Storage storage : EnrollmentService.Storage.values()) {
+                lastSeat(pool, storage);
+                creditLimit(pool, storage);
+                idCollision(storage, "AtomicIdGenerator", () -> new AtomicIdGenerator(Enrollment.ID_PREFIX, 1));
+                idCollision(storage, "FileBlockIdGenerator", () -> new FileBlockIdGenerator(Enrollment.ID_PREFIX,
+                        freshDirectory().resolve("enrollment.seq"), 100));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("All concurrent enrollment checks passed");
+    }
+
+    // Many students race for a one-seat course: exactly one wins every round
+    private static void lastSeat(ExecutorService pool, EnrollmentService.Storage storage) throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            StudentService students = new StudentService();
+            EnrollmentService enrollments = new EnrollmentService(students, storage);
+            Course course = new Course.Builder("SEAT" + round, "Last Seat", 3).maxCapacity(1).build();
+            List<Student> racers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Student student = new Student("S" + i, "R" + i, "Racer " + i, "racer" + i + "@uni.edu");
+                students.addStudent(student);
+                racers.add(student);
+            }
+            int winners = race(pool, THREADS,
+                    i -> enrollments.enrollStudent(racers.get(i), course, Semester.FALL));
+            String label = storage + " last seat, round " + round;
+            check(winners == 1, label, winners + " students got the seat");
+            check(course.getCurrentEnrollment() == 1, label, "seat count is " + course.getCurrentEnrollment());
+            check(enrollments.getEnrollmentsByCourse(course).size() == 1, label, "roster is not one student");
+            int credits = 0;
+            for (Student racer : racers) {
+                credits += racer.getSemesterCredits(Semester.FALL);
+            }
+            check(credits == 3, label, "losers kept credits (" + credits + " in total)");
+        }
+        System.out.println(storage + " last seat: OK (" + ROUNDS + " rounds, " + THREADS + " threads)");
+    }
+
+    // One student enrolls in many courses at once: the credit limit holds
+    private static void creditLimit(ExecutorService pool, EnrollmentService.Storage storage) throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            StudentService students = new StudentService();
+            EnrollmentService enrollments = new EnrollmentService(students, storage);
+            Student student = new Student("S1", "R1", "Busy Student", "busy@uni.edu");
+            students.addStudent(student);
+            List<Course> courses = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                courses.add(new Course.Builder("C" + i, "Course " + i, 3).maxCapacity(10).build());
+            }
+            int accepted = race(pool, THREADS,
+                    i -> enrollments.enrollStudent(student, courses.get(i), Semester.FALL));
+            String label = storage + " credit limit, round " + round;
+            int limit = student.getMaxCreditsPerSemester();
+            check(accepted == limit / 3, label,
+                    accepted + " enrollments accepted under a " + limit + " credit limit");
+            check(student.getSemesterCredits(Semester.FALL) == accepted * 3, label,
+                    "ledger shows " + student.getSemesterCredits(Semester.FALL) + " credits");
+            int seats = 0;
+            for (Course course : courses) {
+                seats += course.getCurrentEnrollment();
+            }
+            check(seats == accepted, label, seats + " seats taken for " + accepted + " enrollments");
+        }
+        System.out.println(storage + " credit limit: OK (" + ROUNDS + " rounds, " + THREADS + " threads)");
+    }
+
+    // ENR0001 enrolled, ENR0002 restored; then either reserveThrough(2) or a colliding enroll
+    private static void idCollision(EnrollmentService.Storage storage, String name,
+                                    Supplier<IdGenerator> generators) {
+        String label = storage + " id collision (" + name + ")";
+
+        // Reserving through the restored id makes the next new one ENR0003
+        Course third = new Course.Builder("C3", "Third", 3).build();
+        EnrollmentService enrollments = historyWithRestoredId(storage, generators.get());
+        Student student = studentOf(enrollments);
+        Enrollment.getIdGenerator().reserveThrough(2);
+        String next = enrollments.enrollStudent(student, third, Semester.FALL).getEnrollmentId();
+        check(next.equals("ENR0003"), label, "expected ENR0003 after reserveThrough(2), got " + next);
+
+        // Without the reservation the generator hands out ENR0002 again; the enrollment must roll back
+        third = new Course.Builder("C3", "Third", 3).build();
+        enrollments = historyWithRestoredId(storage, generators.get());
+        student = studentOf(enrollments);
+        try {
+            enrollments.enrollStudent(student, third, Semester.FALL);
+            throw new IllegalStateException(label + ": duplicate id ENR0002 was accepted");
+        } catch (IllegalArgumentException expected) {
+            check(third.getCurrentEnrollment() == 0, label, "seat kept after the collision");
+            check(student.getSemesterCredits(Semester.FALL) == 0, label, "credits kept after the collision");
+            check(!student.isEnrolledIn(third), label, "student still enrolled after the collision");
+            check(enrollments.getEnrollmentCount() == 2, label, "enrollment count changed by the collision");
+        }
+        System.out.println(label + ": OK");
+    }
+
+    private static EnrollmentService historyWithRestoredId(EnrollmentService.Storage storage,
+                                                           IdGenerator generator) {
+        Enrollment.setIdGenerator(generator);
+        StudentService students = new StudentService();
+        EnrollmentService enrollments = new EnrollmentService(students, storage);
+        Student student = new Student("S1", "R1", "Ada Park", "ada@uni.edu");
+        students.addStudent(student);
+        String first = enrollments.enrollStudent(student, new Course.Builder("C1", "First", 3).build(),
+                Semester.SPRING).getEnrollmentId();
+        check(first.equals("ENR0001"), "id collision", "first id is " + first);
+        Course restored = new Course.Builder("C2", "Restored", 3).build();
+        enrollments.addEnrollment(Enrollment.restore("ENR0002", student, restored, Semester.SPRING,
+                LocalDate.of(2024, 1, 15), null, "Active"));
+        return enrollments;
+    }
+
+    private static Student studentOf(EnrollmentService enrollments) {
+        return enrollments.findEnrollmentById("ENR0001").getStudent();
+    }
+
+    private static Path freshDirectory() {
+        try {
+            return Files.createTempDirectory("ccrm-ids");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Attempt {
+        void run(int index);
+    }
+
+    // Starts every attempt at once; returns how many succeeded (rejections are expected)
+    private static int race(ExecutorService pool, int count, Attempt attempt) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    attempt.run(index);
+                    return true;
+                } catch (IllegalArgumentException | IllegalStateException rejected) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    private static void check(boolean condition, String label, String what) {
+        if (!condition) {
+            throw new IllegalStateException(label + ": " + what);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package edu.ccrm;
 
 import edu.ccrm.domain.*;
 import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
 
 public class TestCourseBuilder {
     public static void main(String[] args) {
@@ -23,7 +24,7 @@ public class TestCourseBuilder {
         enrollment.recordGrade(Grade.A);
 
         // Test GPA calculation
-        EnrollmentService enrollmentService = new EnrollmentService();
+        EnrollmentService enrollmentService = new EnrollmentService(new StudentService());
         enrollmentService.addEnrollment(enrollment);
 
         double gpa = enrollmentService.calculateGPA(student);
@@ -0,0 +1,84 @@
+package edu.ccrm;
+
+import edu.ccrm.io.CsvReader;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses RFC-4180 edge cases with CsvReader, using buffers small enough that quotes, CRLF pairs
+ * and UTF-8 sequences straddle refills.
+ */
+public class TestCsvReader {
+    private static final int[] BUFFER_SIZES = {3, 7, 256 * 1024};
+
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("ccrm-csv", ".csv");
+
+        check(file, "CRLF line endings", "a,b,c\r\nd,e,f\r\n",
+                List.of(List.of("a", "b", "c"), List.of("d", "e", "f")), 1, 2);
+        check(file, "bare CR line endings", "a,b\rc,d",
+                List.of(List.of("a", "b"), List.of("c", "d")), 1, 2);
+        check(file, "no newline at end", "a,b\nc,d",
+                List.of(List.of("a", "b"), List.of("c", "d")), 1, 2);
+        check(file, "quoted commas and escaped quotes", "\"Doe, John\",\"say \"\"hi\"\"\",x\n",
+                List.of(List.of("Doe, John", "say \"hi\"", "x")), 1);
+        check(file, "embedded newlines", "\"line1\nline2\",z\n\"one\r\ntwo\",y\nlast,w\n",
+                List.of(List.of("line1\nline2", "z"), List.of("one\r\ntwo", "y"), List.of("last", "w")), 1, 3, 5);
+        check(file, "empty and quoted-empty fields", ",,\na,\n\"\",b\n",
+                List.of(List.of("", "", ""), List.of("a", ""), List.of("", "b")), 1, 2, 3);
+        check(file, "blank lines skipped", "\n\r\na,b\r\n\r\nc,d\n\n",
+                List.of(List.of("a", "b"), List.of("c", "d")), 3, 5);
+        check(file, "byte order mark and UTF-8", "\uFEFFid,name\nS1,Zoë Åse\n",
+                List.of(List.of("id", "name"), List.of("S1", "Zoë Åse")), 1, 2);
+
+        Files.writeString(file, "a,\"never closed\nb,c\n", StandardCharsets.UTF_8);
+        try (CsvReader reader = new CsvReader(file)) {
+            while (reader.nextRecord()) {
+                // drain
+            }
+            throw new IllegalStateException("unterminated quote: expected an IOException");
+        } catch (IOException e) {
+            System.out.println("unterminated quote: OK (" + e.getMessage() + ")");
+        }
+
+        Files.delete(file);
+        System.out.println("All CSV reader checks passed");
+    }
+
+    private static void check(Path file, String label, String content, List<List<String>> expected,
+                              long... expectedLines) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        for (int bufferSize : BUFFER_SIZES) {
+            List<List<String>> records = new ArrayList<>();
+            List<Long> lines = new ArrayList<>();
+            try (CsvReader reader = new CsvReader(FileChannel.open(file, StandardOpenOption.READ), bufferSize)) {
+                while (reader.nextRecord()) {
+                    List<String> fields = new ArrayList<>();
+                    for (int i = 0; i < reader.fieldCount(); i++) {
+                        fields.add(reader.field(i));
+                    }
+                    records.add(fields);
+                    lines.add(reader.lineNumber());
+                }
+            }
+            if (!records.equals(expected)) {
+                throw new IllegalStateException(label + " (buffer " + bufferSize + "): expected " + expected
+                        + ", got " + records);
+            }
+            for (int i = 0; i < expectedLines.length; i++) {
+                if (lines.get(i) != expectedLines[i]) {
+                    throw new IllegalStateException(label + " (buffer " + bufferSize + "): record " + i
+                            + " expected on line " + expectedLines[i] + ", got " + lines.get(i));
+                }
+            }
+        }
+        System.out.println(label + ": OK");
+    }
+}
@@ -0,0 +1,119 @@
+package edu.ccrm;
+
+import edu.ccrm.RegistryChecks.Registry;
+import edu.ccrm.domain.*;
+import edu.ccrm.io.SnapshotStore;
+import edu.ccrm.io.WriteAheadJournal;
+import edu.ccrm.service.EnrollmentService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checkpoints a registry, restarts from the snapshot plus the journal tail, and checks the result
+ * equals the original: graded withdrawals, ids outside the "ENR" + sequence form, new ids after
+ * the load, and a damaged snapshot that must refuse to load.
+ */
+public class TestSnapshotStore {
+    public static void main(String[] args) throws Exception {
+        for (EnrollmentService.Storage storage : EnrollmentService.Storage.values()) {
+            Path dir = Files.createTempDirectory("ccrm-snapshot");
+
+            // Empty registry
+            Registry empty = Registry.empty(storage);
+            checkpointAndCompare(storage + " empty registry", dir.resolve("empty"), storage, empty, false);
+
+            Registry original = Registry.empty(storage);
+            RegistryChecks.runWorkload(original, 23, 600);
+            // Ids that are not "ENR" + zero-padded sequence go through the irregular-id table
+            Student student = original.students().findStudentById("S0");
+            List<Course> courses = original.courses().getAllCourses();
+            original.enrollments().addEnrollment(Enrollment.restore("LEGACY-7", student, courses.get(0),
+                    Semester.SUMMER, LocalDate.of(2019, 6, 1), Grade.B, "Completed"));
+            original.enrollments().addEnrollment(Enrollment.restore("ENR9", student, courses.get(1),
+                    Semester.SUMMER, LocalDate.of(2019, 6, 1), Grade.C, "Withdrawn"));
+            String label = storage + " populated";
+            RegistryChecks.check(RegistryChecks.countGradedWithdrawals(original.enrollments()) > 0,
+                    label, "workload has no graded withdrawals");
+            Path registryDir = dir.resolve("registry");
+            checkpointAndCompare(label, registryDir, storage, original, true);
+
+            // A flipped byte in the trailer must stop the load rather than produce a partial registry
+            Path snapshot = onlyFile(registryDir.resolve("snapshots"), ".snap");
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] {0}), channel.size() - 1);
+            }
+            Registry damaged = Registry.empty(storage);
+            try {
+                new SnapshotStore(registryDir.resolve("snapshots"))
+                        .loadLatest(damaged.students(), damaged.courses(), damaged.enrollments());
+                throw new IllegalStateException(storage + ": damaged snapshot loaded");
+            } catch (IOException e) {
+                System.out.println(storage + " damaged snapshot: OK (" + e.getMessage() + ")");
+            }
+        }
+        System.out.println("All snapshot checks passed");
+    }
+
+    private static void checkpointAndCompare(String label, Path dir, EnrollmentService.Storage storage,
+                                             Registry original, boolean withTail) throws Exception {
+        WriteAheadJournal journal = new WriteAheadJournal(dir.resolve("journal"), 10);
+        journal.attach(original.students(), original.courses(), original.enrollments());
+        new SnapshotStore(dir.resolve("snapshots"))
+                .checkpoint(journal, original.students(), original.courses(), original.enrollments());
+        if (withTail) {
+            // Changes after the checkpoint live only in the journal tail
+            original.students().addStudent(new Student("S-tail", "R-tail", "Tail Student", "tail@uni.edu"));
+            Enrollment active = original.enrollments().getActiveEnrollments().get(0);
+            original.enrollments().recordGrade(active.getEnrollmentId(), Grade.A);
+            original.enrollments().withdrawStudent(active.getEnrollmentId());
+        }
+        journal.close();
+        RegistryChecks.check(listFiles(dir.resolve("journal"), ".wal").size() == 1, label,
+                "segments before the checkpoint were not deleted");
+
+        Registry loaded = Registry.empty(storage);
+        long fromSegment = new SnapshotStore(dir.resolve("snapshots"))
+                .loadLatest(loaded.students(), loaded.courses(), loaded.enrollments());
+        int tail;
+        try (WriteAheadJournal reopened = new WriteAheadJournal(dir.resolve("journal"), 10)) {
+            tail = reopened.replay(loaded.students(), loaded.courses(), loaded.enrollments(), fromSegment);
+        }
+        RegistryChecks.assertSameRegistry(label, original, loaded);
+
+        // New enrollments after the load must not reuse a restored id
+        Student newcomer = new Student("S-new", "R-new", "New Student", "new@uni.edu");
+        loaded.students().addStudent(newcomer);
+        Course course = loaded.courses().getAllCourses().stream()
+                .filter(Course::hasSeatsAvailable).findFirst().orElse(null);
+        if (course != null) {
+            Enrollment created = loaded.enrollments().enrollStudent(newcomer, course, Semester.FALL);
+            RegistryChecks.check(original.enrollments().findEnrollmentById(created.getEnrollmentId()) == null,
+                    label, "new enrollment id " + created.getEnrollmentId() + " was already taken");
+        }
+        System.out.println(label + ": OK (" + original.enrollments().getEnrollmentCount() + " enrollments, "
+                + RegistryChecks.countGradedWithdrawals(original.enrollments()) + " graded withdrawals, "
+                + tail + " tail records)");
+    }
+
+    private static Path onlyFile(Path dir, String suffix) throws IOException {
+        List<Path> files = listFiles(dir, suffix);
+        RegistryChecks.check(files.size() == 1, dir.toString(),
+                "expected one " + suffix + " file, found " + files.size());
+        return files.get(0);
+    }
+
+    private static List<Path> listFiles(Path dir, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(suffix)).collect(Collectors.toList());
+        }
+    }
+}
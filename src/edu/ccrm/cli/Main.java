@@ -5,28 +5,132 @@ import edu.ccrm.domain.Student;
 import edu.ccrm.domain.Course;
 import edu.ccrm.service.StudentService;
 import edu.ccrm.service.CourseService;
+import edu.ccrm.service.CourseSearchIndex;
+import edu.ccrm.service.StudentSearchIndex;
 import edu.ccrm.service.EnrollmentService;
 import edu.ccrm.io.FileDataService;
+import edu.ccrm.io.SnapshotStore;
+import edu.ccrm.io.WriteAheadJournal;
 import edu.ccrm.domain.Semester;
 import edu.ccrm.domain.Enrollment;
 import edu.ccrm.domain.Grade;
-
+import edu.ccrm.domain.Department;
+import edu.ccrm.util.FileBlockIdGenerator;
+import edu.ccrm.util.OperationMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Scanner;
 
 public class Main {
     private static Scanner scanner = new Scanner(System.in);
     private static StudentService studentService = new StudentService();
     private static CourseService courseService = new CourseService();
-    private static EnrollmentService enrollmentService = new EnrollmentService();
-    private static FileDataService fileDataService = new FileDataService(studentService, courseService);
+    private static EnrollmentService enrollmentService = new EnrollmentService(studentService,
+            AppConfig.getInstance().isCompactEnrollmentStorage()
+                    ? EnrollmentService.Storage.COMPACT : EnrollmentService.Storage.OBJECTS);
+    private static FileDataService fileDataService = new FileDataService(studentService, courseService, enrollmentService);
+    private static WriteAheadJournal journal;
+    private static SnapshotStore snapshots;
+
+    // Checkpoint once the live journal segment grows past this many bytes
+    private static final long CHECKPOINT_THRESHOLD_BYTES = 64L * 1024 * 1024;
 
     public static void main(String[] args) {
         System.out.println("=== Campus Course & Records Manager ===");
         AppConfig config = AppConfig.getInstance();
         config.displayConfig();
+        Enrollment.setIdGenerator(new FileBlockIdGenerator(
+                Enrollment.ID_PREFIX, config.getEnrollmentIdSequenceFile(), 100));
         fileDataService.initializeDataFiles();
+        if (!openJournal(config)) {
+            System.exit(1);
+        }
+        archiveClosedTerms(config);
+        if (config.getMetricsDumpSeconds() > 0 && OperationMetrics.isEnabled()) {
+            OperationMetrics.startPeriodicDump(config.getMetricsFile(), config.getMetricsDumpSeconds());
+        }
 
         showMainMenu();
+        closeJournal();
+        OperationMetrics.stopPeriodicDump();
+        dumpMetrics();
+    }
+
+    // Load the newest snapshot, replay the journal tail after it, then journal every new change.
+    // A damaged snapshot or journal stops startup: running on without the journal would take
+    // changes that are never made durable and lose whatever failed to load.
+    private static boolean openJournal(AppConfig config) {
+        try {
+            long start = System.nanoTime();
+            snapshots = new SnapshotStore(config.getSnapshotDirectory());
+            long fromSegment = snapshots.loadLatest(studentService, courseService, enrollmentService);
+
+            journal = new WriteAheadJournal(config.getJournalDirectory(), 10);
+            int replayed = journal.replay(studentService, courseService, enrollmentService, fromSegment);
+            journal.attach(studentService, courseService, enrollmentService);
+            System.out.println("Restored state (" + replayed + " journal changes) in " +
+                    (System.nanoTime() - start) / 1_000_000 + " ms");
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error restoring state, not starting: " + e.getMessage());
+            System.err.println("Fix or move aside " + config.getSnapshotDirectory() + " and " +
+                    config.getJournalDirectory() + " to start from the CSV data files.");
+            return false;
+        }
+    }
+
+    // Move finished enrollments of past terms off-heap so they no longer load the GC
+    private static void archiveClosedTerms(AppConfig config) {
+        if (!config.isArchiveClosedTerms() || config.isCompactEnrollmentStorage()) {
+            return;
+        }
+        try {
+            enrollmentService.enableClosedTermArchive(config.getArchiveDirectory());
+            int moved = enrollmentService.archiveClosedTerms(
+                    LocalDate.now().minusMonths(config.getClosedTermMonths()));
+            System.out.println("Archived " + moved + " closed-term enrollments off-heap");
+        } catch (IOException e) {
+            System.err.println("Error archiving closed terms: " + e.getMessage());
+        }
+    }
+
+    private static void checkpointIfNeeded() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            snapshots.checkpointIfNeeded(journal, studentService, courseService, enrollmentService,
+                    CHECKPOINT_THRESHOLD_BYTES);
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot: " + e.getMessage());
+        }
+    }
+
+    // Journal every loaded row, but wait for durability once at the end instead of per row
+    private static void bulkLoad(Runnable load) {
+        if (journal != null) {
+            journal.batch(load);
+        } else {
+            load.run();
+        }
+    }
+
+    private static void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            // Checkpoint on exit so the next start replays nothing
+            if (journal.size() > 0) {
+                snapshots.checkpoint(journal, studentService, courseService, enrollmentService);
+            }
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error closing journal: " + e.getMessage());
+        }
     }
 
     private static void showMainMenu() {
@@ -36,9 +140,11 @@ public class Main {
             System.out.println("2. Course Management");
             System.out.println("3. Enrollment Management");
             System.out.println("4. File Operations");
-            System.out.println("5. Exit");
+            System.out.println("5. Stats");
+            System.out.println("6. Exit");
             System.out.print("Choose an option: ");
 
+            checkpointIfNeeded();
             int choice = scanner.nextInt();
             scanner.nextLine(); // consume newline
 
@@ -56,6 +162,9 @@ public class Main {
                     showFileOperationsMenu();
                     break;
                 case 5:
+                    showStatsMenu();
+                    break;
+                case 6:
                     System.out.println("Goodbye!");
                     return;
                 default:
@@ -69,7 +178,8 @@ public class Main {
         System.out.println("1. Add Student");
         System.out.println("2. List All Students");
         System.out.println("3. Find Student by ID");
-        System.out.println("4. Back to Main Menu");
+        System.out.println("4. Search Students (name/email)");
+        System.out.println("5. Back to Main Menu");
         System.out.print("Choose an option: ");
 
         int choice = scanner.nextInt();
@@ -86,6 +196,9 @@ public class Main {
                 findStudent();
                 break;
             case 4:
+                searchStudents();
+                break;
+            case 5:
                 return;
             default:
                 System.out.println("Invalid option!");
@@ -112,6 +225,24 @@ public class Main {
         studentService.getAllStudents().forEach(System.out::println);
     }
 
+    private static void searchStudents() {
+        System.out.print("Enter name, email, ID or reg. number: ");
+        String text = scanner.nextLine();
+        long start = System.nanoTime();
+        List<StudentSearchIndex.Match> matches = studentService.searchStudents(text, StudentSearchIndex.DEFAULT_LIMIT);
+        long micros = (System.nanoTime() - start) / 1000;
+        if (matches.isEmpty()) {
+            System.out.println("No matching students.");
+            return;
+        }
+        for (StudentSearchIndex.Match match : matches) {
+            Student student = match.student();
+            System.out.printf("%-8s %-30s %-35s %s%n", student.getId(), student.getFullName(),
+                    student.getEmail(), student.isActive() ? "" : "(inactive)");
+        }
+        System.out.println(matches.size() + " matches in " + micros + " us");
+    }
+
     private static void findStudent() {
         System.out.print("Enter Student ID to find: ");
         String id = scanner.nextLine();
@@ -127,7 +258,8 @@ public class Main {
         System.out.println("\n--- Course Management ---");
         System.out.println("1. Add Course");
         System.out.println("2. List All Courses");
-        System.out.println("3. Back to Main Menu");
+        System.out.println("3. Search Courses");
+        System.out.println("4. Back to Main Menu");
 
         int choice = scanner.nextInt();
         scanner.nextLine();
@@ -140,6 +272,9 @@ public class Main {
                 listCourses();
                 break;
             case 3:
+                searchCourses();
+                break;
+            case 4:
                 return;
             default:
                 System.out.println("Invalid option!");
@@ -160,6 +295,55 @@ public class Main {
         System.out.println("Course added successfully!");
     }
 
+    private static void searchCourses() {
+        try {
+            CourseSearchIndex.Query query = new CourseSearchIndex.Query();
+            System.out.print("Code or title starts with (blank for any): ");
+            String prefix = scanner.nextLine().trim();
+            if (!prefix.isEmpty()) {
+                query.prefix(prefix);
+            }
+            System.out.print("Keywords (blank for any): ");
+            String keywords = scanner.nextLine().trim();
+            if (!keywords.isEmpty()) {
+                query.keywords(keywords);
+            }
+            System.out.print("Department (blank for any): ");
+            String department = scanner.nextLine().trim();
+            if (!department.isEmpty()) {
+                query.department(Department.fromString(department));
+            }
+            System.out.print("Semester (blank for any): ");
+            String semester = scanner.nextLine().trim();
+            if (!semester.isEmpty()) {
+                query.semester(Semester.valueOf(semester.toUpperCase()));
+            }
+            System.out.print("Only courses with free seats? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                query.seatsAvailable();
+            }
+
+            int pageIndex = 0;
+            while (true) {
+                CourseSearchIndex.Page page = courseService.searchCourses(
+                        query.page(pageIndex, CourseSearchIndex.DEFAULT_PAGE_SIZE));
+                System.out.println("\n--- Page " + (pageIndex + 1) + " of " + Math.max(1, page.pageCount()) +
+                        " (" + page.totalMatches() + " matches) ---");
+                page.courses().forEach(System.out::println);
+                if (!page.hasNextPage()) {
+                    return;
+                }
+                System.out.print("Next page? (y/n): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                    return;
+                }
+                pageIndex++;
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
     private static void listCourses() {
         System.out.println("\n--- All Courses ---");
         courseService.getAllCourses().forEach(System.out::println);
@@ -173,7 +357,8 @@ public class Main {
             System.out.println("3. Withdraw Student from Course");
             System.out.println("4. List All Enrollments");
             System.out.println("5. Generate Student Transcript");
-            System.out.println("6. Back to Main Menu");
+            System.out.println("6. Export Transcripts (Department/Semester)");
+            System.out.println("7. Back to Main Menu");
             System.out.print("Choose an option: ");
 
             int choice = scanner.nextInt();
@@ -196,6 +381,9 @@ public class Main {
                     generateTranscript();
                     break;
                 case 6:
+                    exportTranscripts();
+                    break;
+                case 7:
                     return;
                 default:
                     System.out.println("Invalid option!");
@@ -258,6 +446,34 @@ public class Main {
         }
     }
 
+    private static void exportTranscripts() {
+        try {
+            System.out.print("Export by (D)epartment or (S)emester? ");
+            String mode = scanner.nextLine().trim().toUpperCase();
+            Path directory = AppConfig.getInstance().getTranscriptDirectory();
+            long start = System.nanoTime();
+            int written;
+            if (mode.startsWith("D")) {
+                System.out.print("Enter Department (code or name): ");
+                Department department = Department.fromString(scanner.nextLine().trim());
+                directory = directory.resolve(department.name());
+                written = enrollmentService.getTranscriptEngine()
+                        .exportDepartment(department, studentService.getAllStudents(), directory);
+            } else {
+                System.out.print("Enter Semester (SPRING/SUMMER/FALL): ");
+                Semester semester = Semester.valueOf(scanner.nextLine().trim().toUpperCase());
+                directory = directory.resolve(semester.name());
+                written = enrollmentService.getTranscriptEngine().exportSemester(semester, directory);
+            }
+            System.out.println("Wrote " + written + " transcripts to " + directory.toAbsolutePath() +
+                    " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            System.err.println("Error exporting transcripts: " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
     private static void listAllEnrollments() {
         System.out.println("\n--- All Enrollments ---");
         enrollmentService.getAllEnrollments().forEach(System.out::println);
@@ -282,10 +498,16 @@ public class Main {
             System.out.println("\n=== FILE OPERATIONS ===");
             System.out.println("1. Import Students from CSV");
             System.out.println("2. Import Courses from CSV");
-            System.out.println("3. Export Students to CSV");
-            System.out.println("4. Export Courses to CSV");
-            System.out.println("5. Create Backup");
-            System.out.println("6. Back to Main Menu");
+            System.out.println("3. Import Enrollments from CSV");
+            System.out.println("4. Export Students to CSV");
+            System.out.println("5. Export Courses to CSV");
+            System.out.println("6. Export Enrollments to CSV");
+            System.out.println("7. Create Backup");
+            System.out.println("8. List Backups");
+            System.out.println("9. Restore Backup");
+            System.out.println("10. Export Registry (columnar binary)");
+            System.out.println("11. Import Registry (columnar binary)");
+            System.out.println("12. Back to Main Menu");
             System.out.print("Choose an option: ");
 
             int choice = scanner.nextInt();
@@ -293,25 +515,93 @@ public class Main {
 
             switch (choice) {
                 case 1:
-                    fileDataService.importStudentsFromCSV();
+                    bulkLoad(fileDataService::importStudentsFromCSV);
                     break;
                 case 2:
-                    fileDataService.importCoursesFromCSV();
+                    bulkLoad(fileDataService::importCoursesFromCSV);
                     break;
                 case 3:
-                    fileDataService.exportStudentsToCSV();
+                    bulkLoad(fileDataService::importEnrollmentsFromCSV);
                     break;
                 case 4:
-                    fileDataService.exportCoursesToCSV();
+                    fileDataService.exportStudentsToCSV();
                     break;
                 case 5:
-                    fileDataService.createBackup();
+                    fileDataService.exportCoursesToCSV();
                     break;
                 case 6:
+                    fileDataService.exportEnrollmentsToCSV();
+                    break;
+                case 7:
+                    fileDataService.createBackup();
+                    break;
+                case 8:
+                    List<String> backups = fileDataService.listBackups();
+                    if (backups.isEmpty()) {
+                        System.out.println("No backups found.");
+                    }
+                    backups.forEach(System.out::println);
+                    break;
+                case 9:
+                    System.out.print("Enter backup name: ");
+                    fileDataService.restoreBackup(scanner.nextLine().trim());
+                    break;
+                case 10:
+                    System.out.print("Compress blocks? (y/n): ");
+                    fileDataService.exportToColumnar(scanner.nextLine().trim().equalsIgnoreCase("y"));
+                    break;
+                case 11:
+                    bulkLoad(fileDataService::importFromColumnar);
+                    break;
+                case 12:
                     return;
                 default:
                     System.out.println("Invalid option!");
             }
         }
     }
-}
\ No newline at end of file
+
+    private static void showStatsMenu() {
+        while (true) {
+            System.out.println("\n=== STATS ===");
+            System.out.println("1. Show Operation Metrics");
+            System.out.println("2. Write Metrics to File");
+            System.out.println("3. Reset Metrics");
+            System.out.println("4. Back to Main Menu");
+            System.out.print("Choose an option: ");
+
+            int choice = scanner.nextInt();
+            scanner.nextLine();
+
+            switch (choice) {
+                case 1:
+                    System.out.print(OperationMetrics.report());
+                    break;
+                case 2:
+                    dumpMetrics();
+                    break;
+                case 3:
+                    OperationMetrics.reset();
+                    System.out.println("Metrics reset.");
+                    break;
+                case 4:
+                    return;
+                default:
+                    System.out.println("Invalid option!");
+            }
+        }
+    }
+
+    private static void dumpMetrics() {
+        if (!OperationMetrics.isEnabled()) {
+            return;
+        }
+        Path file = AppConfig.getInstance().getMetricsFile();
+        try {
+            OperationMetrics.dump(file);
+            System.out.println("Metrics written to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Error writing metrics: " + e.getMessage());
+        }
+    }
+}
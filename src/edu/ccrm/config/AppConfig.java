@@ -16,13 +16,29 @@ public class AppConfig {
     private final Path backupDirectory;
     private final String appVersion;
     private final int maxLoginAttempts;
+    private final int backupKeepLast;
+    private final int backupKeepDays;
+    private final boolean compactEnrollmentStorage;
+    private final boolean archiveClosedTerms;
+    private final int closedTermMonths;
+    private final int metricsDumpSeconds;
 
     // Private constructor restricts instantiation
     private AppConfig() {
-        this.dataDirectory = Paths.get("./data");
-        this.backupDirectory = Paths.get("./backups");
+        // -Dccrm.dataDir / -Dccrm.backupDir relocate the files (benchmarks point them at a temp dir)
+        this.dataDirectory = Paths.get(System.getProperty("ccrm.dataDir", "./data"));
+        this.backupDirectory = Paths.get(System.getProperty("ccrm.backupDir", "./backups"));
         this.appVersion = "1.0.0";
         this.maxLoginAttempts = 3;
+        this.backupKeepLast = 24;
+        this.backupKeepDays = 30;
+        // -Dccrm.compactEnrollments=true keeps enrollments in primitive arrays (large histories)
+        this.compactEnrollmentStorage = Boolean.getBoolean("ccrm.compactEnrollments");
+        // -Dccrm.archiveClosedTerms=true moves finished enrollments older than closedTermMonths off-heap
+        this.archiveClosedTerms = Boolean.getBoolean("ccrm.archiveClosedTerms");
+        this.closedTermMonths = 6;
+        // -Dccrm.metricsDumpSeconds=N appends operation metrics to data/metrics.log every N seconds (0 = off)
+        this.metricsDumpSeconds = Integer.getInteger("ccrm.metricsDumpSeconds", 300);
 
         // Create directories if they don't exist
         createDirectories();
@@ -66,6 +82,31 @@ public class AppConfig {
         return maxLoginAttempts;
     }
 
+    // Backup retention: newest N backups, plus the newest backup of each of the last D days
+    public int getBackupKeepLast() {
+        return backupKeepLast;
+    }
+
+    public int getBackupKeepDays() {
+        return backupKeepDays;
+    }
+
+    public boolean isCompactEnrollmentStorage() {
+        return compactEnrollmentStorage;
+    }
+
+    public boolean isArchiveClosedTerms() {
+        return archiveClosedTerms;
+    }
+
+    public int getClosedTermMonths() {
+        return closedTermMonths;
+    }
+
+    public int getMetricsDumpSeconds() {
+        return metricsDumpSeconds;
+    }
+
     // Utility methods
     public Path getStudentDataFile() {
         return dataDirectory.resolve("students.csv");
@@ -79,11 +120,40 @@ public class AppConfig {
         return dataDirectory.resolve("enrollments.csv");
     }
 
+    public Path getArchiveDirectory() {
+        return dataDirectory.resolve("archive");
+    }
+
+    public Path getColumnarDataFile() {
+        return dataDirectory.resolve("registry.ccol");
+    }
+
+    public Path getTranscriptDirectory() {
+        return dataDirectory.resolve("transcripts");
+    }
+
+    public Path getJournalDirectory() {
+        return dataDirectory.resolve("journal");
+    }
+
+    public Path getSnapshotDirectory() {
+        return dataDirectory.resolve("snapshots");
+    }
+
+    public Path getEnrollmentIdSequenceFile() {
+        return dataDirectory.resolve("enrollment-ids.seq");
+    }
+
+    public Path getMetricsFile() {
+        return dataDirectory.resolve("metrics.log");
+    }
+
     public void displayConfig() {
         System.out.println("=== Application Configuration ===");
         System.out.println("Version: " + appVersion);
         System.out.println("Data Directory: " + dataDirectory.toAbsolutePath());
         System.out.println("Backup Directory: " + backupDirectory.toAbsolutePath());
         System.out.println("Max Login Attempts: " + maxLoginAttempts);
+        System.out.println("Enrollment Storage: " + (compactEnrollmentStorage ? "compact" : "objects"));
     }
 }
\ No newline at end of file
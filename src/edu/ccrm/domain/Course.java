@@ -1,6 +1,7 @@
 package edu.ccrm.domain;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Course class demonstrating Builder Pattern and complex relationships.
@@ -17,7 +18,7 @@ public class Course {
     private Semester semester;
     private Department department;
     private int maxCapacity;
-    private int currentEnrollment;
+    private final AtomicInteger currentEnrollment;
     private boolean active;
 
     // Private constructor - forces use of Builder
@@ -30,7 +31,7 @@ public class Course {
         this.semester = builder.semester;
         this.department = builder.department;
         this.maxCapacity = builder.maxCapacity;
-        this.currentEnrollment = builder.currentEnrollment;
+        this.currentEnrollment = new AtomicInteger(builder.currentEnrollment);
         this.active = builder.active;
     }
 
@@ -71,7 +72,7 @@ public class Course {
     }
 
     public int getCurrentEnrollment() {
-        return currentEnrollment;
+        return currentEnrollment.get();
     }
 
     public boolean isActive() {
@@ -80,20 +81,33 @@ public class Course {
 
     // Business methods
     public boolean hasSeatsAvailable() {
-        return currentEnrollment < maxCapacity;
+        return currentEnrollment.get() < maxCapacity;
+    }
+
+    /**
+     * Atomically take a seat if one is free (CAS loop, safe under contention).
+     * @return true if a seat was reserved, false if the course is full
+     */
+    public boolean tryReserveSeat() {
+        while (true) {
+            int current = currentEnrollment.get();
+            if (current >= maxCapacity) {
+                return false;
+            }
+            if (currentEnrollment.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
     }
 
     public void enrollStudent() {
-        if (!hasSeatsAvailable()) {
+        if (!tryReserveSeat()) {
             throw new IllegalStateException("Course is at full capacity");
         }
-        currentEnrollment++;
     }
 
     public void unenrollStudent() {
-        if (currentEnrollment > 0) {
-            currentEnrollment--;
-        }
+        currentEnrollment.getAndUpdate(current -> current > 0 ? current - 1 : 0);
     }
 
     public void setInstructor(Instructor instructor) {
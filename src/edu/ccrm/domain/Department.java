@@ -24,6 +24,21 @@ public enum Department {
         return fullName;
     }
 
+    // Utility method to find enum by code, name or full name (case-insensitive)
+    public static Department fromString(String text) {
+        if (text != null) {
+            String value = text.trim();
+            for (Department department : Department.values()) {
+                if (department.code.equalsIgnoreCase(value) ||
+                        department.fullName.equalsIgnoreCase(value) ||
+                        department.name().equalsIgnoreCase(value)) {
+                    return department;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No department with text: " + text);
+    }
+
     @Override
     public String toString() {
         return code + " - " + fullName;
@@ -1,5 +1,8 @@
 package edu.ccrm.domain;
 
+import edu.ccrm.util.AtomicIdGenerator;
+import edu.ccrm.util.IdGenerator;
+
 import java.time.LocalDate;
 import java.util.Objects;
 
@@ -13,15 +16,18 @@ public class Enrollment {
     private final Course course;
     private final LocalDate enrollmentDate;
     private final Semester semester;
-    private Grade grade;
-    private boolean completed;
-    private boolean active;
+    // Volatile so state changes made under the service's per-student lock are visible to readers
+    private volatile Grade grade;
+    private volatile boolean completed;
+    private volatile boolean active;
+
+    public static final String ID_PREFIX = "ENR";
 
-    // Counter for generating unique enrollment IDs
-    private static int idCounter = 1;
+    // Pluggable, thread-safe source of unique enrollment IDs
+    private static volatile IdGenerator idGenerator = new AtomicIdGenerator(ID_PREFIX, 1);
 
     public Enrollment(Student student, Course course, Semester semester) {
-        this.enrollmentId = "ENR" + String.format("%04d", idCounter++);
+        this.enrollmentId = idGenerator.nextId();
         this.student = Objects.requireNonNull(student, "Student cannot be null");
         this.course = Objects.requireNonNull(course, "Course cannot be null");
         this.semester = Objects.requireNonNull(semester, "Semester cannot be null");
@@ -30,23 +36,106 @@ public class Enrollment {
         this.completed = false;
         this.active = true;
 
-        // Business rule: Check if student can enroll (credit limit)
-        if (!student.canEnrollInCourse(course)) {
+        // Business rule: Check the student's credit load for this semester (O(1) ledger lookup)
+        if (!student.canEnrollInCourse(course, semester)) {
             throw new IllegalArgumentException(
-                    "Student cannot enroll: Credit limit exceeded. Current: " +
-                            student.getCurrentSemesterCredits() + ", Course: " + course.getCredits() +
+                    "Student cannot enroll: Credit limit exceeded for " + semester + ". Current: " +
+                            student.getSemesterCredits(semester) + ", Course: " + course.getCredits() +
                             ", Max: " + student.getMaxCreditsPerSemester()
             );
         }
 
-        // Business rule: Check if course has available seats
-        if (!course.hasSeatsAvailable()) {
+        // Business rule: Check and reserve a seat in one atomic step
+        if (!course.tryReserveSeat()) {
             throw new IllegalArgumentException("Course is at full capacity");
         }
 
         // Enroll the student
-        student.enrollInCourse(course);
-        course.enrollStudent();
+        student.enrollInCourse(course, semester);
+    }
+
+    // Restore constructor - no business-rule checks, state comes from persisted data
+    private Enrollment(String enrollmentId, Student student, Course course, Semester semester,
+                       LocalDate enrollmentDate, Grade grade, boolean completed, boolean active) {
+        this.enrollmentId = Objects.requireNonNull(enrollmentId, "Enrollment ID cannot be null");
+        this.student = Objects.requireNonNull(student, "Student cannot be null");
+        this.course = Objects.requireNonNull(course, "Course cannot be null");
+        this.semester = Objects.requireNonNull(semester, "Semester cannot be null");
+        this.enrollmentDate = Objects.requireNonNull(enrollmentDate, "Enrollment date cannot be null");
+        this.grade = grade;
+        this.completed = completed;
+        this.active = active;
+    }
+
+    /**
+     * For storage-backed views that keep their state elsewhere and override the getters
+     * and {@link #updateState}; the fields of this instance stay unused.
+     */
+    protected Enrollment() {
+        this.enrollmentId = null;
+        this.student = null;
+        this.course = null;
+        this.semester = null;
+        this.enrollmentDate = null;
+    }
+
+    /**
+     * Rebuild a persisted enrollment from its status text ("Active", "Completed", "Withdrawn").
+     * The text cannot tell a withdrawn enrollment that was graded afterwards (which still counts
+     * towards the GPA), so loaders that persist the completed flag use the other overload.
+     */
+    public static Enrollment restore(String enrollmentId, Student student, Course course, Semester semester,
+                                     LocalDate enrollmentDate, Grade grade, String status) {
+        boolean active = !"Withdrawn".equalsIgnoreCase(status);
+        return restore(enrollmentId, student, course, semester, enrollmentDate, grade, active && grade != null, active);
+    }
+
+    /**
+     * Rebuild a persisted enrollment. Active enrollments are re-attached to the student and
+     * take a seat in the course; capacity was enforced when the student originally enrolled,
+     * so a full course is not an error here. Callers loading many enrollments should call
+     * {@code getIdGenerator().reserveThrough(...)} once with the highest loaded sequence.
+     */
+    public static Enrollment restore(String enrollmentId, Student student, Course course, Semester semester,
+                                     LocalDate enrollmentDate, Grade grade, boolean completed, boolean active) {
+        Enrollment enrollment = detached(enrollmentId, student, course, semester, enrollmentDate, grade,
+                completed, active);
+        if (active) {
+            reattach(student, course, semester, completed);
+        }
+        return enrollment;
+    }
+
+    /**
+     * Rebuild a persisted enrollment without touching its student or course. Bulk loaders use
+     * this and call {@link #reattach} for each active enrollment themselves.
+     */
+    public static Enrollment detached(String enrollmentId, Student student, Course course, Semester semester,
+                                      LocalDate enrollmentDate, Grade grade, boolean completed, boolean active) {
+        if (completed && grade == null) {
+            throw new IllegalArgumentException("Completed enrollment " + enrollmentId + " has no grade");
+        }
+        return new Enrollment(enrollmentId, student, course, semester, enrollmentDate, grade, completed, active);
+    }
+
+    /**
+     * The student and course side of restoring an active enrollment: the student holds the
+     * course (completed when graded) and the course gives up a seat.
+     */
+    public static void reattach(Student student, Course course, Semester semester, boolean completed) {
+        student.enrollInCourse(course, semester);
+        if (completed) {
+            student.completeCourse(course);
+        }
+        course.tryReserveSeat();
+    }
+
+    public static IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    public static void setIdGenerator(IdGenerator generator) {
+        idGenerator = Objects.requireNonNull(generator, "ID generator cannot be null");
     }
 
     // Getters
@@ -61,52 +150,65 @@ public class Enrollment {
 
     // Business methods
     public void recordGrade(Grade grade) {
-        this.grade = Objects.requireNonNull(grade, "Grade cannot be null");
-        this.completed = true;
+        boolean wasInProgress = isActive() && !isCompleted();
+        updateState(Objects.requireNonNull(grade, "Grade cannot be null"), true, isActive());
+        if (wasInProgress) {
+            getStudent().completeCourse(getCourse());
+        }
     }
 
     public void withdraw() {
-        this.active = false;
-        this.completed = false;
-        student.unenrollFromCourse(course);
-        course.unenrollStudent();
+        boolean wasInProgress = isActive() && !isCompleted();
+        updateState(getGrade(), false, false);
+        getStudent().unenrollFromCourse(getCourse(), wasInProgress);
+        getCourse().unenrollStudent();
+    }
+
+    // Single write path for the mutable state, so views can store it elsewhere
+    protected void updateState(Grade grade, boolean completed, boolean active) {
+        this.grade = grade;
+        this.completed = completed;
+        this.active = active;
     }
 
     public double getGradePoints() {
+        Grade grade = getGrade();
         return grade != null ? grade.getGradePoints() : 0.0;
     }
 
     public double getQualityPoints() {
-        return getGradePoints() * course.getCredits();
+        return getGradePoints() * getCourse().getCredits();
     }
 
     public boolean hasGrade() {
-        return grade != null;
+        return getGrade() != null;
     }
 
     public String getStatus() {
-        if (!active) return "Withdrawn";
-        if (completed) return "Completed";
+        if (!isActive()) return "Withdrawn";
+        if (isCompleted()) return "Completed";
         return "Active";
     }
 
+    // Identity is the enrollment ID, so a storage view equals the object it was built from
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Enrollment)) return false;
         Enrollment that = (Enrollment) o;
-        return Objects.equals(enrollmentId, that.enrollmentId);
+        return Objects.equals(getEnrollmentId(), that.getEnrollmentId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(enrollmentId);
+        return Objects.hash(getEnrollmentId());
     }
 
     @Override
     public String toString() {
+        Grade grade = getGrade();
         return String.format("Enrollment[%s] %s in %s - Grade: %s, Status: %s",
-                enrollmentId, student.getFullName(), course.getCode(),
+                getEnrollmentId(), getStudent().getFullName(), getCourse().getCode(),
                 grade != null ? grade : "Not Graded", getStatus());
     }
 }
\ No newline at end of file
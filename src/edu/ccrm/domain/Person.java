@@ -1,5 +1,7 @@
 package edu.ccrm.domain;
 
+import edu.ccrm.util.StringPool;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -12,8 +14,9 @@ public abstract class Person {
     // Private fields - Encapsulation
     private String id;
     private String registrationNumber;
-    private String fullName;
-    private String email;
+    // Text fields are kept in StringPool.pack form (a byte[] for ASCII when compact storage is on)
+    private Object fullName;
+    private Object email;
     private LocalDate dateOfBirth;
     private LocalDateTime createdAt;
     private boolean active;
@@ -22,8 +25,8 @@ public abstract class Person {
     protected Person(String id, String registrationNumber, String fullName, String email) {
         this.id = Objects.requireNonNull(id, "ID cannot be null");
         this.registrationNumber = registrationNumber;
-        this.fullName = Objects.requireNonNull(fullName, "Full name cannot be null");
-        this.email = validateEmail(email);
+        this.fullName = StringPool.pack(Objects.requireNonNull(fullName, "Full name cannot be null"));
+        this.email = StringPool.pack(validateEmail(email));
         this.createdAt = LocalDateTime.now();
         this.active = true;
     }
@@ -53,19 +56,19 @@ public abstract class Person {
     }
 
     public String getFullName() {
-        return fullName;
+        return StringPool.unpack(fullName);
     }
 
     public void setFullName(String fullName) {
-        this.fullName = Objects.requireNonNull(fullName);
+        this.fullName = StringPool.pack(Objects.requireNonNull(fullName));
     }
 
     public String getEmail() {
-        return email;
+        return StringPool.unpack(email);
     }
 
     public void setEmail(String email) {
-        this.email = validateEmail(email);
+        this.email = StringPool.pack(validateEmail(email));
     }
 
     public LocalDate getDateOfBirth() {
@@ -116,6 +119,6 @@ public abstract class Person {
     @Override
     public String toString() {
         return String.format("Person{id='%s', name='%s', email='%s', active=%s}",
-                id, fullName, email, active);
+                id, getFullName(), getEmail(), active);
     }
 }
\ No newline at end of file
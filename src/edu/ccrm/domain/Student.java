@@ -1,16 +1,27 @@
 package edu.ccrm.domain;
 
+import edu.ccrm.util.StringPool;
+
 import java.util.stream.Collectors;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public class Student extends Person {
+    // Department text as given (pooled), plus the enum when the text names one
+    private Department knownDepartment;
     private String department;
     private LocalDate enrollmentDate;
     private int maxCreditsPerSemester;
-    private List<Course> enrolledCourses;
+    // Course -> semester it is held in (hash membership, enrollment ordered)
+    private final Map<Course, Semester> enrolledCourses;
+    // Credit ledger: in-progress credits per semester, plus a slot for courses without one
+    private static final int UNSCHEDULED = Semester.values().length;
+    private final int[] inProgressCredits = new int[UNSCHEDULED + 1];
+    private int totalInProgressCredits;
     private String regNo;  // Specific registration number
 
     // SINGLE CONSTRUCTOR - fix the duplicate issue
@@ -19,7 +30,7 @@ public class Student extends Person {
         this.regNo = regNo;
         this.enrollmentDate = LocalDate.now();
         this.maxCreditsPerSemester = 18;
-        this.enrolledCourses = new ArrayList<>();
+        this.enrolledCourses = new LinkedHashMap<>();
     }
 
     // Override abstract method from Person
@@ -34,6 +45,11 @@ public class Student extends Person {
         return regNo;
     }
 
+    public void setRegNo(String regNo) {
+        setRegistrationNumber(regNo);
+        this.regNo = regNo;
+    }
+
 
 
     // Getters and Setters
@@ -41,8 +57,27 @@ public class Student extends Person {
         return department;
     }
 
+    /**
+     * The department as the enum, or null when it is unset or not one of {@link Department}.
+     */
+    public Department getKnownDepartment() {
+        return knownDepartment;
+    }
+
+    /**
+     * The text is kept as given for display and export. A department code, enum name or full
+     * name ("CS", "COMPUTER_SCIENCE", "Computer Science") also sets {@link #getKnownDepartment}.
+     */
     public void setDepartment(String department) {
-        this.department = department;
+        this.department = StringPool.canonical(department);
+        this.knownDepartment = null;
+        if (department != null && !department.isBlank()) {
+            try {
+                this.knownDepartment = Department.fromString(department);
+            } catch (IllegalArgumentException e) {
+                // Free text outside the enum
+            }
+        }
     }
 
     public LocalDate getEnrollmentDate() {
@@ -61,29 +96,97 @@ public class Student extends Person {
     }
 
     public List<Course> getEnrolledCourses() {
-        return new ArrayList<>(enrolledCourses);
+        return new ArrayList<>(enrolledCourses.keySet());
+    }
+
+    // ========== CREDIT LEDGER ==========
+    // Kept by Enrollment: creation adds credits, grading or withdrawing an in-progress course
+    // releases them, so limit checks are O(1) however long the student's history is.
+    // Callers hold the student's lock (EnrollmentService), so the ledger needs no synchronization.
+
+    private static int slot(Semester semester) {
+        return semester != null ? semester.ordinal() : UNSCHEDULED;
+    }
+
+    /**
+     * Add a course to the student's load for the given semester (no-op if already held).
+     */
+    public void enrollInCourse(Course course, Semester semester) {
+        Objects.requireNonNull(course, "Course cannot be null");
+        if (enrolledCourses.containsKey(course)) {
+            return;
+        }
+        enrolledCourses.put(course, semester);
+        inProgressCredits[slot(semester)] += course.getCredits();
+        totalInProgressCredits += course.getCredits();
     }
 
-    // Business methods
+    /**
+     * Enroll in the course's own semester.
+     */
     public void enrollInCourse(Course course) {
         Objects.requireNonNull(course, "Course cannot be null");
-        if (!enrolledCourses.contains(course)) {
-            enrolledCourses.add(course);
+        enrollInCourse(course, course.getSemester());
+    }
+
+    /**
+     * The course is finished (graded): it stays on record but no longer counts towards the load.
+     */
+    public void completeCourse(Course course) {
+        Semester semester = enrolledCourses.get(course);
+        if (semester != null || enrolledCourses.containsKey(course)) {
+            release(course, semester);
+        }
+    }
+
+    /**
+     * Drop a course; its credits are released unless it was already completed.
+     */
+    public void unenrollFromCourse(Course course, boolean inProgress) {
+        if (!enrolledCourses.containsKey(course)) {
+            return;
+        }
+        Semester semester = enrolledCourses.remove(course);
+        if (inProgress) {
+            release(course, semester);
         }
     }
 
     public void unenrollFromCourse(Course course) {
-        enrolledCourses.remove(course);
+        unenrollFromCourse(course, true);
+    }
+
+    private void release(Course course, Semester semester) {
+        int s = slot(semester);
+        int credits = Math.min(course.getCredits(), inProgressCredits[s]);
+        inProgressCredits[s] -= credits;
+        totalInProgressCredits -= credits;
+    }
+
+    public boolean isEnrolledIn(Course course) {
+        return enrolledCourses.containsKey(course);
     }
 
+    /**
+     * In-progress credits for one semester.
+     */
+    public int getSemesterCredits(Semester semester) {
+        return inProgressCredits[slot(semester)];
+    }
+
+    /**
+     * In-progress credits across all semesters.
+     */
     public int getCurrentSemesterCredits() {
-        return enrolledCourses.stream()
-                .mapToInt(Course::getCredits)
-                .sum();
+        return totalInProgressCredits;
+    }
+
+    public boolean canEnrollInCourse(Course course, Semester semester) {
+        return getSemesterCredits(semester) + course.getCredits() <= maxCreditsPerSemester;
     }
 
     public boolean canEnrollInCourse(Course course) {
-        return getCurrentSemesterCredits() + course.getCredits() <= maxCreditsPerSemester;
+        return canEnrollInCourse(course, course.getSemester());
     }
 
     public List<Enrollment> getCompletedEnrollments(List<Enrollment> allEnrollments) {
@@ -101,7 +204,7 @@ public class Student extends Person {
                         "Enrollment Date: %s\n" +
                         "=".repeat(50),
                 getFullName(), getRegNo(), getId(),
-                department != null ? department : "Undeclared",
+                getDepartment() != null ? getDepartment() : "Undeclared",
                 enrollmentDate
         );
     }
@@ -114,7 +217,7 @@ public class Student extends Person {
     @Override
     public String toString() {
         return String.format("Student{id='%s', regNo='%s', name='%s', department='%s'}",
-                getId(), regNo, getFullName(), department);
+                getId(), regNo, getFullName(), getDepartment());
     }
 
 
@@ -0,0 +1,368 @@
+package edu.ccrm.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Incremental, deduplicated backups of the data directory.
+ *
+ * Files are split into content-defined chunks (a gear rolling hash picks the cut points, so an
+ * insertion only changes the chunks around it) and each chunk is stored once under its SHA-256
+ * in {@code chunks/}. A backup is just a manifest listing, per file, its size, modification time,
+ * SHA-256 and chunk hashes. Files whose size and modification time match the previous backup
+ * reuse its chunk list without being read; everything else is re-hashed and only chunks not
+ * already in the store are written.
+ *
+ * Retention keeps the newest {@code keepLast} backups plus the newest backup of each of the last
+ * {@code keepDays} days; chunks no longer referenced by any manifest are then deleted.
+ */
+public class BackupService {
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    // Content-defined chunking: cut where the rolling hash has CHUNK_MASK bits clear
+    private static final int MIN_CHUNK = 64 * 1024;
+    private static final int MAX_CHUNK = 1024 * 1024;
+    private static final long CHUNK_MASK = (1L << 17) - 1; // ~128 KB average past the minimum
+    private static final long[] GEAR = new long[256];
+
+    static {
+        Random random = new Random(0x5EEDL); // fixed seed: cut points must be stable across runs
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final Path dataDirectory;
+    private final Path chunkDirectory;
+    private final Path manifestDirectory;
+    private final int keepLast;
+    private final int keepDays;
+
+    public BackupService(Path dataDirectory, Path backupDirectory, int keepLast, int keepDays) {
+        this.dataDirectory = dataDirectory;
+        this.chunkDirectory = backupDirectory.resolve("chunks");
+        this.manifestDirectory = backupDirectory.resolve("manifests");
+        this.keepLast = keepLast;
+        this.keepDays = keepDays;
+    }
+
+    // One file's entry in a manifest
+    private record FileEntry(String path, long size, long modified, String sha256, List<String> chunks) { }
+
+    /**
+     * Result of one backup run.
+     */
+    public record BackupReport(String name, int files, int changedFiles, long totalBytes,
+                               int newChunks, long newBytes) {
+        @Override
+        public String toString() {
+            return String.format("%s: %d files (%d changed), %d bytes total, %d new chunks (%d bytes stored)",
+                    name, files, changedFiles, totalBytes, newChunks, newBytes);
+        }
+    }
+
+    // ========== BACKUP ==========
+
+    public BackupReport createBackup() throws IOException {
+        Files.createDirectories(chunkDirectory);
+        Files.createDirectories(manifestDirectory);
+
+        String name = uniqueName();
+        Map<String, FileEntry> previous = latestBackup()
+                .map(this::readManifestQuietly)
+                .orElse(Map.of());
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dataDirectory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        List<FileEntry> entries = new ArrayList<>();
+        int changed = 0;
+        long totalBytes = 0;
+        long[] newChunks = {0, 0}; // count, bytes
+        for (Path file : files) {
+            String relative = dataDirectory.relativize(file).toString().replace('\\', '/');
+            long size = Files.size(file);
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            totalBytes += size;
+
+            FileEntry old = previous.get(relative);
+            if (old != null && old.size() == size && old.modified() == modified) {
+                entries.add(old); // unchanged: reuse the chunk list without reading the file
+            } else {
+                FileEntry entry = storeFile(relative, file, size, modified, newChunks);
+                if (old == null || !old.sha256().equals(entry.sha256())) {
+                    changed++;
+                }
+                entries.add(entry);
+            }
+        }
+
+        writeManifest(name, entries);
+        prune();
+        return new BackupReport(name, entries.size(), changed, totalBytes, (int) newChunks[0], newChunks[1]);
+    }
+
+    private FileEntry storeFile(String relative, Path file, long size, long modified, long[] newChunks) throws IOException {
+        MessageDigest fileDigest = sha256();
+        MessageDigest chunkDigest = sha256();
+        List<String> chunks = new ArrayList<>();
+        byte[] chunk = new byte[MAX_CHUNK];
+        byte[] read = new byte[64 * 1024];
+        int length = 0;
+        long hash = 0;
+
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(read)) > 0) {
+                fileDigest.update(read, 0, n);
+                for (int i = 0; i < n; i++) {
+                    byte b = read[i];
+                    chunk[length++] = b;
+                    hash = (hash << 1) + GEAR[b & 0xFF];
+                    if ((length >= MIN_CHUNK && (hash & CHUNK_MASK) == 0) || length == MAX_CHUNK) {
+                        chunks.add(storeChunk(chunk, length, chunkDigest, newChunks));
+                        length = 0;
+                        hash = 0;
+                    }
+                }
+            }
+        }
+        if (length > 0) {
+            chunks.add(storeChunk(chunk, length, chunkDigest, newChunks));
+        }
+        return new FileEntry(relative, size, modified, HexFormat.of().formatHex(fileDigest.digest()), chunks);
+    }
+
+    private String storeChunk(byte[] data, int length, MessageDigest digest, long[] newChunks) throws IOException {
+        digest.reset();
+        digest.update(data, 0, length);
+        String hash = HexFormat.of().formatHex(digest.digest());
+
+        Path target = chunkPath(hash);
+        if (Files.exists(target)) {
+            return hash; // already stored by an earlier backup
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(hash + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            out.write(data, 0, length);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException | FileAlreadyExistsException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        newChunks[0]++;
+        newChunks[1] += length;
+        return hash;
+    }
+
+    // ========== RESTORE ==========
+
+    public List<String> listBackups() throws IOException {
+        if (!Files.isDirectory(manifestDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> manifests = Files.list(manifestDirectory)) {
+            return manifests.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(MANIFEST_SUFFIX))
+                    .map(name -> name.substring(0, name.length() - MANIFEST_SUFFIX.length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Rebuild every file of a backup under {@code targetDirectory}, verifying each file's SHA-256.
+     * @return number of files restored
+     */
+    public int restoreBackup(String name, Path targetDirectory) throws IOException {
+        Map<String, FileEntry> entries = readManifest(manifestDirectory.resolve(name + MANIFEST_SUFFIX));
+        for (FileEntry entry : entries.values()) {
+            Path target = targetDirectory.resolve(entry.path()).normalize();
+            if (!target.startsWith(targetDirectory.normalize())) {
+                throw new IOException("Manifest path escapes restore directory: " + entry.path());
+            }
+            Files.createDirectories(target.getParent());
+
+            MessageDigest digest = sha256();
+            try (OutputStream out = Files.newOutputStream(target)) {
+                for (String chunk : entry.chunks()) {
+                    byte[] data = Files.readAllBytes(chunkPath(chunk));
+                    digest.update(data);
+                    out.write(data);
+                }
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equals(entry.sha256())) {
+                throw new IOException("Restored file does not match its checksum: " + entry.path());
+            }
+        }
+        return entries.size();
+    }
+
+    // ========== RETENTION ==========
+
+    /**
+     * Drop backups outside the retention policy, then delete chunks nothing references.
+     */
+    public void prune() throws IOException {
+        List<String> backups = listBackups();
+        Set<String> keep = new HashSet<>();
+        for (int i = Math.max(0, backups.size() - keepLast); i < backups.size(); i++) {
+            keep.add(backups.get(i));
+        }
+        // Newest backup of each recent day (names sort chronologically)
+        LocalDate cutoff = LocalDate.now().minusDays(keepDays);
+        Map<LocalDate, String> newestPerDay = new HashMap<>();
+        for (String backup : backups) {
+            LocalDate day = dayOf(backup);
+            if (day != null && day.isAfter(cutoff)) {
+                newestPerDay.put(day, backup);
+            }
+        }
+        keep.addAll(newestPerDay.values());
+
+        for (String backup : backups) {
+            if (!keep.contains(backup)) {
+                Files.deleteIfExists(manifestDirectory.resolve(backup + MANIFEST_SUFFIX));
+            }
+        }
+
+        // Mark and sweep chunks
+        Set<String> referenced = new HashSet<>();
+        for (String backup : keep) {
+            for (FileEntry entry : readManifest(manifestDirectory.resolve(backup + MANIFEST_SUFFIX)).values()) {
+                referenced.addAll(entry.chunks());
+            }
+        }
+        if (!Files.isDirectory(chunkDirectory)) {
+            return;
+        }
+        try (Stream<Path> chunks = Files.walk(chunkDirectory)) {
+            for (Path chunk : (Iterable<Path>) chunks.filter(Files::isRegularFile)::iterator) {
+                if (!referenced.contains(chunk.getFileName().toString())) {
+                    Files.deleteIfExists(chunk);
+                }
+            }
+        }
+    }
+
+    private static LocalDate dayOf(String backup) {
+        try {
+            return LocalDateTime.parse(backup.substring("backup_".length(), "backup_".length() + 15), NAME_FORMAT)
+                    .toLocalDate();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // ========== MANIFESTS ==========
+
+    // Text format: "file <size> <modified> <sha256> <path>" followed by one "chunk <sha256>" line per chunk
+    private void writeManifest(String name, List<FileEntry> entries) throws IOException {
+        Path target = manifestDirectory.resolve(name + MANIFEST_SUFFIX);
+        Path temp = manifestDirectory.resolve(name + MANIFEST_SUFFIX + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write("# CCRM backup manifest v1, created " + LocalDateTime.now());
+            out.newLine();
+            for (FileEntry entry : entries) {
+                out.write("file " + entry.size() + " " + entry.modified() + " " + entry.sha256() + " " + entry.path());
+                out.newLine();
+                for (String chunk : entry.chunks()) {
+                    out.write("chunk " + chunk);
+                    out.newLine();
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Map<String, FileEntry> readManifest(Path manifest) throws IOException {
+        Map<String, FileEntry> entries = new HashMap<>();
+        String[] file = null;
+        List<String> chunks = null;
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            if (line.startsWith("file ")) {
+                if (file != null) {
+                    addEntry(entries, file, chunks);
+                }
+                file = line.split(" ", 5);
+                chunks = new ArrayList<>();
+            } else if (line.startsWith("chunk ") && chunks != null) {
+                chunks.add(line.substring("chunk ".length()));
+            }
+        }
+        if (file != null) {
+            addEntry(entries, file, chunks);
+        }
+        return entries;
+    }
+
+    private static void addEntry(Map<String, FileEntry> entries, String[] file, List<String> chunks) {
+        entries.put(file[4], new FileEntry(file[4], Long.parseLong(file[1]), Long.parseLong(file[2]), file[3], chunks));
+    }
+
+    private Map<String, FileEntry> readManifestQuietly(String backup) {
+        try {
+            return readManifest(manifestDirectory.resolve(backup + MANIFEST_SUFFIX));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable manifest " + backup + ": " + e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private java.util.Optional<String> latestBackup() throws IOException {
+        List<String> backups = listBackups();
+        return backups.isEmpty() ? java.util.Optional.empty() : java.util.Optional.of(backups.get(backups.size() - 1));
+    }
+
+    private String uniqueName() {
+        String base = "backup_" + LocalDateTime.now().format(NAME_FORMAT);
+        String name = base;
+        for (int i = 1; Files.exists(manifestDirectory.resolve(name + MANIFEST_SUFFIX)); i++) {
+            name = base + "_" + i;
+        }
+        return name;
+    }
+
+    private Path chunkPath(String hash) {
+        return chunkDirectory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,743 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.IdGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Columnar binary file format for the whole registry.
+ *
+ * Each table (students, courses, enrollments) is stored column by column, and each column is
+ * split into blocks of {@value #BLOCK_ROWS} rows that can optionally be deflate-compressed.
+ * A footer at the end of the file records where every block lives, so a reader can decode one
+ * column (for example all enrollment grades) without touching the bytes of any other column.
+ *
+ * Column encodings:
+ * <ul>
+ *   <li>PLAIN - length-prefixed UTF-8 strings</li>
+ *   <li>DICTIONARY - per-block dictionary of distinct values, then one small code per row
+ *       (departments, semesters, grades)</li>
+ *   <li>DELTA - zigzag varint differences between consecutive numbers (ordinals, dates, flags)</li>
+ *   <li>PREFIXED_DELTA - ids of the form prefix + zero-padded number, stored as DELTA numbers;
+ *       columns that do not fit the pattern fall back to PLAIN</li>
+ * </ul>
+ *
+ * Layout: {@code [magic][version] [column blocks...] [footer] [footer offset][magic]}.
+ */
+public class ColumnarCodec {
+    private static final long MAGIC = 0x4343524D434F4C46L; // "CCRMCOLF"
+    private static final int VERSION = 1;
+    static final int BLOCK_ROWS = 64 * 1024;
+
+    private static final byte PLAIN = 0;
+    private static final byte DICTIONARY = 1;
+    private static final byte DELTA = 2;
+    private static final byte PREFIXED_DELTA = 3;
+
+    private static final byte UNCOMPRESSED = 0;
+    private static final byte DEFLATED = 1;
+
+    public static final String STUDENTS = "students";
+    public static final String COURSES = "courses";
+    public static final String ENROLLMENTS = "enrollments";
+
+    private ColumnarCodec() {
+    }
+
+    // ========== WRITE ==========
+
+    /**
+     * Write the registry to {@code target} (via a temp file that is atomically renamed into place).
+     * @return number of bytes written
+     */
+    public static long write(Path target, StudentService students, CourseService courses,
+                             EnrollmentService enrollments, boolean compress) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileWriter writer = new FileWriter(temp, compress)) {
+            Map<Student, Integer> studentOrdinals = new HashMap<>();
+            students.forEachStudent(s -> studentOrdinals.put(s, studentOrdinals.size()));
+            Map<Course, Integer> courseOrdinals = new HashMap<>();
+            courses.forEachCourse(c -> courseOrdinals.put(c, courseOrdinals.size()));
+
+            writer.beginTable(STUDENTS, studentOrdinals.size());
+            writer.idColumn("id", sink -> students.forEachStudent(s -> sink.accept(s.getId())));
+            writer.stringColumn("regNo", PLAIN, sink -> students.forEachStudent(s -> sink.accept(s.getRegNo())));
+            writer.stringColumn("fullName", PLAIN, sink -> students.forEachStudent(s -> sink.accept(s.getFullName())));
+            writer.stringColumn("email", PLAIN, sink -> students.forEachStudent(s -> sink.accept(s.getEmail())));
+            writer.stringColumn("department", DICTIONARY,
+                    sink -> students.forEachStudent(s -> sink.accept(s.getDepartment())));
+            writer.longColumn("active", sink -> students.forEachStudent(s -> sink.accept(s.isActive() ? 1L : 0L)));
+
+            writer.beginTable(COURSES, courseOrdinals.size());
+            writer.stringColumn("code", PLAIN, sink -> courses.forEachCourse(c -> sink.accept(c.getCode())));
+            writer.stringColumn("title", PLAIN, sink -> courses.forEachCourse(c -> sink.accept(c.getTitle())));
+            writer.longColumn("credits", sink -> courses.forEachCourse(c -> sink.accept((long) c.getCredits())));
+            writer.stringColumn("description", PLAIN, sink -> courses.forEachCourse(c -> sink.accept(c.getDescription())));
+            writer.stringColumn("department", DICTIONARY,
+                    sink -> courses.forEachCourse(c -> sink.accept(nameOf(c.getDepartment()))));
+            writer.stringColumn("semester", DICTIONARY,
+                    sink -> courses.forEachCourse(c -> sink.accept(nameOf(c.getSemester()))));
+            writer.longColumn("maxCapacity", sink -> courses.forEachCourse(c -> sink.accept((long) c.getMaxCapacity())));
+            writer.longColumn("active", sink -> courses.forEachCourse(c -> sink.accept(c.isActive() ? 1L : 0L)));
+
+            int[] enrollmentCount = {0};
+            enrollments.forEachEnrollment(e -> enrollmentCount[0]++);
+            writer.beginTable(ENROLLMENTS, enrollmentCount[0]);
+            writer.idColumn("id", sink -> enrollments.forEachEnrollment(e -> sink.accept(e.getEnrollmentId())));
+            writer.longColumn("student",
+                    sink -> enrollments.forEachEnrollment(e -> sink.accept((long) studentOrdinals.get(e.getStudent()))));
+            writer.longColumn("course",
+                    sink -> enrollments.forEachEnrollment(e -> sink.accept((long) courseOrdinals.get(e.getCourse()))));
+            writer.stringColumn("semester", DICTIONARY,
+                    sink -> enrollments.forEachEnrollment(e -> sink.accept(nameOf(e.getSemester()))));
+            writer.longColumn("date",
+                    sink -> enrollments.forEachEnrollment(e -> sink.accept(e.getEnrollmentDate().toEpochDay())));
+            writer.stringColumn("grade", DICTIONARY,
+                    sink -> enrollments.forEachEnrollment(e -> sink.accept(nameOf(e.getGrade()))));
+            writer.longColumn("active", sink -> enrollments.forEachEnrollment(e -> sink.accept(e.isActive() ? 1L : 0L)));
+            writer.longColumn("completed",
+                    sink -> enrollments.forEachEnrollment(e -> sink.accept(e.isCompleted() ? 1L : 0L)));
+
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return Files.size(target);
+    }
+
+    private static String nameOf(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    // Streams column values into blocks and collects the footer metadata
+    private static final class FileWriter implements Closeable {
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final boolean compress;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final List<TableMeta> tables = new ArrayList<>();
+        private long position;
+
+        FileWriter(Path path, boolean compress) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel), 1024 * 1024));
+            this.compress = compress;
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            position = Long.BYTES + Integer.BYTES;
+        }
+
+        void beginTable(String name, int rows) {
+            tables.add(new TableMeta(name, rows, new LinkedHashMap<>()));
+        }
+
+        void stringColumn(String name, byte encoding, Consumer<Consumer<String>> source) {
+            ColumnEncoder encoder = new ColumnEncoder(new ColumnMeta(name, encoding, "", 0));
+            source.accept(value -> encoder.addString(value, this));
+            encoder.flush(this);
+        }
+
+        void longColumn(String name, Consumer<Consumer<Long>> source) {
+            ColumnEncoder encoder = new ColumnEncoder(new ColumnMeta(name, DELTA, "", 0));
+            source.accept(value -> encoder.addLong(value, this));
+            encoder.flush(this);
+        }
+
+        /**
+         * Ids like "ENR0042" are stored as delta-encoded numbers when the whole column shares
+         * one prefix and padding; anything else (including an empty column) is stored as plain strings.
+         */
+        void idColumn(String name, Consumer<Consumer<String>> source) {
+            IdShape shape = new IdShape();
+            source.accept(shape::accept);
+            if (!shape.matches || shape.prefix == null) {
+                stringColumn(name, PLAIN, source);
+                return;
+            }
+            ColumnEncoder encoder = new ColumnEncoder(new ColumnMeta(name, PREFIXED_DELTA, shape.prefix, shape.width));
+            source.accept(value -> encoder.addLong(Long.parseLong(value.substring(shape.prefix.length())), this));
+            encoder.flush(this);
+        }
+
+        void writeBlock(ColumnMeta column, ByteSink raw, int rows) {
+            try {
+                byte[] stored = raw.bytes;
+                int storedLength = raw.length;
+                byte codec = UNCOMPRESSED;
+                if (compress) {
+                    deflater.reset();
+                    deflater.setInput(raw.bytes, 0, raw.length);
+                    deflater.finish();
+                    byte[] packed = new byte[raw.length + 64];
+                    int packedLength = deflater.deflate(packed);
+                    if (deflater.finished() && packedLength < raw.length) {
+                        stored = packed;
+                        storedLength = packedLength;
+                        codec = DEFLATED;
+                    }
+                }
+                column.blocks.add(new BlockMeta(position, storedLength, raw.length, rows, codec));
+                out.write(stored, 0, storedLength);
+                position += storedLength;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void addColumn(ColumnMeta column) {
+            tables.get(tables.size() - 1).columns().put(column.name, column);
+        }
+
+        void finish() throws IOException {
+            long footerOffset = position;
+            out.writeInt(tables.size());
+            for (TableMeta table : tables) {
+                out.writeUTF(table.name());
+                out.writeInt(table.rows());
+                out.writeInt(table.columns().size());
+                for (ColumnMeta column : table.columns().values()) {
+                    out.writeUTF(column.name);
+                    out.writeByte(column.encoding);
+                    out.writeUTF(column.prefix);
+                    out.writeInt(column.width);
+                    out.writeInt(column.blocks.size());
+                    for (BlockMeta block : column.blocks) {
+                        out.writeLong(block.offset());
+                        out.writeInt(block.storedLength());
+                        out.writeInt(block.rawLength());
+                        out.writeInt(block.rows());
+                        out.writeByte(block.codec());
+                    }
+                }
+            }
+            out.writeLong(footerOffset);
+            out.writeLong(MAGIC);
+            out.flush();
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    // Encodes one column, handing a block to the writer every BLOCK_ROWS values
+    private static final class ColumnEncoder {
+        private final ColumnMeta column;
+        private final ByteSink values = new ByteSink();
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> dictionaryValues = new ArrayList<>();
+        private int rows;
+        private long previous;
+        private boolean added;
+
+        ColumnEncoder(ColumnMeta column) {
+            this.column = column;
+        }
+
+        void addString(String value, FileWriter writer) {
+            if (column.encoding == DICTIONARY) {
+                if (value == null) {
+                    values.writeVarLong(0);
+                } else {
+                    Integer code = dictionary.get(value);
+                    if (code == null) {
+                        code = dictionaryValues.size() + 1; // 0 is reserved for null
+                        dictionary.put(value, code);
+                        dictionaryValues.add(value);
+                    }
+                    values.writeVarLong(code);
+                }
+            } else {
+                values.writeString(value);
+            }
+            endRow(writer);
+        }
+
+        void addLong(long value, FileWriter writer) {
+            long delta = value - previous;
+            values.writeVarLong((delta << 1) ^ (delta >> 63)); // zigzag
+            previous = value;
+            endRow(writer);
+        }
+
+        private void endRow(FileWriter writer) {
+            if (!added) {
+                writer.addColumn(column);
+                added = true;
+            }
+            if (++rows == BLOCK_ROWS) {
+                flush(writer);
+            }
+        }
+
+        void flush(FileWriter writer) {
+            if (!added) {
+                writer.addColumn(column); // empty table: column with no blocks
+                added = true;
+            }
+            if (rows == 0) {
+                return;
+            }
+            ByteSink block = values;
+            if (column.encoding == DICTIONARY) {
+                block = new ByteSink();
+                block.writeVarLong(dictionaryValues.size());
+                dictionaryValues.forEach(block::writeString);
+                block.write(values.bytes, 0, values.length);
+                dictionary.clear();
+                dictionaryValues.clear();
+            }
+            writer.writeBlock(column, block, rows);
+            values.length = 0;
+            rows = 0;
+            previous = 0; // every block decodes on its own
+        }
+    }
+
+    // Detects whether every id is prefix + zero-padded number with one shared prefix and padding
+    private static final class IdShape {
+        String prefix;
+        int width;
+        boolean matches = true;
+
+        void accept(String id) {
+            if (!matches) {
+                return;
+            }
+            if (id == null) {
+                matches = false;
+                return;
+            }
+            int digits = id.length();
+            while (digits > 0 && id.charAt(digits - 1) >= '0' && id.charAt(digits - 1) <= '9') {
+                digits--;
+            }
+            int count = id.length() - digits;
+            if (count == 0 || count > 18) {
+                matches = false;
+                return;
+            }
+            if (prefix == null) {
+                prefix = id.substring(0, digits);
+                width = count;
+            }
+            if (!id.startsWith(prefix) || digits != prefix.length()
+                    || !formatId(prefix, width, Long.parseLong(id.substring(digits))).equals(id)) {
+                matches = false;
+            }
+        }
+    }
+
+    private static String formatId(String prefix, int width, long number) {
+        String digits = Long.toString(number);
+        StringBuilder id = new StringBuilder(prefix.length() + Math.max(width, digits.length())).append(prefix);
+        for (int i = digits.length(); i < width; i++) {
+            id.append('0');
+        }
+        return id.append(digits).toString();
+    }
+
+    // ========== READ ==========
+
+    /**
+     * Open a columnar file for reading. Only the footer is read up front; column data is read
+     * block by block when a column is requested.
+     */
+    public static Reader open(Path path) throws IOException {
+        return new Reader(path);
+    }
+
+    /**
+     * Load every table into the services. Students and courses whose key already exists are
+     * reused rather than re-added, and enrollments already present are skipped.
+     * @return number of enrollments loaded
+     */
+    public static int load(Path path, StudentService students, CourseService courses,
+                           EnrollmentService enrollments) throws IOException {
+        try (Reader reader = open(path)) {
+            String[] ids = reader.strings(STUDENTS, "id");
+            String[] regNos = reader.strings(STUDENTS, "regNo");
+            String[] names = reader.strings(STUDENTS, "fullName");
+            String[] emails = reader.strings(STUDENTS, "email");
+            String[] departments = reader.strings(STUDENTS, "department");
+            long[] studentActive = reader.longs(STUDENTS, "active");
+            Student[] studentList = new Student[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                Student student = students.findStudentById(ids[i]);
+                if (student == null) {
+                    student = new Student(ids[i], regNos[i], names[i], emails[i]);
+                    student.setDepartment(departments[i]);
+                    if (studentActive[i] == 0) {
+                        student.deactivate();
+                    }
+                    students.addStudent(student);
+                }
+                studentList[i] = student;
+            }
+
+            String[] codes = reader.strings(COURSES, "code");
+            String[] titles = reader.strings(COURSES, "title");
+            long[] credits = reader.longs(COURSES, "credits");
+            String[] descriptions = reader.strings(COURSES, "description");
+            String[] courseDepartments = reader.strings(COURSES, "department");
+            String[] courseSemesters = reader.strings(COURSES, "semester");
+            long[] capacities = reader.longs(COURSES, "maxCapacity");
+            long[] courseActive = reader.longs(COURSES, "active");
+            Course[] courseList = new Course[codes.length];
+            for (int i = 0; i < codes.length; i++) {
+                Course course = courses.findCourseByCode(codes[i]);
+                if (course == null) {
+                    Course.Builder builder = new Course.Builder(codes[i], titles[i], (int) credits[i]);
+                    builder.description(descriptions[i]);
+                    if (courseDepartments[i] != null) {
+                        builder.department(Department.valueOf(courseDepartments[i]));
+                    }
+                    if (courseSemesters[i] != null) {
+                        builder.semester(Semester.valueOf(courseSemesters[i]));
+                    }
+                    builder.maxCapacity((int) capacities[i]);
+                    builder.active(courseActive[i] != 0);
+                    course = builder.build();
+                    courses.addCourse(course);
+                }
+                courseList[i] = course;
+            }
+
+            String[] enrollmentIds = reader.strings(ENROLLMENTS, "id");
+            long[] studentRefs = reader.longs(ENROLLMENTS, "student");
+            long[] courseRefs = reader.longs(ENROLLMENTS, "course");
+            String[] semesters = reader.strings(ENROLLMENTS, "semester");
+            long[] dates = reader.longs(ENROLLMENTS, "date");
+            String[] grades = reader.strings(ENROLLMENTS, "grade");
+            long[] active = reader.longs(ENROLLMENTS, "active");
+            long[] completed = reader.longs(ENROLLMENTS, "completed");
+            int loaded = 0;
+            long maxSequence = 0;
+            for (int i = 0; i < enrollmentIds.length; i++) {
+                if (enrollments.findEnrollmentById(enrollmentIds[i]) != null) {
+                    continue;
+                }
+                enrollments.addEnrollment(Enrollment.restore(enrollmentIds[i],
+                        studentList[(int) studentRefs[i]], courseList[(int) courseRefs[i]],
+                        Semester.valueOf(semesters[i]), LocalDate.ofEpochDay(dates[i]),
+                        grades[i] != null ? Grade.valueOf(grades[i]) : null,
+                        completed[i] != 0, active[i] != 0));
+                maxSequence = Math.max(maxSequence, IdGenerator.parseSequence(Enrollment.ID_PREFIX, enrollmentIds[i]));
+                loaded++;
+            }
+            Enrollment.getIdGenerator().reserveThrough(maxSequence);
+            return loaded;
+        }
+    }
+
+    /**
+     * Random-access reader over a columnar file.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final Map<String, TableMeta> tables = new HashMap<>();
+        private final Inflater inflater = new Inflater();
+
+        private Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                readFooter(path);
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void readFooter(Path path) throws IOException {
+            long size = channel.size();
+            ByteBuffer header = readFully(0, Long.BYTES + Integer.BYTES);
+            ByteBuffer trailer = readFully(size - 2L * Long.BYTES, 2 * Long.BYTES);
+            if (header.getLong() != MAGIC || header.getInt() != VERSION || trailer.getLong(Long.BYTES) != MAGIC) {
+                throw new IOException(path.getFileName() + " is not a complete columnar registry file");
+            }
+            long footerOffset = trailer.getLong(0);
+            ByteBuffer footer = readFully(footerOffset, (int) (size - 2L * Long.BYTES - footerOffset));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                    footer.array(), footer.arrayOffset(), footer.remaining()));
+
+            int tableCount = in.readInt();
+            for (int t = 0; t < tableCount; t++) {
+                TableMeta table = new TableMeta(in.readUTF(), in.readInt(), new LinkedHashMap<>());
+                int columnCount = in.readInt();
+                for (int c = 0; c < columnCount; c++) {
+                    ColumnMeta column = new ColumnMeta(in.readUTF(), in.readByte(), in.readUTF(), in.readInt());
+                    int blockCount = in.readInt();
+                    for (int b = 0; b < blockCount; b++) {
+                        column.blocks.add(new BlockMeta(in.readLong(), in.readInt(), in.readInt(), in.readInt(),
+                                in.readByte()));
+                    }
+                    table.columns().put(column.name, column);
+                }
+                tables.put(table.name(), table);
+            }
+        }
+
+        public int rowCount(String table) {
+            TableMeta meta = tables.get(table);
+            return meta != null ? meta.rows() : 0;
+        }
+
+        /**
+         * Decode a string column (PLAIN, DICTIONARY or PREFIXED_DELTA) reading only its blocks.
+         */
+        public String[] strings(String table, String column) throws IOException {
+            ColumnMeta meta = column(table, column);
+            String[] result = new String[rowCount(table)];
+            int row = 0;
+            for (BlockMeta block : meta.blocks) {
+                ByteBuffer in = readBlock(block);
+                switch (meta.encoding) {
+                    case PLAIN:
+                        for (int i = 0; i < block.rows(); i++) {
+                            result[row++] = readString(in);
+                        }
+                        break;
+                    case DICTIONARY:
+                        String[] dictionary = new String[(int) readVarLong(in) + 1];
+                        for (int i = 1; i < dictionary.length; i++) {
+                            dictionary[i] = readString(in);
+                        }
+                        for (int i = 0; i < block.rows(); i++) {
+                            result[row++] = dictionary[(int) readVarLong(in)];
+                        }
+                        break;
+                    case PREFIXED_DELTA:
+                        long value = 0;
+                        for (int i = 0; i < block.rows(); i++) {
+                            value += readZigZag(in);
+                            result[row++] = formatId(meta.prefix, meta.width, value);
+                        }
+                        break;
+                    default:
+                        throw new IOException("Column " + table + "." + column + " is not a string column");
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Decode a DELTA column reading only its blocks.
+         */
+        public long[] longs(String table, String column) throws IOException {
+            ColumnMeta meta = column(table, column);
+            if (meta.encoding != DELTA) {
+                throw new IOException("Column " + table + "." + column + " is not a numeric column");
+            }
+            long[] result = new long[rowCount(table)];
+            int row = 0;
+            for (BlockMeta block : meta.blocks) {
+                ByteBuffer in = readBlock(block);
+                long value = 0;
+                for (int i = 0; i < block.rows(); i++) {
+                    value += readZigZag(in);
+                    result[row++] = value;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * All recorded grades for one course. Reads the course code column and the enrollment
+         * course and grade columns - nothing else in the file.
+         */
+        public List<Grade> gradesForCourse(String courseCode) throws IOException {
+            int ordinal = Arrays.asList(strings(COURSES, "code")).indexOf(courseCode);
+            List<Grade> grades = new ArrayList<>();
+            if (ordinal < 0) {
+                return grades;
+            }
+            long[] courseRefs = longs(ENROLLMENTS, "course");
+            String[] gradeNames = strings(ENROLLMENTS, "grade");
+            for (int i = 0; i < courseRefs.length; i++) {
+                if (courseRefs[i] == ordinal && gradeNames[i] != null) {
+                    grades.add(Grade.valueOf(gradeNames[i]));
+                }
+            }
+            return grades;
+        }
+
+        private ColumnMeta column(String table, String column) throws IOException {
+            TableMeta meta = tables.get(table);
+            ColumnMeta columnMeta = meta != null ? meta.columns().get(column) : null;
+            if (columnMeta == null) {
+                throw new IOException("No column " + table + "." + column);
+            }
+            return columnMeta;
+        }
+
+        private ByteBuffer readBlock(BlockMeta block) throws IOException {
+            ByteBuffer stored = readFully(block.offset(), block.storedLength());
+            if (block.codec() == UNCOMPRESSED) {
+                return stored;
+            }
+            byte[] raw = new byte[block.rawLength()];
+            inflater.reset();
+            inflater.setInput(stored.array(), 0, block.storedLength());
+            try {
+                if (inflater.inflate(raw) != raw.length) {
+                    throw new IOException("Truncated block at offset " + block.offset());
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt block at offset " + block.offset(), e);
+            }
+            return ByteBuffer.wrap(raw);
+        }
+
+        private ByteBuffer readFully(long position, int length) throws IOException {
+            if (position < 0 || length < 0 || position + length > channel.size()) {
+                throw new IOException("Columnar file is truncated");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Columnar file is truncated");
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+    }
+
+    // ========== METADATA ==========
+
+    private record TableMeta(String name, int rows, Map<String, ColumnMeta> columns) { }
+
+    private record BlockMeta(long offset, int storedLength, int rawLength, int rows, byte codec) { }
+
+    private static final class ColumnMeta {
+        final String name;
+        final byte encoding;
+        final String prefix;
+        final int width;
+        final List<BlockMeta> blocks = new ArrayList<>();
+
+        ColumnMeta(String name, byte encoding, String prefix, int width) {
+            this.name = name;
+            this.encoding = encoding;
+            this.prefix = prefix;
+            this.width = width;
+        }
+    }
+
+    // ========== VARINT ENCODING ==========
+
+    // Growable byte array for encoding one block
+    private static final class ByteSink {
+        byte[] bytes = new byte[4096];
+        int length;
+
+        void write(byte[] source, int offset, int count) {
+            ensure(count);
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        // Length + 1 so that 0 can mean null
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            write(utf8, 0, utf8.length);
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long readZigZag(ByteBuffer in) {
+        long encoded = readVarLong(in);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,192 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Reads a CSV file (first line is a header), parses each row and pushes the results into a sink
+ * in bounded batches, in file order.
+ *
+ * Parallel mode splits the file into record-aligned byte ranges, parses them on a worker pool and
+ * merges the batches back in order on the calling thread, so the sink need not be thread-safe.
+ * Chunk boundaries are found with one sequential scan that tracks quote state, so quoted fields
+ * containing line breaks are never split. Line endings must be LF or CRLF.
+ */
+class CsvImportPipeline<T> {
+    private static final int READ_BUFFER_SIZE = 256 * 1024;
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+    // Caps the rows parsed ahead of the sink at threads * 2 chunks of this many bytes, whatever the file size
+    private static final long MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    @FunctionalInterface
+    interface RowParser<T> {
+        /**
+         * @return the parsed row, or null if it was rejected (after reporting it to result)
+         */
+        T parse(CsvReader record, ImportResult result);
+    }
+
+    private final RowParser<T> parser;
+    private final Consumer<T> sink;
+    private final int batchSize;
+
+    CsvImportPipeline(RowParser<T> parser, Consumer<T> sink, int batchSize) {
+        this.parser = parser;
+        this.sink = sink;
+        this.batchSize = batchSize;
+    }
+
+    // Parsed rows plus the line each came from
+    private static final class Batch<T> {
+        final List<T> items = new ArrayList<>();
+        long[] lines = new long[16];
+        final ImportResult parseResult = new ImportResult();
+
+        void add(T item, long line) {
+            if (items.size() == lines.length) {
+                lines = Arrays.copyOf(lines, lines.length * 2);
+            }
+            lines[items.size()] = line;
+            items.add(item);
+        }
+
+        void clear() {
+            items.clear();
+        }
+    }
+
+    ImportResult runSerial(Path file) throws IOException {
+        ImportResult result = new ImportResult();
+        try (CsvReader reader = new CsvReader(file)) {
+            reader.nextRecord(); // skip header
+            Batch<T> batch = new Batch<>();
+            while (reader.nextRecord()) {
+                T item = parser.parse(reader, result);
+                if (item != null) {
+                    batch.add(item, reader.lineNumber());
+                }
+                if (batch.items.size() == batchSize) {
+                    flush(batch, result);
+                }
+            }
+            flush(batch, result);
+        }
+        return result;
+    }
+
+    ImportResult runParallel(Path file, int threads) throws IOException {
+        ImportResult result = new ImportResult();
+        List<long[]> chunks = findChunks(file, threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // At most threads * 2 chunks (each at most MAX_CHUNK_SIZE) are parsed but not yet flushed
+            Deque<Future<Batch<T>>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            while (next < chunks.size() || !inFlight.isEmpty()) {
+                while (next < chunks.size() && inFlight.size() < threads * 2) {
+                    long[] chunk = chunks.get(next++);
+                    inFlight.add(pool.submit(() -> parseChunk(file, chunk[0], chunk[1], chunk[2])));
+                }
+                Batch<T> batch = inFlight.poll().get();
+                result.merge(batch.parseResult);
+                flush(batch, result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return result;
+    }
+
+    private Batch<T> parseChunk(Path file, long start, long end, long firstLine) throws IOException {
+        Batch<T> batch = new Batch<>();
+        try (CsvReader reader = new CsvReader(FileChannel.open(file, StandardOpenOption.READ),
+                READ_BUFFER_SIZE, start, end, firstLine)) {
+            while (reader.nextRecord()) {
+                T item = parser.parse(reader, batch.parseResult);
+                if (item != null) {
+                    batch.add(item, reader.lineNumber());
+                }
+            }
+        }
+        return batch;
+    }
+
+    private void flush(Batch<T> batch, ImportResult result) {
+        for (int i = 0; i < batch.items.size(); i++) {
+            try {
+                sink.accept(batch.items.get(i));
+                result.addImported();
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                result.addError(batch.lines[i], e.getMessage());
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * One sequential scan for record boundaries after the header.
+     * @return {start, end, firstLine} per chunk
+     */
+    private static List<long[]> findChunks(Path file, int threads) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / (threads * 4L)));
+
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            long offset = 0;
+            long line = 1;
+            long chunkStart = -1; // -1 until the header has been passed
+            long chunkLine = 0;
+            boolean inQuotes = false;
+
+            while (channel.read(buffer, offset) > 0) {
+                buffer.flip();
+                int limit = buffer.limit();
+                for (int i = 0; i < limit; i++) {
+                    byte b = buffer.get(i);
+                    if (b == '"') {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n') {
+                        line++;
+                        if (!inQuotes) {
+                            long recordEnd = offset + i + 1;
+                            if (chunkStart < 0) {
+                                chunkStart = recordEnd;
+                                chunkLine = line;
+                            } else if (recordEnd - chunkStart >= chunkSize) {
+                                chunks.add(new long[]{chunkStart, recordEnd, chunkLine});
+                                chunkStart = recordEnd;
+                                chunkLine = line;
+                            }
+                        }
+                    }
+                }
+                offset += limit;
+                buffer.clear();
+            }
+            if (chunkStart >= 0 && chunkStart < size) {
+                chunks.add(new long[]{chunkStart, size, chunkLine});
+            }
+        }
+        return chunks;
+    }
+}
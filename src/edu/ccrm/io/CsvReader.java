@@ -0,0 +1,232 @@
+package edu.ccrm.io;
+
+import edu.ccrm.util.StringPool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC-4180 CSV reader over a large-buffered FileChannel.
+ *
+ * Parses bytes directly (delimiters are ASCII, so UTF-8 content is safe), handles quoted
+ * fields with embedded commas, quotes ("") and line breaks, and creates exactly one String
+ * per field - no line Strings, no regex split, no substrings. Only one record is held in
+ * memory at a time, so heap use does not depend on file size.
+ *
+ * Usage: {@code while (reader.nextRecord()) { reader.field(0) ... }}
+ */
+public class CsvReader implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long endPosition;
+    private long position;
+    private boolean eof;
+
+    // Current record
+    private String[] fields = new String[8];
+    private int fieldCount;
+    private long recordLine;
+
+    // Scratch space for the field being parsed
+    private byte[] fieldBytes = new byte[256];
+    private int fieldLength;
+
+    private long line = 1;
+
+    public CsvReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ), DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvReader(FileChannel channel, int bufferSize) throws IOException {
+        this(channel, bufferSize, 0, Long.MAX_VALUE, 1);
+    }
+
+    /**
+     * Reads only the byte range [start, end) of the channel, numbering lines from firstLine.
+     * The range must begin on a record boundary. Used for chunked parallel parsing.
+     */
+    public CsvReader(FileChannel channel, int bufferSize, long start, long end, long firstLine) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.position = start;
+        this.endPosition = end;
+        this.line = firstLine;
+        buffer.flip(); // start empty
+        if (start == 0) {
+            skipByteOrderMark();
+        }
+    }
+
+    /**
+     * Advances to the next non-blank record.
+     * @return false at end of input
+     */
+    public boolean nextRecord() throws IOException {
+        while (true) {
+            if (!readRecord()) {
+                return false;
+            }
+            if (fieldCount > 1 || fields[0].length() > 0) {
+                return true;
+            }
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public String field(int index) {
+        if (index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Record at line " + recordLine + " has no field " + index);
+        }
+        return fields[index];
+    }
+
+    /**
+     * The trimmed field as its shared {@link StringPool} instance, for low-cardinality columns
+     * (departments, statuses) whose values are kept after parsing.
+     */
+    public String pooledField(int index) {
+        return StringPool.canonical(field(index).trim());
+    }
+
+    /**
+     * 1-based line number on which the current record starts.
+     */
+    public long lineNumber() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ========== PARSER ==========
+
+    private boolean readRecord() throws IOException {
+        int b = read();
+        if (b < 0) {
+            return false;
+        }
+
+        fieldCount = 0;
+        recordLine = line;
+        fieldLength = 0;
+        boolean quoted = false;
+        boolean fieldStart = true;
+
+        while (true) {
+            if (quoted) {
+                if (b < 0) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (b == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        append((byte) '"'); // escaped quote
+                    } else {
+                        quoted = false;
+                        b = next;
+                        continue;
+                    }
+                } else {
+                    if (b == '\n') {
+                        line++;
+                    }
+                    append((byte) b);
+                }
+            } else if (b < 0 || b == '\n' || b == '\r') {
+                endField();
+                if (b == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (b >= 0) {
+                    line++;
+                }
+                return true;
+            } else if (b == ',') {
+                endField();
+                fieldStart = true;
+                b = read();
+                continue;
+            } else if (b == '"' && fieldStart) {
+                quoted = true;
+            } else {
+                append((byte) b);
+            }
+            fieldStart = false;
+            b = read();
+        }
+    }
+
+    private void append(byte b) {
+        if (fieldLength == fieldBytes.length) {
+            fieldBytes = Arrays.copyOf(fieldBytes, fieldLength * 2);
+        }
+        fieldBytes[fieldLength++] = b;
+    }
+
+    private void endField() {
+        if (fieldCount == fields.length) {
+            fields = Arrays.copyOf(fields, fieldCount * 2);
+        }
+        fields[fieldCount++] = fieldLength == 0 ? "" : new String(fieldBytes, 0, fieldLength, StandardCharsets.UTF_8);
+        fieldLength = 0;
+    }
+
+    // ========== BUFFERED CHANNEL ACCESS ==========
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        long remaining = endPosition - position;
+        if (remaining <= 0) {
+            eof = true;
+            return false;
+        }
+        buffer.clear();
+        if (remaining < buffer.capacity()) {
+            buffer.limit((int) remaining);
+        }
+        int n = channel.read(buffer, position);
+        buffer.flip();
+        if (n <= 0) {
+            eof = true;
+            return false;
+        }
+        position += n;
+        return true;
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        if (fill() && buffer.remaining() >= 3
+                && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+            buffer.position(3);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package edu.ccrm.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming RFC-4180 CSV writer.
+ *
+ * Encodes fields straight into one reusable buffer (UTF-8, no String.format, no getBytes
+ * copies) and drains it to a FileChannel, so memory stays flat regardless of row count.
+ * Output goes to a temp file next to the target; {@link #commit()} forces it to disk and
+ * atomically renames it over the target. Closing without committing discards the temp file.
+ */
+public class CsvWriter implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Path target;
+    private final Path tempFile;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private boolean firstField = true;
+    private boolean committed;
+
+    public CsvWriter(Path target) throws IOException {
+        this(target, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvWriter(Path target, int bufferSize) throws IOException {
+        this.target = target;
+        this.tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separator();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        if (needsQuotes(value)) {
+            put((byte) '"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    put((byte) '"');
+                }
+                i = putChar(value, i);
+            }
+            put((byte) '"');
+        } else {
+            for (int i = 0; i < value.length(); i++) {
+                i = putChar(value, i);
+            }
+        }
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separator();
+        if (value == 0) {
+            put((byte) '0');
+            return this;
+        }
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                // Cannot be negated; rare enough to take the slow path
+                for (char c : Long.toString(value).toCharArray()) {
+                    put((byte) c);
+                }
+                return this;
+            }
+            put((byte) '-');
+            value = -value;
+        }
+        // Write digits right-to-left into the buffer
+        int digits = 0;
+        for (long v = value; v > 0; v /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        int end = buffer.position() + digits;
+        for (int p = end - 1; p >= buffer.position(); p--) {
+            buffer.put(p, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+        return this;
+    }
+
+    public void endRecord() throws IOException {
+        put((byte) '\n');
+        firstField = true;
+    }
+
+    /**
+     * Flushes, fsyncs and atomically publishes the file at its target path.
+     */
+    public void commit() throws IOException {
+        drain();
+        channel.force(true);
+        channel.close();
+        try {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // ========== ENCODING ==========
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void separator() throws IOException {
+        if (!firstField) {
+            put((byte) ',');
+        }
+        firstField = false;
+    }
+
+    /**
+     * UTF-8 encodes the char at index i (two chars for a surrogate pair); returns the last index used.
+     */
+    private int putChar(String s, int i) throws IOException {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+            put((byte) c);
+        } else if (c < 0x800) {
+            ensureCapacity(2);
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, s.charAt(i + 1));
+            ensureCapacity(4);
+            buffer.put((byte) (0xF0 | (cp >> 18)));
+            buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+            return i + 1;
+        } else if (Character.isSurrogate(c)) {
+            put((byte) '?'); // unpaired surrogate, same as String.getBytes
+        } else {
+            ensureCapacity(3);
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return i;
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put(b);
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
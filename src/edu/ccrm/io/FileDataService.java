@@ -3,29 +3,51 @@ package edu.ccrm.io;
 import edu.ccrm.domain.*;
 import edu.ccrm.service.StudentService;
 import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
 import edu.ccrm.config.AppConfig;
+import edu.ccrm.util.IdGenerator;
+import edu.ccrm.util.OperationMetrics;
+import edu.ccrm.util.RegistryEvents;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Demonstrates NIO.2 File operations and Streams API
  */
 public class FileDataService {
+    private static final OperationMetrics.Timer IMPORT_STUDENTS = OperationMetrics.timer("file.importStudents");
+    private static final OperationMetrics.Timer IMPORT_COURSES = OperationMetrics.timer("file.importCourses");
+    private static final OperationMetrics.Timer IMPORT_ENROLLMENTS = OperationMetrics.timer("file.importEnrollments");
+    private static final OperationMetrics.Timer EXPORT_STUDENTS = OperationMetrics.timer("file.exportStudents");
+    private static final OperationMetrics.Timer EXPORT_COURSES = OperationMetrics.timer("file.exportCourses");
+    private static final OperationMetrics.Timer EXPORT_ENROLLMENTS = OperationMetrics.timer("file.exportEnrollments");
+    private static final OperationMetrics.Timer EXPORT_COLUMNAR = OperationMetrics.timer("file.exportColumnar");
+    private static final OperationMetrics.Timer IMPORT_COLUMNAR = OperationMetrics.timer("file.importColumnar");
+    private static final OperationMetrics.Timer BACKUP = OperationMetrics.timer("file.backup");
+    private static final OperationMetrics.Timer RESTORE_BACKUP = OperationMetrics.timer("file.restoreBackup");
+
+    // Rows are pushed into the services in batches of this size, so serial import heap is bounded
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
     private final StudentService studentService;
     private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
     private final AppConfig config;
 
     public FileDataService(StudentService studentService, CourseService courseService) {
+        this(studentService, courseService, null);
+    }
+
+    public FileDataService(StudentService studentService, CourseService courseService,
+                           EnrollmentService enrollmentService) {
         this.studentService = studentService;
         this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
         this.config = AppConfig.getInstance();
     }
 
@@ -86,198 +108,511 @@ public class FileDataService {
     // ========== IMPORT METHODS ==========
 
     public void importStudentsFromCSV() {
+        long start = IMPORT_STUDENTS.start();
+        RegistryEvents.CsvImport event = new RegistryEvents.CsvImport();
+        event.begin();
+        ImportResult result = null;
         Path filePath = config.getStudentDataFile();
         System.out.println("Importing students from: " + filePath.toAbsolutePath());
 
-        try (Stream<String> lines = Files.lines(filePath)) {
-            List<Student> students = lines
-                    .skip(1)
-                    .map(this::parseStudentFromCSV)
-                    .filter(student -> student != null)
-                    .collect(Collectors.toList());
-
-            students.forEach(studentService::addStudent);
-            System.out.println("Successfully imported " + students.size() + " students");
-
+        try {
+            result = studentImporter().runSerial(filePath);
+            result.getErrors().forEach(System.err::println);
+            System.out.println("Successfully imported " + result.getImportedCount() + " students");
         } catch (IOException e) {
             System.err.println("Error reading students file: " + e.getMessage());
+        } finally {
+            IMPORT_STUDENTS.stop(start);
+            commitImport(event, filePath, result, 1);
         }
     }
 
     public void importCoursesFromCSV() {
+        long start = IMPORT_COURSES.start();
+        RegistryEvents.CsvImport event = new RegistryEvents.CsvImport();
+        event.begin();
+        ImportResult result = null;
         Path filePath = config.getCourseDataFile();
         System.out.println("Importing courses from: " + filePath.toAbsolutePath());
 
-        try (Stream<String> lines = Files.lines(filePath)) {
-            List<Course> courses = lines
-                    .skip(1)
-                    .map(this::parseCourseFromCSV)
-                    .filter(course -> course != null)
-                    .collect(Collectors.toList());
+        try {
+            result = courseImporter().runSerial(filePath);
+            result.getErrors().forEach(System.err::println);
+            System.out.println("Successfully imported " + result.getImportedCount() + " courses");
+        } catch (IOException e) {
+            System.err.println("Error reading courses file: " + e.getMessage());
+        } finally {
+            IMPORT_COURSES.stop(start);
+            commitImport(event, filePath, result, 1);
+        }
+    }
+
+    /**
+     * Parallel import for large files: parses line-aligned chunks on {@code threads} workers
+     * and adds the students in file order. Problems are returned with their line numbers.
+     */
+    public ImportResult importStudentsFromCSV(int threads) throws IOException {
+        long start = IMPORT_STUDENTS.start();
+        RegistryEvents.CsvImport event = new RegistryEvents.CsvImport();
+        event.begin();
+        Path filePath = config.getStudentDataFile();
+        ImportResult result = null;
+        try {
+            result = studentImporter().runParallel(filePath, threads);
+            return result;
+        } finally {
+            IMPORT_STUDENTS.stop(start);
+            commitImport(event, filePath, result, threads);
+        }
+    }
+
+    public ImportResult importCoursesFromCSV(int threads) throws IOException {
+        long start = IMPORT_COURSES.start();
+        RegistryEvents.CsvImport event = new RegistryEvents.CsvImport();
+        event.begin();
+        Path filePath = config.getCourseDataFile();
+        ImportResult result = null;
+        try {
+            result = courseImporter().runParallel(filePath, threads);
+            return result;
+        } finally {
+            IMPORT_COURSES.stop(start);
+            commitImport(event, filePath, result, threads);
+        }
+    }
 
-            courses.forEach(courseService::addCourse);
-            System.out.println("Successfully imported " + courses.size() + " courses");
+    /**
+     * Load enrollments with their grades. Students and courses must be imported first;
+     * references are resolved through the services' hash indexes.
+     */
+    public void importEnrollmentsFromCSV() {
+        long start = IMPORT_ENROLLMENTS.start();
+        RegistryEvents.CsvImport event = new RegistryEvents.CsvImport();
+        event.begin();
+        ImportResult result = null;
+        Path filePath = config.getEnrollmentDataFile();
+        System.out.println("Importing enrollments from: " + filePath.toAbsolutePath());
 
+        try {
+            result = runEnrollmentImport(filePath, 1);
+            result.getErrors().forEach(System.err::println);
+            System.out.println("Successfully imported " + result.getImportedCount() + " enrollments");
         } catch (IOException e) {
-            System.err.println("Error reading courses file: " + e.getMessage());
+            System.err.println("Error reading enrollments file: " + e.getMessage());
+        } finally {
+            IMPORT_ENROLLMENTS.stop(start);
+            commitImport(event, filePath, result, 1);
         }
     }
 
+    public ImportResult importEnrollmentsFromCSV(int threads) throws IOException {
+        long start = IMPORT_ENROLLMENTS.start();
+        RegistryEvents.CsvImport event = new RegistryEvents.CsvImport();
+        event.begin();
+        Path filePath = config.getEnrollmentDataFile();
+        ImportResult result = null;
+        try {
+            result = runEnrollmentImport(filePath, threads);
+            return result;
+        } finally {
+            IMPORT_ENROLLMENTS.stop(start);
+            commitImport(event, filePath, result, threads);
+        }
+    }
+
+    private ImportResult runEnrollmentImport(Path filePath, int threads) throws IOException {
+        EnrollmentService enrollments = requireEnrollmentService();
+        long[] maxSequence = {0};
+
+        CsvImportPipeline<EnrollmentRow> importer = new CsvImportPipeline<>(this::parseEnrollmentFromCSV, row -> {
+            if (enrollments.findEnrollmentById(row.id()) != null) {
+                throw new IllegalArgumentException("Enrollment ID already exists: " + row.id());
+            }
+            enrollments.addEnrollment(Enrollment.restore(row.id(), row.student(), row.course(),
+                    row.semester(), row.date(), row.grade(), row.completed(), row.active()));
+            maxSequence[0] = Math.max(maxSequence[0], IdGenerator.parseSequence(Enrollment.ID_PREFIX, row.id()));
+        }, IMPORT_BATCH_SIZE);
+
+        ImportResult result = threads > 1 ? importer.runParallel(filePath, threads) : importer.runSerial(filePath);
+
+        // New enrollments must not reuse loaded IDs
+        Enrollment.getIdGenerator().reserveThrough(maxSequence[0]);
+        return result;
+    }
+
+    private static void commitImport(RegistryEvents.CsvImport event, Path file, ImportResult result, int threads) {
+        if (event.shouldCommit()) {
+            event.file = file.getFileName().toString();
+            event.rows = result != null ? result.getImportedCount() : 0;
+            event.errors = result != null ? result.getErrors().size() : 0;
+            event.bytes = RegistryEvents.sizeOf(file);
+            event.threads = threads;
+            event.commit();
+        }
+    }
+
+    private static void commitExport(RegistryEvents.CsvExport event, Path file, long rows, String failure) {
+        if (event.shouldCommit()) {
+            event.file = file.getFileName().toString();
+            event.rows = rows;
+            event.bytes = failure == null ? RegistryEvents.sizeOf(file) : 0;
+            event.failure = failure;
+            event.commit();
+        }
+    }
+
+    private EnrollmentService requireEnrollmentService() {
+        if (enrollmentService == null) {
+            throw new IllegalStateException("FileDataService was created without an EnrollmentService");
+        }
+        return enrollmentService;
+    }
+
+    private CsvImportPipeline<Student> studentImporter() {
+        return new CsvImportPipeline<>(this::parseStudentFromCSV, studentService::addStudent, IMPORT_BATCH_SIZE);
+    }
+
+    private CsvImportPipeline<Course> courseImporter() {
+        return new CsvImportPipeline<>(this::parseCourseFromCSV, courseService::addCourse, IMPORT_BATCH_SIZE);
+    }
+
     // ========== EXPORT METHODS ==========
 
     public void exportStudentsToCSV() {
+        long start = EXPORT_STUDENTS.start();
+        RegistryEvents.CsvExport event = new RegistryEvents.CsvExport();
+        event.begin();
+        long[] rows = {0};
+        String failure = null;
         Path filePath = config.getStudentDataFile();
         System.out.println("Exporting students to: " + filePath.toAbsolutePath());
 
-        String header = "id,regNo,fullName,email,department\n";
-
-        String csvData = studentService.getAllStudents().stream()
-                .map(this::convertStudentToCSV)
-                .collect(Collectors.joining("\n"));
+        try (CsvWriter writer = new CsvWriter(filePath)) {
+            writer.field("id").field("regNo").field("fullName").field("email").field("department");
+            writer.endRecord();
 
-        try {
-            Files.write(filePath, (header + csvData).getBytes(),
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            System.out.println("Exported " + studentService.getAllStudents().size() + " students");
-        } catch (IOException e) {
+            studentService.forEachStudent(student -> {
+                try {
+                    writeStudent(writer, student);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.commit();
+            System.out.println("Exported " + rows[0] + " students");
+        } catch (IOException | UncheckedIOException e) {
+            failure = e.getMessage();
             System.err.println("Error writing students file: " + e.getMessage());
+        } finally {
+            EXPORT_STUDENTS.stop(start);
+            commitExport(event, filePath, rows[0], failure);
         }
     }
 
     public void exportCoursesToCSV() {
+        long start = EXPORT_COURSES.start();
+        RegistryEvents.CsvExport event = new RegistryEvents.CsvExport();
+        event.begin();
+        long[] rows = {0};
+        String failure = null;
         Path filePath = config.getCourseDataFile();
         System.out.println("Exporting courses to: " + filePath.toAbsolutePath());
 
-        String header = "code,title,credits,department,maxCapacity,currentEnrollment\n";
+        try (CsvWriter writer = new CsvWriter(filePath)) {
+            writer.field("code").field("title").field("credits").field("department")
+                    .field("maxCapacity").field("currentEnrollment");
+            writer.endRecord();
+
+            courseService.forEachCourse(course -> {
+                try {
+                    writeCourse(writer, course);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.commit();
+            System.out.println("Exported " + rows[0] + " courses");
+        } catch (IOException | UncheckedIOException e) {
+            failure = e.getMessage();
+            System.err.println("Error writing courses file: " + e.getMessage());
+        } finally {
+            EXPORT_COURSES.stop(start);
+            commitExport(event, filePath, rows[0], failure);
+        }
+    }
+
+    public void exportEnrollmentsToCSV() {
+        long start = EXPORT_ENROLLMENTS.start();
+        RegistryEvents.CsvExport event = new RegistryEvents.CsvExport();
+        event.begin();
+        long[] rows = {0};
+        String failure = null;
+        Path filePath = config.getEnrollmentDataFile();
+        System.out.println("Exporting enrollments to: " + filePath.toAbsolutePath());
+
+        try (CsvWriter writer = new CsvWriter(filePath)) {
+            writer.field("enrollmentId").field("studentId").field("courseCode").field("semester")
+                    .field("enrollmentDate").field("grade").field("status").field("completed");
+            writer.endRecord();
+
+            requireEnrollmentService().forEachEnrollment(enrollment -> {
+                try {
+                    writeEnrollment(writer, enrollment);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.commit();
+            System.out.println("Exported " + rows[0] + " enrollments");
+        } catch (IOException | UncheckedIOException e) {
+            failure = e.getMessage();
+            System.err.println("Error writing enrollments file: " + e.getMessage());
+        } finally {
+            EXPORT_ENROLLMENTS.stop(start);
+            commitExport(event, filePath, rows[0], failure);
+        }
+    }
 
-        String csvData = courseService.getAllCourses().stream()
-                .map(this::convertCourseToCSV)
-                .collect(Collectors.joining("\n"));
+    // ========== COLUMNAR FORMAT ==========
 
+    /**
+     * Write students, courses and enrollments to the columnar binary file.
+     */
+    public void exportToColumnar(boolean compress) {
+        long start = EXPORT_COLUMNAR.start();
+        Path filePath = config.getColumnarDataFile();
         try {
-            Files.write(filePath, (header + csvData).getBytes(),
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            System.out.println("Exported " + courseService.getAllCourses().size() + " courses");
+            long bytes = ColumnarCodec.write(filePath, studentService, courseService, enrollmentService, compress);
+            System.out.println("Exported registry to " + filePath.toAbsolutePath() + " (" + bytes + " bytes)");
         } catch (IOException e) {
-            System.err.println("Error writing courses file: " + e.getMessage());
+            System.err.println("Error writing columnar file: " + e.getMessage());
+        } finally {
+            EXPORT_COLUMNAR.stop(start);
+        }
+    }
+
+    public void importFromColumnar() {
+        long start = IMPORT_COLUMNAR.start();
+        Path filePath = config.getColumnarDataFile();
+        System.out.println("Importing registry from: " + filePath.toAbsolutePath());
+        try {
+            int loaded = ColumnarCodec.load(filePath, studentService, courseService, enrollmentService);
+            System.out.println("Successfully imported " + studentService.getStudentCount() + " students, "
+                    + courseService.getCourseCount() + " courses and " + loaded + " new enrollments");
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println("Error reading columnar file: " + e.getMessage());
+        } finally {
+            IMPORT_COLUMNAR.stop(start);
         }
     }
 
     // ========== PARSING METHODS ==========
 
-    private Student parseStudentFromCSV(String csvLine) {
+    // Parsed enrollment row; attached to student and course on the importing thread
+    private record EnrollmentRow(String id, Student student, Course course, Semester semester,
+                                 LocalDate date, Grade grade, boolean completed, boolean active) { }
+
+    private Student parseStudentFromCSV(CsvReader record, ImportResult result) {
+        if (record.fieldCount() < 4) {
+            result.addError(record.lineNumber(), "Expected at least 4 student fields, found " + record.fieldCount());
+            return null;
+        }
         try {
-            String[] fields = csvLine.split(",");
-            if (fields.length >= 4) {
-                Student student = new Student(
-                        fields[0].trim(),
-                        fields[1].trim(),
-                        fields[2].trim(),
-                        fields[3].trim()
-                );
-                if (fields.length >= 5) {
-                    student.setDepartment(fields[4].trim());
-                }
-                return student;
+            Student student = new Student(
+                    record.field(0).trim(),
+                    record.field(1).trim(),
+                    record.field(2).trim(),
+                    record.field(3).trim()
+            );
+            if (record.fieldCount() >= 5) {
+                student.setDepartment(record.pooledField(4));
             }
+            return student;
         } catch (Exception e) {
-            System.err.println("Error parsing student line: " + csvLine);
+            result.addError(record.lineNumber(), "Invalid student: " + e.getMessage());
+            return null;
         }
-        return null;
     }
 
-    private Course parseCourseFromCSV(String csvLine) {
+    private Course parseCourseFromCSV(CsvReader record, ImportResult result) {
+        if (record.fieldCount() < 3) {
+            result.addError(record.lineNumber(), "Expected at least 3 course fields, found " + record.fieldCount());
+            return null;
+        }
         try {
-            String[] fields = csvLine.split(",");
-            if (fields.length >= 3) {
-                Course.Builder builder = new Course.Builder(
-                        fields[0].trim(),
-                        fields[1].trim(),
-                        Integer.parseInt(fields[2].trim())
-                );
-
-                if (fields.length >= 4) {
-                    try {
-                        Department dept = Department.valueOf(fields[3].trim().toUpperCase());
-                        builder.department(dept);
-                    } catch (IllegalArgumentException e) {
-                        System.err.println("Invalid department: " + fields[3]);
-                    }
-                }
-
-                if (fields.length >= 5) {
-                    builder.maxCapacity(Integer.parseInt(fields[4].trim()));
+            Course.Builder builder = new Course.Builder(
+                    record.field(0).trim(),
+                    record.field(1).trim(),
+                    Integer.parseInt(record.field(2).trim())
+            );
+
+            if (record.fieldCount() >= 4 && !record.field(3).isBlank()) {
+                try {
+                    Department dept = Department.valueOf(record.field(3).trim().toUpperCase());
+                    builder.department(dept);
+                } catch (IllegalArgumentException e) {
+                    result.addError(record.lineNumber(), "Invalid department: " + record.field(3));
                 }
+            }
 
-                return builder.build();
+            if (record.fieldCount() >= 5) {
+                builder.maxCapacity(Integer.parseInt(record.field(4).trim()));
             }
+
+            return builder.build();
         } catch (Exception e) {
-            System.err.println("Error parsing course line: " + csvLine);
+            result.addError(record.lineNumber(), "Invalid course: " + e.getMessage());
+            return null;
         }
-        return null;
     }
 
-    private String convertStudentToCSV(Student student) {
-        return String.format("%s,%s,%s,%s,%s",
-                student.getId(),
-                student.getRegNo(),
-                student.getFullName(),
-                student.getEmail(),
-                student.getDepartment() != null ? student.getDepartment() : ""
-        );
+    private EnrollmentRow parseEnrollmentFromCSV(CsvReader record, ImportResult result) {
+        if (record.fieldCount() < 7) {
+            result.addError(record.lineNumber(), "Expected 7 enrollment fields, found " + record.fieldCount());
+            return null;
+        }
+        try {
+            Student student = studentService.findStudentById(record.field(1).trim());
+            if (student == null) {
+                result.addError(record.lineNumber(), "Unknown student: " + record.field(1));
+                return null;
+            }
+            Course course = courseService.findCourseByCode(record.field(2).trim());
+            if (course == null) {
+                result.addError(record.lineNumber(), "Unknown course: " + record.field(2));
+                return null;
+            }
+            String gradeText = record.field(5).trim();
+            Grade grade = gradeText.isEmpty() ? null : Grade.valueOf(gradeText.toUpperCase());
+            boolean active = !"Withdrawn".equalsIgnoreCase(record.field(6).trim());
+            // Files without the completed column: only an active, graded course is completed
+            boolean completed = record.fieldCount() >= 8
+                    ? Boolean.parseBoolean(record.field(7).trim())
+                    : active && grade != null;
+            return new EnrollmentRow(
+                    record.field(0).trim(),
+                    student,
+                    course,
+                    Semester.valueOf(record.field(3).trim().toUpperCase()),
+                    LocalDate.parse(record.field(4).trim()),
+                    grade,
+                    completed,
+                    active
+            );
+        } catch (Exception e) {
+            result.addError(record.lineNumber(), "Invalid enrollment: " + e.getMessage());
+            return null;
+        }
     }
 
-    private String convertCourseToCSV(Course course) {
-        return String.format("%s,%s,%d,%s,%d,%d",
-                course.getCode(),
-                course.getTitle(),
-                course.getCredits(),
-                course.getDepartment() != null ? course.getDepartment().name() : "",
-                course.getMaxCapacity(),
-                course.getCurrentEnrollment()
-        );
+    private void writeEnrollment(CsvWriter writer, Enrollment enrollment) throws IOException {
+        writer.field(enrollment.getEnrollmentId())
+                .field(enrollment.getStudent().getId())
+                .field(enrollment.getCourse().getCode())
+                .field(enrollment.getSemester().name())
+                .field(enrollment.getEnrollmentDate().toString())
+                .field(enrollment.getGrade() != null ? enrollment.getGrade().name() : "")
+                .field(enrollment.getStatus())
+                .field(Boolean.toString(enrollment.isCompleted()));
+        writer.endRecord();
     }
 
-    // ========== BACKUP METHOD ==========
+    private void writeStudent(CsvWriter writer, Student student) throws IOException {
+        writer.field(student.getId())
+                .field(student.getRegNo())
+                .field(student.getFullName())
+                .field(student.getEmail())
+                .field(student.getDepartment());
+        writer.endRecord();
+    }
 
-    public void createBackup() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        Path backupDir = config.getBackupDirectory().resolve("backup_" + timestamp);
+    private void writeCourse(CsvWriter writer, Course course) throws IOException {
+        writer.field(course.getCode())
+                .field(course.getTitle())
+                .field(course.getCredits())
+                .field(course.getDepartment() != null ? course.getDepartment().name() : "")
+                .field(course.getMaxCapacity())
+                .field(course.getCurrentEnrollment());
+        writer.endRecord();
+    }
 
-        try {
-            Files.createDirectories(backupDir);
-            System.out.println("Creating backup in: " + backupDir.toAbsolutePath());
+    // ========== BACKUP METHODS ==========
 
-            Files.copy(config.getStudentDataFile(), backupDir.resolve("students.csv"));
-            Files.copy(config.getCourseDataFile(), backupDir.resolve("courses.csv"));
+    private BackupService backupService() {
+        return new BackupService(config.getDataDirectory(), config.getBackupDirectory(),
+                config.getBackupKeepLast(), config.getBackupKeepDays());
+    }
 
+    /**
+     * Incremental backup of the data directory: only changed chunks are stored.
+     */
+    public void createBackup() {
+        long start = BACKUP.start();
+        RegistryEvents.Backup event = new RegistryEvents.Backup();
+        event.begin();
+        BackupService.BackupReport report = null;
+        String failure = null;
+        try {
+            System.out.println("Creating backup in: " + config.getBackupDirectory().toAbsolutePath());
+            report = backupService().createBackup();
             System.out.println("Backup completed successfully!");
-
-            long backupSize = calculateDirectorySize(backupDir);
-            System.out.println("Backup size: " + backupSize + " bytes");
-
+            System.out.println(report);
         } catch (IOException e) {
+            failure = e.getMessage();
             System.err.println("Error creating backup: " + e.getMessage());
+        } finally {
+            BACKUP.stop(start);
+            if (event.shouldCommit()) {
+                event.operation = "create";
+                if (report != null) {
+                    event.name = report.name();
+                    event.files = report.files();
+                    event.changedFiles = report.changedFiles();
+                    event.bytes = report.totalBytes();
+                }
+                event.failure = failure;
+                event.commit();
+            }
         }
     }
 
-    // ========== RECURSIVE DIRECTORY SIZE CALCULATION ==========
+    public List<String> listBackups() {
+        try {
+            return backupService().listBackups();
+        } catch (IOException e) {
+            System.err.println("Error listing backups: " + e.getMessage());
+            return List.of();
+        }
+    }
 
-    private long calculateDirectorySize(Path directory) {
+    /**
+     * Restore a backup into backups/restore_&lt;name&gt;; the live data directory is never overwritten.
+     */
+    public void restoreBackup(String name) {
+        long start = RESTORE_BACKUP.start();
+        RegistryEvents.Backup event = new RegistryEvents.Backup();
+        event.begin();
+        int files = 0;
+        String failure = null;
+        Path target = config.getBackupDirectory().resolve("restore_" + name);
         try {
-            return Files.walk(directory)
-                    .filter(path -> Files.isRegularFile(path))
-                    .mapToLong(path -> {
-                        try {
-                            return Files.size(path);
-                        } catch (IOException e) {
-                            return 0L;
-                        }
-                    })
-                    .sum();
+            files = backupService().restoreBackup(name, target);
+            System.out.println("Restored " + files + " files to: " + target.toAbsolutePath());
         } catch (IOException e) {
-            System.err.println("Error calculating directory size: " + e.getMessage());
-            return 0L;
+            failure = e.getMessage();
+            System.err.println("Error restoring backup: " + e.getMessage());
+        } finally {
+            RESTORE_BACKUP.stop(start);
+            if (event.shouldCommit()) {
+                event.operation = "restore";
+                event.name = name;
+                event.files = files;
+                event.failure = failure;
+                event.commit();
+            }
         }
     }
-}
\ No newline at end of file
+}
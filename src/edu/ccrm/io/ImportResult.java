@@ -0,0 +1,57 @@
+package edu.ccrm.io;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of a CSV import: how many rows were added and every problem found,
+ * each tagged with the line number it came from.
+ */
+public class ImportResult {
+
+    public record ImportError(long line, String message) {
+        @Override
+        public String toString() {
+            return "Line " + line + ": " + message;
+        }
+    }
+
+    private int importedCount;
+    private final List<ImportError> errors = new ArrayList<>();
+
+    void addImported() {
+        importedCount++;
+    }
+
+    void addError(long line, String message) {
+        errors.add(new ImportError(line, message));
+    }
+
+    void merge(ImportResult other) {
+        importedCount += other.importedCount;
+        errors.addAll(other.errors);
+    }
+
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * Errors in file order.
+     */
+    public List<ImportError> getErrors() {
+        List<ImportError> sorted = new ArrayList<>(errors);
+        sorted.sort(Comparator.comparingLong(ImportError::line));
+        return sorted;
+    }
+
+    @Override
+    public String toString() {
+        return "Imported " + importedCount + " rows with " + errors.size() + " errors";
+    }
+}
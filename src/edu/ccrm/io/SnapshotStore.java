@@ -0,0 +1,417 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentBatch;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.IdGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Compact binary snapshots of the whole registry, used with {@link WriteAheadJournal} for fast cold start.
+ *
+ * A checkpoint rolls the journal to a new segment N, writes {@code snapshot-N.snap} (state covering
+ * every segment before N) and deletes the older segments and snapshots. Startup maps the newest
+ * snapshot into memory, loads it, and replays only segments N and later.
+ *
+ * Layout (version 2): header, then counted students and courses sections, the enrollments as
+ * fixed 19-byte records ending in an active/completed flags byte, and the table of enrollment ids
+ * that are not "ENR" + sequence. Records refer to students and courses by their position in the
+ * snapshot and store canonical ids as the bare sequence, so loading needs no hash lookups or id
+ * parsing. Fixed-size records let the loader decode enrollments on several threads while the
+ * previous batch is being applied, and the services take each section in bulk, without
+ * per-record listener events.
+ */
+public class SnapshotStore {
+    private static final long MAGIC = 0x4343524D534E4150L; // "CCRMSNAP"
+    private static final int VERSION = 2;
+    private static final int ENROLLMENT_BYTES = 19;
+    // Last byte of an enrollment record
+    private static final int ACTIVE = 1;
+    private static final int COMPLETED = 2;
+    // Enrollments decoded ahead of the one being applied, and per decoding task
+    private static final int BATCH_SIZE = 1 << 16;
+    private static final int DECODE_CHUNK = 1 << 14;
+    private static final Semester[] SEMESTERS = Semester.values();
+    private static final Department[] DEPARTMENTS = Department.values();
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+
+    public SnapshotStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    // ========== CHECKPOINT ==========
+
+    /**
+     * Snapshot the current state and drop the journal segments it covers.
+     * Must be called while no other thread is mutating the services.
+     */
+    public Path checkpoint(WriteAheadJournal journal, StudentService students, CourseService courses,
+                           EnrollmentService enrollments) throws IOException {
+        long segment = journal.rollSegment();
+        Path snapshot = write(segment, students, courses, enrollments);
+
+        journal.deleteSegmentsBefore(segment);
+        for (long older : listSnapshots()) {
+            if (older < segment) {
+                Files.deleteIfExists(snapshotPath(older));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Checkpoint once the current journal segment has grown past {@code thresholdBytes}.
+     */
+    public boolean checkpointIfNeeded(WriteAheadJournal journal, StudentService students, CourseService courses,
+                                      EnrollmentService enrollments, long thresholdBytes) throws IOException {
+        if (journal.size() < thresholdBytes) {
+            return false;
+        }
+        checkpoint(journal, students, courses, enrollments);
+        return true;
+    }
+
+    private Path write(long segment, StudentService students, CourseService courses,
+                       EnrollmentService enrollments) throws IOException {
+        Path target = snapshotPath(segment);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temp), 1024 * 1024))) {
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(segment);
+
+            Map<Student, Integer> studentOrdinals = new HashMap<>();
+            out.writeInt(students.getStudentCount());
+            students.forEachStudent(student -> unchecked(() -> {
+                studentOrdinals.put(student, studentOrdinals.size());
+                writeString(out, student.getId());
+                writeString(out, student.getRegNo());
+                writeString(out, student.getFullName());
+                writeString(out, student.getEmail());
+                writeString(out, student.getDepartment());
+                out.writeBoolean(student.isActive());
+            }));
+            checkCount("students", students.getStudentCount(), studentOrdinals.size());
+
+            Map<Course, Integer> courseOrdinals = new HashMap<>();
+            out.writeInt(courses.getCourseCount());
+            courses.forEachCourse(course -> unchecked(() -> {
+                courseOrdinals.put(course, courseOrdinals.size());
+                writeString(out, course.getCode());
+                writeString(out, course.getTitle());
+                out.writeByte(course.getCredits());
+                writeString(out, course.getDescription());
+                out.writeByte(course.getDepartment() != null ? course.getDepartment().ordinal() : -1);
+                out.writeByte(course.getSemester() != null ? course.getSemester().ordinal() : -1);
+                out.writeInt(course.getMaxCapacity());
+                out.writeBoolean(course.isActive());
+            }));
+            checkCount("courses", courses.getCourseCount(), courseOrdinals.size());
+
+            int enrollmentCount = enrollments.getEnrollmentCount();
+            out.writeInt(enrollmentCount);
+            List<String> irregularIds = new ArrayList<>();
+            int[] written = {0};
+            enrollments.forEachEnrollment(enrollment -> unchecked(() -> {
+                String id = enrollment.getEnrollmentId();
+                long sequence = IdGenerator.parseSequence(Enrollment.ID_PREFIX, id);
+                if (sequence >= 0 && sequence <= Integer.MAX_VALUE
+                        && IdGenerator.format(Enrollment.ID_PREFIX, sequence).equals(id)) {
+                    out.writeInt((int) sequence);
+                } else {
+                    out.writeInt(-1 - irregularIds.size());
+                    irregularIds.add(id);
+                }
+                out.writeInt(studentOrdinals.get(enrollment.getStudent()));
+                out.writeInt(courseOrdinals.get(enrollment.getCourse()));
+                out.writeByte(enrollment.getSemester().ordinal());
+                out.writeInt((int) enrollment.getEnrollmentDate().toEpochDay());
+                out.writeByte(enrollment.getGrade() != null ? enrollment.getGrade().ordinal() : -1);
+                out.writeByte((enrollment.isActive() ? ACTIVE : 0) | (enrollment.isCompleted() ? COMPLETED : 0));
+                written[0]++;
+            }));
+            checkCount("enrollments", enrollmentCount, written[0]);
+            out.writeInt(irregularIds.size());
+            for (String id : irregularIds) {
+                writeString(out, id);
+            }
+            out.writeLong(MAGIC); // trailer: a complete file ends with the magic again
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    private static void checkCount(String section, int announced, int written) throws IOException {
+        if (announced != written) {
+            throw new IOException("Registry changed while the snapshot was written (" + section + ": "
+                    + written + " written, " + announced + " expected)");
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    // Lets the forEach lambdas above throw IOException
+    private static void unchecked(IoAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IOException("String too long for snapshot: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    // ========== LOAD ==========
+
+    /**
+     * Load the newest snapshot into empty services.
+     * @return the first journal segment to replay on top of it (0 when there is no snapshot)
+     */
+    public long loadLatest(StudentService students, CourseService courses,
+                           EnrollmentService enrollments) throws IOException {
+        List<Long> snapshots = listSnapshots();
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        long segment = snapshots.get(snapshots.size() - 1);
+
+        try (FileChannel channel = FileChannel.open(snapshotPath(segment), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB cannot be mapped in one piece");
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getLong() != MAGIC || in.getInt() != VERSION
+                    || in.getLong() != segment || in.getLong((int) channel.size() - Long.BYTES) != MAGIC) {
+                throw new IOException("Snapshot " + snapshotPath(segment).getFileName() + " is damaged");
+            }
+            load(in, students, courses, enrollments);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Snapshot " + snapshotPath(segment).getFileName() + " is damaged", e);
+        }
+        return segment;
+    }
+
+    private static void load(MappedByteBuffer in, StudentService students, CourseService courses,
+                             EnrollmentService enrollments) throws IOException {
+        // Students: find where each record starts, then build them on all cores
+        int studentCount = in.getInt();
+        int[] offsets = new int[studentCount];
+        for (int i = 0; i < studentCount; i++) {
+            offsets[i] = in.position();
+            for (int field = 0; field < 5; field++) {
+                skipString(in);
+            }
+            in.get();
+        }
+        Student[] studentTable = new Student[studentCount];
+        inParallel(studentCount, DECODE_CHUNK, (from, to) -> {
+            ByteBuffer view = in.duplicate();
+            for (int i = from; i < to; i++) {
+                view.position(offsets[i]);
+                Student student = new Student(readString(view), readString(view), readString(view), readString(view));
+                student.setDepartment(readString(view));
+                if (view.get() == 0) {
+                    student.deactivate();
+                }
+                studentTable[i] = student;
+            }
+        });
+        students.restoreStudents(studentTable);
+
+        Course[] courseTable = new Course[in.getInt()];
+        for (int i = 0; i < courseTable.length; i++) {
+            courseTable[i] = readCourse(in);
+        }
+        courses.restoreCourses(courseTable);
+
+        // Enrollments: the id table follows the fixed-size records
+        int enrollmentCount = in.getInt();
+        int recordsStart = in.position();
+        long recordsEnd = recordsStart + (long) enrollmentCount * ENROLLMENT_BYTES;
+        if (enrollmentCount < 0 || recordsEnd > in.limit()) {
+            throw new IOException("Snapshot enrollment section is damaged");
+        }
+        in.position((int) recordsEnd);
+        String[] irregularIds = new String[in.getInt()];
+        long maxSequence = 0;
+        for (int i = 0; i < irregularIds.length; i++) {
+            irregularIds[i] = readString(in);
+            maxSequence = Math.max(maxSequence, IdGenerator.parseSequence(Enrollment.ID_PREFIX, irregularIds[i]));
+        }
+
+        // Decode the next batch on the common pool while this thread applies the current one
+        LongAccumulator highestSequence = new LongAccumulator(Math::max, maxSequence);
+        EnrollmentBatch chain = new EnrollmentBatch(studentTable, courseTable, 0);
+        CompletableFuture<EnrollmentBatch> next = decodeAsync(in, recordsStart, 0, enrollmentCount,
+                chain, irregularIds, highestSequence);
+        for (int from = 0; from < enrollmentCount; from += BATCH_SIZE) {
+            EnrollmentBatch batch = join(next);
+            next = decodeAsync(in, recordsStart, from + BATCH_SIZE, enrollmentCount,
+                    chain, irregularIds, highestSequence);
+            enrollments.restoreEnrollments(batch);
+        }
+        Enrollment.getIdGenerator().reserveThrough(highestSequence.get());
+    }
+
+    private static CompletableFuture<EnrollmentBatch> decodeAsync(ByteBuffer in, int recordsStart, int from, int count,
+                                                                  EnrollmentBatch chain, String[] irregularIds,
+                                                                  LongAccumulator highestSequence) {
+        if (from >= count) {
+            return null;
+        }
+        int size = Math.min(BATCH_SIZE, count - from);
+        return CompletableFuture.supplyAsync(() -> {
+            EnrollmentBatch batch = chain.next(size);
+            int base = recordsStart + from * ENROLLMENT_BYTES;
+            inParallel(size, DECODE_CHUNK, (lo, hi) -> {
+                int highest = 0;
+                for (int i = lo; i < hi; i++) {
+                    int position = base + i * ENROLLMENT_BYTES;
+                    int id = in.getInt(position);
+                    highest = Math.max(highest, id);
+                    int flags = in.get(position + 18);
+                    batch.set(i, Math.max(id, -1), id < 0 ? irregularIds[-1 - id] : null,
+                            in.getInt(position + 4), in.getInt(position + 8), SEMESTERS[in.get(position + 12)],
+                            in.getInt(position + 13), in.get(position + 17),
+                            (flags & COMPLETED) != 0, (flags & ACTIVE) != 0);
+                }
+                highestSequence.accumulate(highest);
+            });
+            return batch;
+        });
+    }
+
+    private static EnrollmentBatch join(CompletableFuture<EnrollmentBatch> decoding) throws IOException {
+        try {
+            return decoding.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IndexOutOfBoundsException) {
+                throw new IOException("Snapshot enrollment record is damaged", e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
+    // Splits [0, count) into chunks run on the common pool
+    private static void inParallel(int count, int chunk, RangeTask task) {
+        int chunks = (count + chunk - 1) / chunk;
+        IntStream.range(0, chunks).parallel()
+                .forEach(c -> task.run(c * chunk, Math.min(count, (c + 1) * chunk)));
+    }
+
+    private static Course readCourse(ByteBuffer in) {
+        Course.Builder builder = new Course.Builder(readString(in), readString(in), in.get());
+        builder.description(readString(in));
+        byte department = in.get();
+        if (department >= 0) {
+            builder.department(DEPARTMENTS[department]);
+        }
+        byte semester = in.get();
+        if (semester >= 0) {
+            builder.semester(SEMESTERS[semester]);
+        }
+        builder.maxCapacity(in.getInt());
+        builder.active(in.get() != 0);
+        return builder.build();
+    }
+
+    private static String readString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length > 0) {
+            in.position(in.position() + length);
+        }
+    }
+
+    // ========== FILES ==========
+
+    private Path snapshotPath(long segment) {
+        return directory.resolve(PREFIX + IdGenerator.format("", segment) + SUFFIX);
+    }
+
+    private List<Long> listSnapshots() throws IOException {
+        List<Long> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            snapshots.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                        } catch (NumberFormatException e) {
+                            // not one of ours
+                        }
+                    });
+        }
+        snapshots.sort(null);
+        return snapshots;
+    }
+}
@@ -0,0 +1,634 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.IdGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeded generator of realistic registry data for load tests, benchmarks and capacity planning.
+ *
+ * Produces courses in every {@link Department} with instructors, and students with several terms
+ * of enrollments: graded past terms, an in-progress current term and the occasional withdrawal.
+ * Every student is a pure function of (seed, index), so output is identical for any thread count.
+ * Students are generated in parallel chunks and either written to the CSV files that
+ * {@link FileDataService} imports, or loaded straight into the services.
+ */
+public class SyntheticDataGenerator {
+    // Students per parallel task
+    private static final int CHUNK = 20_000;
+    private static final String EMAIL_DOMAIN = "@university.edu";
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Carlos", "Karen",
+            "Daniel", "Lisa", "Matthew", "Nancy", "Anthony", "Sandra", "Mark", "Ashley", "Wei", "Emily",
+            "Priya", "Aarav", "Fatima", "Omar", "Yuki", "Hiroshi", "Ana", "Luis", "Sofia", "Mateo",
+            "Olga", "Ivan", "Chloe", "Liam", "Noah", "Emma", "Ava", "Lucas", "Mia", "Ethan",
+            "Zara", "Kwame", "Amara", "Chen", "Mei", "Arjun", "Leila", "Hassan", "Ingrid", "Lars"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+            "Patel", "Shah", "Kumar", "Singh", "Wang", "Li", "Zhang", "Chen", "Kim", "Park",
+            "Tanaka", "Sato", "Ivanov", "Petrov", "Muller", "Schmidt", "Rossi", "Silva", "Okafor", "Mensah"};
+
+    private static final String[][] TOPICS = {
+            {"Programming", "Data Structures", "Algorithms", "Databases", "Operating Systems", "Networks",
+                    "Machine Learning", "Software Engineering", "Compilers", "Computer Security"},
+            {"Circuit Analysis", "Signals and Systems", "Electronics", "Electromagnetics", "Control Systems",
+                    "Digital Logic", "Power Systems", "Communications", "Embedded Systems", "VLSI Design"},
+            {"Statics", "Dynamics", "Thermodynamics", "Fluid Mechanics", "Materials Science", "Heat Transfer",
+                    "Machine Design", "Manufacturing", "Robotics", "Vibrations"},
+            {"Accounting", "Microeconomics", "Macroeconomics", "Marketing", "Finance", "Management",
+                    "Business Law", "Operations", "Entrepreneurship", "Business Analytics"},
+            {"Calculus", "Linear Algebra", "Differential Equations", "Probability", "Statistics",
+                    "Real Analysis", "Abstract Algebra", "Number Theory", "Topology", "Numerical Methods"},
+            {"Mechanics", "Electricity and Magnetism", "Waves and Optics", "Modern Physics", "Quantum Mechanics",
+                    "Statistical Physics", "Astrophysics", "Solid State Physics", "Nuclear Physics", "Relativity"}};
+    private static final String[] LEVELS = {"Introduction to", "Intermediate", "Advanced", "Topics in"};
+
+    // Share of students per department, in Department order (percent)
+    private static final int[] DEPARTMENT_WEIGHTS = {30, 15, 15, 20, 10, 10};
+    // Credits: mostly 3, some 4, a few 2 and 1
+    private static final int[] CREDIT_WEIGHTS = {5, 10, 60, 25};
+    // Percent of graded enrollments per Grade, in Grade order (A .. I)
+    private static final int[] GRADE_WEIGHTS = {14, 12, 13, 15, 11, 9, 9, 6, 5, 3, 3};
+    // Percent of enrollments, and of students, that are withdrawn / still attending
+    private static final int WITHDRAWN_PERCENT = 3;
+    private static final int ATTENDING_PERCENT = 80;
+    private static final int SUMMER_PERCENT = 15;
+    // Share of a student's courses taken in their own department
+    private static final int HOME_DEPARTMENT_PERCENT = 70;
+
+    private static final Department[] DEPARTMENT_TABLE = table(Department.values(), DEPARTMENT_WEIGHTS);
+    private static final Integer[] CREDIT_TABLE = table(new Integer[]{1, 2, 3, 4}, CREDIT_WEIGHTS);
+    private static final Grade[] GRADE_TABLE = table(Grade.values(), GRADE_WEIGHTS);
+
+    private final long seed;
+    private final int studentCount;
+    private final int coursesPerDepartment;
+    private final int enrollmentsPerStudent;
+    private final int coursesPerTerm;
+    private final int academicYear;
+    private final double capacityFactor;
+    private final int threads;
+
+    private final Course[] courses;
+    // Course indexes grouped by department, for home-department picks
+    private final int[][] coursesByDepartment;
+    private final Instructor[] instructors;
+    // Term dates, indexed by absolute term number (year * 3 + SPRING/SUMMER/FALL)
+    private final LocalDate[] termDates;
+    private final String[] termDateText;
+    private final int firstTerm;
+    private final int currentTerm;
+
+    private SyntheticDataGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.studentCount = builder.students;
+        this.coursesPerDepartment = builder.coursesPerDepartment;
+        this.enrollmentsPerStudent = builder.enrollmentsPerStudent;
+        this.coursesPerTerm = builder.coursesPerTerm;
+        this.academicYear = builder.academicYear;
+        this.capacityFactor = builder.capacityFactor;
+        this.threads = builder.threads;
+
+        // Enough history for the longest enrollment record plus students who left a few terms ago
+        int termsNeeded = (enrollmentsPerStudent + coursesPerTerm - 1) / coursesPerTerm * 2 + 6;
+        this.currentTerm = academicYear * 3 + 2; // FALL of the academic year
+        this.firstTerm = currentTerm - termsNeeded;
+        this.termDates = new LocalDate[termsNeeded + 1];
+        this.termDateText = new String[termsNeeded + 1];
+        for (int t = 0; t <= termsNeeded; t++) {
+            int term = firstTerm + t;
+            int year = term / 3;
+            termDates[t] = switch (term % 3) {
+                case 0 -> LocalDate.of(year, 1, 15);
+                case 1 -> LocalDate.of(year, 6, 1);
+                default -> LocalDate.of(year, 8, 25);
+            };
+            termDateText[t] = termDates[t].toString();
+        }
+
+        Department[] departments = Department.values();
+        this.courses = new Course[departments.length * coursesPerDepartment];
+        this.coursesByDepartment = new int[departments.length][coursesPerDepartment];
+        int instructorsPerDepartment = Math.max(1, coursesPerDepartment / 3);
+        this.instructors = new Instructor[departments.length * instructorsPerDepartment];
+        buildCatalogue(departments, instructorsPerDepartment);
+    }
+
+    // ========== CATALOGUE ==========
+
+    private void buildCatalogue(Department[] departments, int instructorsPerDepartment) {
+        SplittableRandom random = randomFor(-1, 0);
+        for (int d = 0; d < departments.length; d++) {
+            Department department = departments[d];
+            for (int j = 0; j < instructorsPerDepartment; j++) {
+                int n = d * instructorsPerDepartment + j;
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                instructors[n] = new Instructor(IdGenerator.format("I", n + 1), IdGenerator.format("EMP", n + 1),
+                        "Dr. " + first + " " + last,
+                        first.toLowerCase() + "." + last.toLowerCase() + "." + (n + 1) + EMAIL_DOMAIN,
+                        department.getFullName());
+            }
+
+            // Expected seats per course: restored enrollments hold a seat unless withdrawn
+            double held = (double) studentCount * enrollmentsPerStudent * (100 - WITHDRAWN_PERCENT) / 100.0;
+            double share = DEPARTMENT_WEIGHTS[d] / 100.0;
+            double expected = held * (HOME_DEPARTMENT_PERCENT / 100.0 * share / coursesPerDepartment
+                    + (100 - HOME_DEPARTMENT_PERCENT) / 100.0 / courses.length);
+
+            String[] topics = TOPICS[d];
+            for (int j = 0; j < coursesPerDepartment; j++) {
+                int level = j % LEVELS.length;
+                int sequence = j / LEVELS.length + 1;
+                String code = department.getCode() + (level + 1) + (sequence < 10 ? "0" : "") + sequence;
+                int round = j / (LEVELS.length * topics.length);
+                String title = LEVELS[level] + " " + topics[(j / LEVELS.length) % topics.length]
+                        + (round > 0 ? " " + (round + 1) : "");
+                int capacity = Math.max(30 + random.nextInt(90),
+                        (int) Math.ceil(expected * capacityFactor + 3 * Math.sqrt(expected)));
+                Instructor instructor = instructors[d * instructorsPerDepartment + j % instructorsPerDepartment];
+                Course course = new Course.Builder(code, title, CREDIT_TABLE[random.nextInt(100)])
+                        .department(department)
+                        .instructor(instructor)
+                        .semester(Semester.values()[random.nextInt(Semester.values().length)])
+                        .maxCapacity(capacity)
+                        .build();
+                instructor.assignCourse(course);
+                int n = d * coursesPerDepartment + j;
+                courses[n] = course;
+                coursesByDepartment[d][j] = n;
+            }
+        }
+    }
+
+    /**
+     * The generated courses. They are shared: {@link #populate} loads these instances.
+     */
+    public List<Course> getCourses() {
+        return List.of(courses);
+    }
+
+    public List<Instructor> getInstructors() {
+        return List.of(instructors);
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    public long getEnrollmentCount() {
+        return (long) studentCount * enrollmentsPerStudent;
+    }
+
+    // ========== STUDENTS ==========
+
+    /**
+     * One student's generated record, reused across students by a worker.
+     */
+    private static final class StudentRow {
+        String id;
+        String regNo;
+        String fullName;
+        String email;
+        Department department;
+        int enrollments;
+        final int[] course;
+        final int[] term;
+        final Grade[] grade;
+        final boolean[] withdrawn;
+
+        StudentRow(int capacity) {
+            course = new int[capacity];
+            term = new int[capacity];
+            grade = new Grade[capacity];
+            withdrawn = new boolean[capacity];
+        }
+    }
+
+    private void generate(int index, StudentRow row) {
+        SplittableRandom random = randomFor(0, index);
+        row.department = DEPARTMENT_TABLE[random.nextInt(100)];
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        row.fullName = first + " " + last;
+        row.email = first.toLowerCase() + "." + last.toLowerCase() + (index + 1) + EMAIL_DOMAIN;
+        row.id = IdGenerator.format("S", index + 1);
+
+        // Walk back from the last term attended: current students end now, others left a few terms ago
+        boolean attending = random.nextInt(100) < ATTENDING_PERCENT;
+        int term = currentTerm - (attending ? 0 : 3 * (1 + random.nextInt(2)));
+        int home = row.department.ordinal();
+        int inTerm = 0;
+        row.enrollments = enrollmentsPerStudent;
+        for (int k = 0; k < enrollmentsPerStudent; k++) {
+            if (inTerm == coursesPerTerm) {
+                inTerm = 0;
+                term--;
+                if (term % 3 == 1 && random.nextInt(100) >= SUMMER_PERCENT) {
+                    term--; // most students skip summer
+                }
+            }
+            inTerm++;
+            row.course[k] = pickCourse(random, home, row.course, k);
+            row.term[k] = term - firstTerm;
+            row.withdrawn[k] = random.nextInt(100) < WITHDRAWN_PERCENT;
+            row.grade[k] = row.withdrawn[k] || term == currentTerm ? null : GRADE_TABLE[random.nextInt(100)];
+        }
+        int entryYear = term / 3;
+        row.regNo = IdGenerator.format(Integer.toString(entryYear), index + 1);
+    }
+
+    // Mostly from the home department; never a course the student already has
+    private int pickCourse(SplittableRandom random, int home, int[] taken, int count) {
+        while (true) {
+            int candidate = random.nextInt(100) < HOME_DEPARTMENT_PERCENT
+                    ? coursesByDepartment[home][random.nextInt(coursesPerDepartment)]
+                    : random.nextInt(courses.length);
+            boolean duplicate = false;
+            for (int i = 0; i < count && !duplicate; i++) {
+                duplicate = taken[i] == candidate;
+            }
+            if (!duplicate) {
+                return candidate;
+            }
+        }
+    }
+
+    private static String status(StudentRow row, int k) {
+        if (row.withdrawn[k]) {
+            return "Withdrawn";
+        }
+        return row.grade[k] != null ? "Completed" : "Active";
+    }
+
+    private Semester semesterOf(int termIndex) {
+        return switch ((firstTerm + termIndex) % 3) {
+            case 0 -> Semester.SPRING;
+            case 1 -> Semester.SUMMER;
+            default -> Semester.FALL;
+        };
+    }
+
+    // ========== CSV OUTPUT ==========
+
+    /**
+     * Write students.csv, courses.csv, enrollments.csv (the {@link FileDataService} formats) and
+     * instructors.csv into {@code directory}. Students and enrollments are written by parallel
+     * workers to part files that are concatenated in order.
+     */
+    public void writeCsv(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        writeCatalogue(directory);
+
+        Path partDir = Files.createTempDirectory(directory, "parts");
+        try {
+            int chunks = (studentCount + CHUNK - 1) / CHUNK;
+            runChunks(chunks, chunk -> {
+                writeStudentChunk(chunk, partDir);
+                return null;
+            }, ignored -> { });
+            concatenate(directory.resolve("students.csv"), "id,regNo,fullName,email,department",
+                    partDir, "students", chunks);
+            concatenate(directory.resolve("enrollments.csv"),
+                    "enrollmentId,studentId,courseCode,semester,enrollmentDate,grade,status,completed",
+                    partDir, "enrollments", chunks);
+        } finally {
+            try (var parts = Files.list(partDir)) {
+                for (Path part : (Iterable<Path>) parts::iterator) {
+                    Files.deleteIfExists(part);
+                }
+            }
+            Files.deleteIfExists(partDir);
+        }
+    }
+
+    private void writeCatalogue(Path directory) throws IOException {
+        try (CsvWriter writer = new CsvWriter(directory.resolve("courses.csv"))) {
+            writer.field("code").field("title").field("credits").field("department")
+                    .field("maxCapacity").field("currentEnrollment");
+            writer.endRecord();
+            for (Course course : courses) {
+                // Seats are taken by the enrollments when they are loaded
+                writer.field(course.getCode()).field(course.getTitle()).field(course.getCredits())
+                        .field(course.getDepartment().name()).field(course.getMaxCapacity()).field(0);
+                writer.endRecord();
+            }
+            writer.commit();
+        }
+        try (CsvWriter writer = new CsvWriter(directory.resolve("instructors.csv"))) {
+            writer.field("id").field("employeeId").field("fullName").field("email").field("department")
+                    .field("courses");
+            writer.endRecord();
+            for (Instructor instructor : instructors) {
+                StringBuilder codes = new StringBuilder();
+                for (Course course : instructor.getAssignedCourses()) {
+                    codes.append(codes.length() > 0 ? ";" : "").append(course.getCode());
+                }
+                writer.field(instructor.getId()).field(instructor.getRegistrationNumber())
+                        .field(instructor.getFullName()).field(instructor.getEmail())
+                        .field(instructor.getDepartment()).field(codes.toString());
+                writer.endRecord();
+            }
+            writer.commit();
+        }
+    }
+
+    private void writeStudentChunk(int chunk, Path partDir) throws IOException {
+        StudentRow row = new StudentRow(enrollmentsPerStudent);
+        int from = chunk * CHUNK;
+        int to = Math.min(studentCount, from + CHUNK);
+        try (CsvWriter students = new CsvWriter(partDir.resolve("students." + chunk));
+             CsvWriter enrollments = new CsvWriter(partDir.resolve("enrollments." + chunk))) {
+            for (int i = from; i < to; i++) {
+                generate(i, row);
+                students.field(row.id).field(row.regNo).field(row.fullName).field(row.email)
+                        .field(row.department.getFullName());
+                students.endRecord();
+                for (int k = 0; k < row.enrollments; k++) {
+                    enrollments.field(enrollmentId(i, k)).field(row.id)
+                            .field(courses[row.course[k]].getCode())
+                            .field(semesterOf(row.term[k]).name())
+                            .field(termDateText[row.term[k]])
+                            .field(row.grade[k] != null ? row.grade[k].name() : "")
+                            .field(status(row, k))
+                            .field(Boolean.toString(row.grade[k] != null));
+                    enrollments.endRecord();
+                }
+            }
+            students.commit();
+            enrollments.commit();
+        }
+    }
+
+    private String enrollmentId(int student, int k) {
+        return IdGenerator.format(Enrollment.ID_PREFIX, (long) student * enrollmentsPerStudent + k + 1);
+    }
+
+    private static void concatenate(Path target, String header, Path partDir, String prefix, int chunks)
+            throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer head = ByteBuffer.wrap((header + "\n").getBytes(StandardCharsets.UTF_8));
+            while (head.hasRemaining()) {
+                out.write(head);
+            }
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                Path part = partDir.resolve(prefix + "." + chunk);
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    for (long done = 0; done < size; ) {
+                        done += in.transferTo(done, size - done, out);
+                    }
+                }
+                Files.delete(part);
+            }
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // ========== DIRECT LOAD ==========
+
+    /**
+     * Load the courses, students and enrollments straight into the services, skipping CSV.
+     * Objects are built by parallel workers and added in student order on the calling thread.
+     */
+    public void populate(StudentService studentService, CourseService courseService,
+                         EnrollmentService enrollmentService) throws IOException {
+        for (Course course : courses) {
+            courseService.addCourse(course);
+        }
+        int chunks = (studentCount + CHUNK - 1) / CHUNK;
+        runChunks(chunks, this::buildStudentChunk, chunk -> {
+            for (Student student : chunk.students) {
+                studentService.addStudent(student);
+            }
+            for (Enrollment enrollment : chunk.enrollments) {
+                enrollmentService.addEnrollment(enrollment);
+            }
+        });
+        Enrollment.getIdGenerator().reserveThrough(getEnrollmentCount());
+    }
+
+    private record StudentChunk(List<Student> students, List<Enrollment> enrollments) { }
+
+    private StudentChunk buildStudentChunk(int chunk) {
+        StudentRow row = new StudentRow(enrollmentsPerStudent);
+        int from = chunk * CHUNK;
+        int to = Math.min(studentCount, from + CHUNK);
+        List<Student> students = new ArrayList<>(to - from);
+        List<Enrollment> enrollments = new ArrayList<>((to - from) * enrollmentsPerStudent);
+        for (int i = from; i < to; i++) {
+            generate(i, row);
+            Student student = new Student(row.id, row.regNo, row.fullName, row.email);
+            student.setDepartment(row.department.getCode());
+            students.add(student);
+            for (int k = 0; k < row.enrollments; k++) {
+                // Seats are reserved atomically, so workers can share the courses
+                enrollments.add(Enrollment.restore(enrollmentId(i, k), student, courses[row.course[k]],
+                        semesterOf(row.term[k]), termDates[row.term[k]], row.grade[k], status(row, k)));
+            }
+        }
+        return new StudentChunk(students, enrollments);
+    }
+
+    // ========== PARALLELISM ==========
+
+    @FunctionalInterface
+    private interface ChunkTask<T> {
+        T run(int chunk) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface ChunkSink<T> {
+        void accept(T result) throws Exception;
+    }
+
+    /**
+     * Run chunks on the pool and hand results to {@code sink} in chunk order, keeping at most
+     * two chunks per thread in flight so memory stays bounded when the sink is slower.
+     */
+    private <T> void runChunks(int chunks, ChunkTask<T> task, ChunkSink<T> sink) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<T>> inFlight = new ArrayDeque<>();
+        try {
+            int next = 0;
+            while (next < chunks || !inFlight.isEmpty()) {
+                while (next < chunks && inFlight.size() < threads * 2) {
+                    int chunk = next++;
+                    inFlight.add(pool.submit(() -> task.run(chunk)));
+                }
+                sink.accept(inFlight.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Data generation failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Data generation failed: " + e.getMessage(), e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ========== RANDOMNESS ==========
+
+    // Independent stream per (kind, index): SplitMix64 finaliser over the seed and position
+    private SplittableRandom randomFor(long stream, long index) {
+        long z = seed + stream * 0x9E3779B97F4A7C15L + (index + 1) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+
+    // Expands percentage weights (summing to 100) into a 100-slot lookup table
+    private static <T> T[] table(T[] values, int[] weights) {
+        T[] table = Arrays.copyOf(values, 100);
+        int slot = 0;
+        for (int i = 0; i < weights.length; i++) {
+            for (int w = 0; w < weights[i]; w++) {
+                table[slot++] = values[i];
+            }
+        }
+        if (slot != 100) {
+            throw new IllegalStateException("Weights must sum to 100, got " + slot);
+        }
+        return table;
+    }
+
+    // ========== BUILDER ==========
+
+    public static class Builder {
+        private final long seed;
+        private int students = 10_000;
+        private int coursesPerDepartment = 40;
+        private int enrollmentsPerStudent = 8;
+        private int coursesPerTerm = 4;
+        private int academicYear = 2025;
+        private double capacityFactor = 1.25;
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        public Builder(long seed) {
+            this.seed = seed;
+        }
+
+        public Builder students(int students) {
+            if (students < 0) {
+                throw new IllegalArgumentException("Student count cannot be negative");
+            }
+            this.students = students;
+            return this;
+        }
+
+        public Builder coursesPerDepartment(int coursesPerDepartment) {
+            if (coursesPerDepartment < 1) {
+                throw new IllegalArgumentException("Need at least one course per department");
+            }
+            this.coursesPerDepartment = coursesPerDepartment;
+            return this;
+        }
+
+        public Builder enrollmentsPerStudent(int enrollmentsPerStudent) {
+            if (enrollmentsPerStudent < 0) {
+                throw new IllegalArgumentException("Enrollments per student cannot be negative");
+            }
+            this.enrollmentsPerStudent = enrollmentsPerStudent;
+            return this;
+        }
+
+        public Builder coursesPerTerm(int coursesPerTerm) {
+            if (coursesPerTerm < 1 || coursesPerTerm > 6) {
+                throw new IllegalArgumentException("Courses per term must be between 1 and 6");
+            }
+            this.coursesPerTerm = coursesPerTerm;
+            return this;
+        }
+
+        /**
+         * Year whose fall term is the current, in-progress term (fixed so output is reproducible).
+         */
+        public Builder academicYear(int academicYear) {
+            this.academicYear = academicYear;
+            return this;
+        }
+
+        /**
+         * Course capacity relative to the expected in-progress seats; raise it to leave room for new enrollments.
+         */
+        public Builder capacityFactor(double capacityFactor) {
+            if (capacityFactor <= 0) {
+                throw new IllegalArgumentException("Capacity factor must be positive");
+            }
+            this.capacityFactor = capacityFactor;
+            return this;
+        }
+
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Need at least one thread");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        public SyntheticDataGenerator build() {
+            if (enrollmentsPerStudent > coursesPerDepartment * Department.values().length) {
+                throw new IllegalStateException("More enrollments per student than courses in the catalogue");
+            }
+            return new SyntheticDataGenerator(this);
+        }
+    }
+
+    /**
+     * Usage: SyntheticDataGenerator [students] [seed] [directory] [enrollmentsPerStudent]
+     */
+    public static void main(String[] args) throws IOException {
+        int students = args.length > 0 ? Integer.parseInt(args[0].replace("_", "")) : 1_250_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Path directory = Paths.get(args.length > 2 ? args[2] : "generated-data");
+        Builder builder = new Builder(seed).students(students);
+        if (args.length > 3) {
+            builder.enrollmentsPerStudent(Integer.parseInt(args[3]));
+        }
+        SyntheticDataGenerator generator = builder.build();
+
+        long start = System.nanoTime();
+        generator.writeCsv(directory);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Wrote %,d students, %,d courses, %,d enrollments to %s in %,d ms%n",
+                generator.getStudentCount(), generator.getCourses().size(), generator.getEnrollmentCount(),
+                directory.toAbsolutePath(), elapsed);
+    }
+}
@@ -0,0 +1,607 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.RegistryListener;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.IdGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of every registry mutation.
+ *
+ * Each mutation is encoded as a compact binary record
+ * {@code [int length][byte type][payload][int crc32]} and appended to an in-memory buffer under
+ * a commit sequence number. Before the mutating call returns ({@link #onMutationComplete}) the
+ * caller waits until a background flusher has written and fsynced past its sequence number.
+ * Records from every thread that arrive while an fsync is running share the next one (group
+ * commit), so no acknowledged mutation can be lost. {@link #batch} defers that wait to the end
+ * of a bulk load; unwaited records are flushed every {@code flushIntervalMillis}.
+ *
+ * On startup {@link #replay} re-applies the journal to empty services. A torn record at the
+ * end (crash mid-write) fails its length or CRC check and is truncated away. An intact record
+ * that the services reject makes replay throw, so startup stops instead of running on state that
+ * no longer matches the journal.
+ *
+ * The journal is split into numbered segment files ({@code segment-0001.wal}, ...).
+ * {@link #rollSegment()} starts a new segment so a checkpoint can snapshot the state and then
+ * delete the older segments. Replay is idempotent for records already covered by a snapshot.
+ *
+ * Usage: open, replay, then attach so that replayed mutations are not journaled again.
+ */
+public class WriteAheadJournal implements RegistryListener, Closeable {
+    // Record types
+    static final byte STUDENT_ADDED = 1;
+    static final byte STUDENT_UPDATED = 2;
+    static final byte STUDENT_DEACTIVATED = 3;
+    static final byte COURSE_ADDED = 4;
+    static final byte ENROLLMENT_ADDED = 5;
+    static final byte GRADE_RECORDED = 6;
+    static final byte WITHDRAWN = 7;
+
+    private static final int MAX_RECORD_LENGTH = 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+    private final long flushIntervalMillis;
+    private final Thread flusher;
+
+    // Guarded by writeLock: the segment being appended to
+    private FileChannel channel;
+    private long currentSegment;
+
+    // Guarded by this: records appended but not yet written
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(64 * 1024);
+    private long appendedSequence;
+    private boolean flushRequested;
+    private boolean closing;
+    // Set by the flusher (under this) once every record up to it is on disk
+    private volatile long durableSequence;
+    private volatile IOException flushFailure;
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+
+    // Serializes writes to the channel (flusher vs. sync)
+    private final Object writeLock = new Object();
+
+    // Per thread: {sequence of its last record, batch nesting depth}
+    private final ThreadLocal<long[]> threadState = ThreadLocal.withInitial(() -> new long[2]);
+
+    public WriteAheadJournal(Path directory, long flushIntervalMillis) throws IOException {
+        if (flushIntervalMillis < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.directory = directory;
+        this.flushIntervalMillis = flushIntervalMillis;
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments();
+        this.currentSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        this.channel = openSegment(currentSegment);
+        channel.position(channel.size());
+        this.flusher = new Thread(this::runFlusher, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Subscribe to the services so every later mutation is journaled.
+     */
+    public void attach(StudentService students, CourseService courses, EnrollmentService enrollments) {
+        students.addListener(this);
+        courses.addListener(this);
+        enrollments.addListener(this);
+    }
+
+    // ========== REPLAY ==========
+
+    /**
+     * Re-apply every intact record of every segment to the services.
+     * @return number of records applied
+     */
+    public int replay(StudentService students, CourseService courses, EnrollmentService enrollments) throws IOException {
+        return replay(students, courses, enrollments, 0);
+    }
+
+    /**
+     * Re-apply segments numbered {@code fromSegment} and later (the tail after a snapshot),
+     * truncate any torn tail of the last segment and position the journal for appending.
+     * @return number of records applied
+     */
+    public int replay(StudentService students, CourseService courses, EnrollmentService enrollments,
+                      long fromSegment) throws IOException {
+        int applied = 0;
+        long maxSequence = 0;
+        for (long segment : listSegments()) {
+            if (segment < fromSegment) {
+                continue;
+            }
+            long[] stats = replaySegment(segment, students, courses, enrollments);
+            applied += (int) stats[0];
+            maxSequence = Math.max(maxSequence, stats[1]);
+        }
+        Enrollment.getIdGenerator().reserveThrough(maxSequence);
+        return applied;
+    }
+
+    /**
+     * @return {records applied, highest enrollment ID sequence seen}
+     */
+    private long[] replaySegment(long segment, StudentService students, CourseService courses,
+                                 EnrollmentService enrollments) throws IOException {
+        int applied = 0;
+        long validLength = 0;
+        long maxSequence = 0;
+        Path file = segmentPath(segment);
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 256 * 1024))) {
+            CRC32 check = new CRC32();
+            while (true) {
+                byte[] body;
+                try {
+                    int length = in.readInt();
+                    if (length < 1 || length > MAX_RECORD_LENGTH) {
+                        break;
+                    }
+                    body = in.readNBytes(length);
+                    if (body.length < length) {
+                        break;
+                    }
+                    int storedCrc = in.readInt();
+                    check.reset();
+                    check.update(body);
+                    if ((int) check.getValue() != storedCrc) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+
+                // A record that passed its checksum but cannot be applied means the state no longer
+                // matches the journal; going on would silently diverge, so replay stops here
+                try {
+                    maxSequence = Math.max(maxSequence, apply(body, students, courses, enrollments));
+                    applied++;
+                } catch (RuntimeException e) {
+                    throw new IOException("Journal record in " + file.getFileName() + " at byte " + validLength +
+                            " cannot be applied: " + e.getMessage(), e);
+                }
+                validLength += Integer.BYTES + body.length + Integer.BYTES;
+            }
+        }
+
+        synchronized (writeLock) {
+            if (segment == currentSegment) {
+                if (channel.size() > validLength) {
+                    System.err.println("Truncating torn journal tail: " + (channel.size() - validLength) + " bytes");
+                    channel.truncate(validLength);
+                }
+                channel.position(validLength);
+            }
+        }
+        return new long[]{applied, maxSequence};
+    }
+
+    /**
+     * @return the enrollment ID sequence touched by the record, or 0
+     */
+    private long apply(byte[] body, StudentService students, CourseService courses,
+                       EnrollmentService enrollments) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        byte type = in.readByte();
+        switch (type) {
+            case STUDENT_ADDED: {
+                Student student = readStudent(in);
+                if (students.findStudentById(student.getId()) == null) { // may already be in the snapshot
+                    students.addStudent(student);
+                }
+                return 0;
+            }
+            case STUDENT_UPDATED:
+                students.updateStudent(readStudent(in));
+                return 0;
+            case STUDENT_DEACTIVATED:
+                students.deactivateStudent(in.readUTF());
+                return 0;
+            case COURSE_ADDED: {
+                Course course = readCourse(in);
+                if (courses.findCourseByCode(course.getCode()) == null) {
+                    courses.addCourse(course);
+                }
+                return 0;
+            }
+            case ENROLLMENT_ADDED:
+                return readEnrollment(in, students, courses, enrollments);
+            case GRADE_RECORDED: {
+                String id = in.readUTF();
+                enrollments.recordGrade(id, Grade.values()[in.readByte()]);
+                return 0;
+            }
+            case WITHDRAWN: {
+                Enrollment enrollment = enrollments.findEnrollmentById(in.readUTF());
+                if (enrollment != null && enrollment.isActive()) {
+                    enrollments.withdrawStudent(enrollment.getEnrollmentId());
+                }
+                return 0;
+            }
+            default:
+                throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    private static Student readStudent(DataInputStream in) throws IOException {
+        Student student = new Student(in.readUTF(), readNullable(in), in.readUTF(), in.readUTF());
+        student.setDepartment(readNullable(in));
+        return student;
+    }
+
+    private static Course readCourse(DataInputStream in) throws IOException {
+        Course.Builder builder = new Course.Builder(in.readUTF(), in.readUTF(), in.readByte());
+        builder.description(readNullable(in));
+        byte department = in.readByte();
+        if (department >= 0) {
+            builder.department(Department.values()[department]);
+        }
+        byte semester = in.readByte();
+        if (semester >= 0) {
+            builder.semester(Semester.values()[semester]);
+        }
+        builder.maxCapacity(in.readInt());
+        builder.active(in.readBoolean());
+        return builder.build();
+    }
+
+    private static long readEnrollment(DataInputStream in, StudentService students, CourseService courses,
+                                       EnrollmentService enrollments) throws IOException {
+        String id = in.readUTF();
+        String studentId = in.readUTF();
+        String courseCode = in.readUTF();
+        Semester semester = Semester.values()[in.readByte()];
+        LocalDate date = LocalDate.ofEpochDay(in.readInt());
+        byte grade = in.readByte();
+        boolean active = in.readBoolean();
+        boolean completed = in.readBoolean();
+
+        if (enrollments.findEnrollmentById(id) != null) {
+            return IdGenerator.parseSequence(Enrollment.ID_PREFIX, id);
+        }
+        Student student = students.findStudentById(studentId);
+        Course course = courses.findCourseByCode(courseCode);
+        if (student == null || course == null) {
+            throw new IllegalStateException("Enrollment " + id + " references unknown student or course");
+        }
+        enrollments.addEnrollment(Enrollment.restore(id, student, course, semester, date,
+                grade >= 0 ? Grade.values()[grade] : null, completed, active));
+        return IdGenerator.parseSequence(Enrollment.ID_PREFIX, id);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // ========== APPEND (RegistryListener) ==========
+
+    @Override
+    public void onStudentAdded(Student student) {
+        append(STUDENT_ADDED, out -> writeStudent(out, student));
+    }
+
+    @Override
+    public void onStudentUpdated(Student student) {
+        append(STUDENT_UPDATED, out -> writeStudent(out, student));
+    }
+
+    @Override
+    public void onStudentDeactivated(Student student) {
+        append(STUDENT_DEACTIVATED, out -> out.writeUTF(student.getId()));
+    }
+
+    @Override
+    public void onCourseAdded(Course course) {
+        append(COURSE_ADDED, out -> {
+            out.writeUTF(course.getCode());
+            out.writeUTF(course.getTitle());
+            out.writeByte(course.getCredits());
+            writeNullable(out, course.getDescription());
+            out.writeByte(course.getDepartment() != null ? course.getDepartment().ordinal() : -1);
+            out.writeByte(course.getSemester() != null ? course.getSemester().ordinal() : -1);
+            out.writeInt(course.getMaxCapacity());
+            out.writeBoolean(course.isActive());
+        });
+    }
+
+    @Override
+    public void onEnrollmentAdded(Enrollment enrollment) {
+        append(ENROLLMENT_ADDED, out -> {
+            out.writeUTF(enrollment.getEnrollmentId());
+            out.writeUTF(enrollment.getStudent().getId());
+            out.writeUTF(enrollment.getCourse().getCode());
+            out.writeByte(enrollment.getSemester().ordinal());
+            out.writeInt((int) enrollment.getEnrollmentDate().toEpochDay());
+            out.writeByte(enrollment.getGrade() != null ? enrollment.getGrade().ordinal() : -1);
+            out.writeBoolean(enrollment.isActive());
+            out.writeBoolean(enrollment.isCompleted());
+        });
+    }
+
+    @Override
+    public void onGradeRecorded(Enrollment enrollment) {
+        append(GRADE_RECORDED, out -> {
+            out.writeUTF(enrollment.getEnrollmentId());
+            out.writeByte(enrollment.getGrade().ordinal());
+        });
+    }
+
+    @Override
+    public void onWithdrawn(Enrollment enrollment) {
+        append(WITHDRAWN, out -> out.writeUTF(enrollment.getEnrollmentId()));
+    }
+
+    private static void writeStudent(DataOutputStream out, Student student) throws IOException {
+        out.writeUTF(student.getId());
+        writeNullable(out, student.getRegNo());
+        out.writeUTF(student.getFullName());
+        out.writeUTF(student.getEmail());
+        writeNullable(out, student.getDepartment());
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private synchronized void append(byte type, RecordWriter writer) {
+        try {
+            recordBytes.reset();
+            record.writeByte(type);
+            writer.write(record);
+
+            byte[] body = recordBytes.toByteArray();
+            crc.reset();
+            crc.update(body);
+
+            DataOutputStream out = new DataOutputStream(pending);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeInt((int) crc.getValue());
+            threadState.get()[0] = ++appendedSequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode journal record", e);
+        }
+    }
+
+    /**
+     * Block until this thread's journaled records are durable, unless it is inside {@link #batch}.
+     * @throws UncheckedIOException if the journal can no longer write
+     */
+    @Override
+    public void onMutationComplete() {
+        long[] state = threadState.get();
+        if (state[1] == 0) {
+            awaitDurable(state[0]);
+        }
+    }
+
+    /**
+     * Run a bulk load with one durability wait at the end instead of one per mutation.
+     */
+    public void batch(Runnable work) {
+        long[] state = threadState.get();
+        state[1]++;
+        try {
+            work.run();
+        } finally {
+            state[1]--;
+        }
+        if (state[1] == 0) {
+            awaitDurable(state[0]);
+        }
+    }
+
+    // ========== GROUP COMMIT ==========
+
+    private void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (this) {
+            flushRequested = true;
+            notifyAll();
+            while (durableSequence < sequence) {
+                if (flushFailure != null) {
+                    throw new UncheckedIOException("Journal write failed; change is not durable", flushFailure);
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for the journal", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write and fsync everything appended so far.
+     */
+    public void sync() throws IOException {
+        synchronized (writeLock) {
+            ByteArrayOutputStream batch;
+            long upTo;
+            synchronized (this) {
+                if (flushFailure != null) {
+                    throw flushFailure;
+                }
+                if (pending.size() == 0) {
+                    return;
+                }
+                batch = pending;
+                upTo = appendedSequence;
+                pending = new ByteArrayOutputStream(Math.max(64 * 1024, batch.size()));
+                flushRequested = false;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                // The batch is gone from memory, so later records could not be replayed in order
+                synchronized (this) {
+                    flushFailure = e;
+                    notifyAll();
+                }
+                throw e;
+            }
+            synchronized (this) {
+                durableSequence = upTo;
+                notifyAll();
+            }
+        }
+    }
+
+    // Flushes as soon as a writer is waiting, otherwise every flushIntervalMillis
+    private void runFlusher() {
+        while (true) {
+            synchronized (this) {
+                if (!flushRequested && !closing) {
+                    try {
+                        wait(flushIntervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closing) {
+                    return;
+                }
+            }
+            try {
+                sync();
+            } catch (IOException e) {
+                System.err.println("Error flushing journal: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // ========== SEGMENTS ==========
+
+    /**
+     * Flush the current segment and start appending to a new one. Appends block while rolling.
+     * @return the new segment's number; everything journaled before the call is in earlier segments
+     */
+    public long rollSegment() throws IOException {
+        synchronized (writeLock) {
+            synchronized (this) {
+                sync();
+                channel.force(true);
+                channel.close();
+                currentSegment++;
+                channel = openSegment(currentSegment);
+                return currentSegment;
+            }
+        }
+    }
+
+    /**
+     * Delete segments fully covered by a snapshot.
+     */
+    public void deleteSegmentsBefore(long segment) throws IOException {
+        for (long existing : listSegments()) {
+            if (existing < segment) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    public long getCurrentSegment() {
+        synchronized (writeLock) {
+            return currentSegment;
+        }
+    }
+
+    /**
+     * Bytes in the current segment, including records not yet flushed.
+     */
+    public long size() throws IOException {
+        synchronized (writeLock) {
+            synchronized (this) {
+                return channel.size() + pending.size();
+            }
+        }
+    }
+
+    private FileChannel openSegment(long segment) throws IOException {
+        return FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(SEGMENT_PREFIX + IdGenerator.format("", segment) + SEGMENT_SUFFIX);
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                    name.length() - SEGMENT_SUFFIX.length())));
+                        } catch (NumberFormatException e) {
+                            // not one of ours
+                        }
+                    });
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closing = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            sync();
+            channel.close();
+        }
+    }
+}
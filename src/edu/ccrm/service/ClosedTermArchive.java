@@ -0,0 +1,464 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.util.IdGenerator;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Off-heap store for finished (completed or withdrawn) enrollments of closed terms.
+ *
+ * Each archive run writes one memory-mapped segment of fixed 20-byte records, grouped by
+ * student, followed by a student directory and a sorted id index. Only one small entry per
+ * distinct student and course stays on the heap, so decades of graded history adds
+ * nothing for the garbage collector to trace. The segment files are unlinked as soon as they
+ * are mapped: the archive lives for the process, and the journal and snapshots stay the
+ * durable record.
+ *
+ * Archived enrollments are read-only: they keep their ACTIVE and COMPLETED flags, so a completed
+ * course still blocks re-enrolling (see {@link #isActivelyEnrolled}), but it can no longer be
+ * withdrawn or regraded. Readers get {@link View}s that decode a record on each
+ * getter call; {@link #forEachByStudent} reuses a single view so a transcript allocates nothing
+ * per record.
+ */
+class ClosedTermArchive {
+    private static final int MAGIC = 0x43435241; // "CCRA"
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 20;
+    private static final int DIRECTORY_ENTRY_BYTES = 12;
+    private static final int ID_ENTRY_BYTES = 8;
+    // Keeps every offset inside one int-addressable mapping
+    private static final int MAX_SEGMENT_RECORDS = 50_000_000;
+
+    // Record layout
+    private static final int ID = 0;       // id sequence, or -1 - index into the segment's irregular ids
+    private static final int STUDENT = 4;
+    private static final int COURSE = 8;
+    private static final int DAY = 12;     // epoch day
+    private static final int SEMESTER = 16;
+    private static final int GRADE = 17;   // ordinal + 1, 0 = no grade
+    private static final int FLAGS = 18;
+
+    private static final byte ACTIVE = 1;
+    private static final byte COMPLETED = 2;
+
+    private static final Semester[] SEMESTERS = Semester.values();
+    private static final Grade[] GRADES = Grade.values();
+
+    private final Path directory;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Map<Student, Integer> studentOrdinals = new HashMap<>();
+    private final List<Student> students = new ArrayList<>();
+    private final Map<Course, Integer> courseOrdinals = new HashMap<>();
+    private final List<Course> courses = new ArrayList<>();
+    // Published copies of the tables above, read lock-free by views
+    private volatile Student[] studentTable = new Student[0];
+    private volatile Course[] courseTable = new Course[0];
+    private int nextSegment = 1;
+
+    ClosedTermArchive(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    // ========== ARCHIVING ==========
+
+    /**
+     * Write the given enrollments to a new mapped segment. The caller removes them from the live store.
+     * Enrollments still in progress (active and ungraded) are rejected: they are not history yet.
+     */
+    synchronized void archive(List<Enrollment> enrollments) throws IOException {
+        if (enrollments.isEmpty()) {
+            return;
+        }
+        for (Enrollment enrollment : enrollments) {
+            if (enrollment.isActive() && !enrollment.isCompleted()) {
+                throw new IllegalArgumentException("In-progress enrollments cannot be archived: " + enrollment.getEnrollmentId());
+            }
+        }
+        if (enrollments.size() > MAX_SEGMENT_RECORDS) {
+            for (int from = 0; from < enrollments.size(); from += MAX_SEGMENT_RECORDS) {
+                archive(enrollments.subList(from, Math.min(enrollments.size(), from + MAX_SEGMENT_RECORDS)));
+            }
+            return;
+        }
+        int count = enrollments.size();
+        int[] studentRefs = new int[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            studentRefs[i] = ordinal(enrollments.get(i).getStudent(), studentOrdinals, students);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(studentRefs[a], studentRefs[b])); // stable: keeps per-student order
+
+        int studentRuns = 1;
+        for (int i = 1; i < count; i++) {
+            if (studentRefs[order[i]] != studentRefs[order[i - 1]]) {
+                studentRuns++;
+            }
+        }
+        List<String> irregularIds = new ArrayList<>();
+        long[] idIndex = new long[count]; // (sequence << 32) | record, sorted below
+        int idCount = 0;
+
+        long size = HEADER_BYTES + (long) count * RECORD_BYTES + (long) studentRuns * DIRECTORY_ENTRY_BYTES
+                + (long) count * ID_ENTRY_BYTES;
+        Path file = directory.resolve("segment-" + IdGenerator.format("", nextSegment++) + ".arch");
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        try {
+            Files.delete(file); // the mapping stays valid; nothing to clean up later
+        } catch (IOException e) {
+            file.toFile().deleteOnExit(); // platforms that cannot unlink a mapped file
+        }
+
+        int directoryOffset = HEADER_BYTES + count * RECORD_BYTES;
+        int directoryEntries = 0;
+        for (int record = 0; record < count; record++) {
+            Enrollment enrollment = enrollments.get(order[record]);
+            int base = HEADER_BYTES + record * RECORD_BYTES;
+            String id = enrollment.getEnrollmentId();
+            int sequence = canonicalSequence(id);
+            if (sequence >= 0) {
+                idIndex[idCount++] = ((long) sequence << 32) | record;
+                buffer.putInt(base + ID, sequence);
+            } else {
+                buffer.putInt(base + ID, -1 - irregularIds.size());
+                irregularIds.add(id);
+            }
+            int student = studentRefs[order[record]];
+            buffer.putInt(base + STUDENT, student);
+            buffer.putInt(base + COURSE, ordinal(enrollment.getCourse(), courseOrdinals, courses));
+            buffer.putInt(base + DAY, Math.toIntExact(enrollment.getEnrollmentDate().toEpochDay()));
+            buffer.put(base + SEMESTER, (byte) enrollment.getSemester().ordinal());
+            Grade grade = enrollment.getGrade();
+            buffer.put(base + GRADE, (byte) (grade != null ? grade.ordinal() + 1 : 0));
+            buffer.put(base + FLAGS, (byte) ((enrollment.isActive() ? ACTIVE : 0) | (enrollment.isCompleted() ? COMPLETED : 0)));
+
+            // Directory: one (student, first record, count) entry per run of the same student
+            if (record == 0 || studentRefs[order[record - 1]] != student) {
+                int entry = directoryOffset + directoryEntries++ * DIRECTORY_ENTRY_BYTES;
+                buffer.putInt(entry, student);
+                buffer.putInt(entry + 4, record);
+                buffer.putInt(entry + 8, 0);
+            }
+            int entry = directoryOffset + (directoryEntries - 1) * DIRECTORY_ENTRY_BYTES;
+            buffer.putInt(entry + 8, buffer.getInt(entry + 8) + 1);
+        }
+
+        Arrays.sort(idIndex, 0, idCount);
+        int idOffset = directoryOffset + directoryEntries * DIRECTORY_ENTRY_BYTES;
+        for (int i = 0; i < idCount; i++) {
+            buffer.putInt(idOffset + i * ID_ENTRY_BYTES, (int) (idIndex[i] >>> 32));
+            buffer.putInt(idOffset + i * ID_ENTRY_BYTES + 4, (int) idIndex[i]);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, count);
+        buffer.putInt(8, directoryEntries);
+        buffer.putInt(12, idCount);
+
+        studentTable = students.toArray(new Student[0]);
+        courseTable = courses.toArray(new Course[0]);
+        segments.add(new Segment(buffer, count, directoryOffset, directoryEntries, idOffset, idCount,
+                irregularIds.toArray(new String[0])));
+    }
+
+    private static <T> int ordinal(T value, Map<T, Integer> ordinals, List<T> table) {
+        Integer ordinal = ordinals.get(value);
+        if (ordinal == null) {
+            ordinal = table.size();
+            ordinals.put(value, ordinal);
+            table.add(value);
+        }
+        return ordinal;
+    }
+
+    private static int canonicalSequence(String id) {
+        long sequence = IdGenerator.parseSequence(Enrollment.ID_PREFIX, id);
+        if (sequence >= 0 && sequence <= Integer.MAX_VALUE && IdGenerator.format(Enrollment.ID_PREFIX, sequence).equals(id)) {
+            return (int) sequence;
+        }
+        return -1;
+    }
+
+    // ========== QUERIES ==========
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    Enrollment findById(String enrollmentId) {
+        int sequence = canonicalSequence(enrollmentId);
+        for (Segment segment : segments) {
+            int record = sequence >= 0 ? segment.findSequence(sequence) : segment.findIrregular(enrollmentId);
+            if (record >= 0) {
+                return new View(segment, record);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Visit a student's archived enrollments with one reused view; it must not be kept after the call.
+     */
+    void forEachByStudent(Student student, Consumer<? super Enrollment> action) {
+        Integer ordinal = studentOrdinal(student);
+        if (ordinal == null) {
+            return;
+        }
+        View cursor = new View(null, 0);
+        for (Segment segment : segments) {
+            int entry = segment.findStudent(ordinal);
+            if (entry < 0) {
+                continue;
+            }
+            int first = segment.buffer.getInt(entry + 4);
+            int count = segment.buffer.getInt(entry + 8);
+            for (int record = first; record < first + count; record++) {
+                cursor.moveTo(segment, record);
+                action.accept(cursor);
+            }
+        }
+    }
+
+    List<Enrollment> byStudent(Student student) {
+        List<Enrollment> result = new ArrayList<>();
+        forEachByStudent(student, cursor -> result.add(((View) cursor).copy()));
+        return result;
+    }
+
+    boolean isActivelyEnrolled(Student student, Course course) {
+        Integer courseOrdinal = courseOrdinal(course);
+        if (courseOrdinal == null) {
+            return false;
+        }
+        boolean[] found = {false};
+        forEachByStudent(student, cursor -> {
+            View view = (View) cursor;
+            if (view.courseRef() == courseOrdinal && view.isActive()) {
+                found[0] = true;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * Whether the enrollment is one of this archive's read-only views.
+     */
+    boolean contains(Enrollment enrollment) {
+        return enrollment instanceof View;
+    }
+
+    /**
+     * Views of every archived enrollment matching the filter (a full scan of the mapped records).
+     */
+    List<Enrollment> select(Predicate<? super Enrollment> filter) {
+        List<Enrollment> result = new ArrayList<>();
+        View cursor = new View(null, 0);
+        for (Segment segment : segments) {
+            for (int record = 0; record < segment.count; record++) {
+                cursor.moveTo(segment, record);
+                if (filter.test(cursor)) {
+                    result.add(cursor.copy());
+                }
+            }
+        }
+        return result;
+    }
+
+    void forEach(Consumer<? super Enrollment> action) {
+        for (Segment segment : segments) {
+            for (int record = 0; record < segment.count; record++) {
+                action.accept(new View(segment, record));
+            }
+        }
+    }
+
+    private synchronized Integer studentOrdinal(Student student) {
+        return studentOrdinals.get(student);
+    }
+
+    private synchronized Integer courseOrdinal(Course course) {
+        return courseOrdinals.get(course);
+    }
+
+    private Student student(int ordinal) {
+        return studentTable[ordinal];
+    }
+
+    private Course course(int ordinal) {
+        return courseTable[ordinal];
+    }
+
+    // ========== SEGMENTS ==========
+
+    private static final class Segment {
+        final MappedByteBuffer buffer;
+        final int count;
+        final int directoryOffset;
+        final int directoryEntries;
+        final int idOffset;
+        final int idCount;
+        final String[] irregularIds;
+
+        Segment(MappedByteBuffer buffer, int count, int directoryOffset, int directoryEntries,
+                int idOffset, int idCount, String[] irregularIds) {
+            this.buffer = buffer;
+            this.count = count;
+            this.directoryOffset = directoryOffset;
+            this.directoryEntries = directoryEntries;
+            this.idOffset = idOffset;
+            this.idCount = idCount;
+            this.irregularIds = irregularIds;
+        }
+
+        // Binary search of the student directory; returns the entry offset or -1
+        int findStudent(int student) {
+            int low = 0;
+            int high = directoryEntries - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int entry = directoryOffset + mid * DIRECTORY_ENTRY_BYTES;
+                int value = buffer.getInt(entry);
+                if (value < student) {
+                    low = mid + 1;
+                } else if (value > student) {
+                    high = mid - 1;
+                } else {
+                    return entry;
+                }
+            }
+            return -1;
+        }
+
+        // Binary search of the id index; returns the record or -1
+        int findSequence(int sequence) {
+            int low = 0;
+            int high = idCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = buffer.getInt(idOffset + mid * ID_ENTRY_BYTES);
+                if (value < sequence) {
+                    low = mid + 1;
+                } else if (value > sequence) {
+                    high = mid - 1;
+                } else {
+                    return buffer.getInt(idOffset + mid * ID_ENTRY_BYTES + 4);
+                }
+            }
+            return -1;
+        }
+
+        int findIrregular(String id) {
+            int index = Arrays.asList(irregularIds).indexOf(id);
+            if (index < 0) {
+                return -1;
+            }
+            for (int record = 0; record < count; record++) {
+                if (buffer.getInt(HEADER_BYTES + record * RECORD_BYTES + ID) == -1 - index) {
+                    return record;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // ========== VIEW ==========
+
+    /**
+     * Read-only enrollment decoded from a mapped record.
+     */
+    private final class View extends Enrollment {
+        private Segment segment;
+        private int base;
+
+        View(Segment segment, int record) {
+            moveTo(segment, record);
+        }
+
+        void moveTo(Segment segment, int record) {
+            this.segment = segment;
+            this.base = HEADER_BYTES + record * RECORD_BYTES;
+        }
+
+        View copy() {
+            return new View(segment, (base - HEADER_BYTES) / RECORD_BYTES);
+        }
+
+        int courseRef() {
+            return segment.buffer.getInt(base + COURSE);
+        }
+
+        @Override
+        public String getEnrollmentId() {
+            int id = segment.buffer.getInt(base + ID);
+            return id >= 0 ? IdGenerator.format(Enrollment.ID_PREFIX, id) : segment.irregularIds[-1 - id];
+        }
+
+        @Override
+        public Student getStudent() {
+            return student(segment.buffer.getInt(base + STUDENT));
+        }
+
+        @Override
+        public Course getCourse() {
+            return course(courseRef());
+        }
+
+        @Override
+        public LocalDate getEnrollmentDate() {
+            return LocalDate.ofEpochDay(segment.buffer.getInt(base + DAY));
+        }
+
+        @Override
+        public Semester getSemester() {
+            return SEMESTERS[segment.buffer.get(base + SEMESTER)];
+        }
+
+        @Override
+        public Grade getGrade() {
+            byte code = segment.buffer.get(base + GRADE);
+            return code != 0 ? GRADES[code - 1] : null;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return (segment.buffer.get(base + FLAGS) & COMPLETED) != 0;
+        }
+
+        @Override
+        public boolean isActive() {
+            return (segment.buffer.get(base + FLAGS) & ACTIVE) != 0;
+        }
+
+        @Override
+        protected void updateState(Grade grade, boolean completed, boolean active) {
+            throw new IllegalStateException("Enrollment " + getEnrollmentId() + " belongs to a closed term and is read-only");
+        }
+    }
+}
@@ -0,0 +1,823 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.util.IdGenerator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Struct-of-arrays enrollment store for very large histories, at under 20 bytes per enrollment
+ * including every lookup structure.
+ *
+ * Ids are implicit: "ENR0042" lives in row 42, so there is no id column and no id table. Rows
+ * are kept in pages of {@value #PAGE_ROWS}, allocated only where ids fall, so growth never copies.
+ * Each row holds a student ordinal (int), course ordinal and epoch day (chars) and one packed
+ * byte of semester, grade and status - 9 bytes - plus a 4-byte link to the student's previous row.
+ * Course, semester and active row lists are run-length, varint-delta encoded row numbers (at
+ * most two bytes per entry, far less for runs), so every query costs time proportional to its result. Ids that are not
+ * "ENR" + sequence get rows from a separate range and a small side map. Removed rows stay in
+ * their page as tombstones, so views handed out earlier keep reading their values.
+ *
+ * Callers see rows through {@link Row}, a flyweight {@link Enrollment} created on demand; its
+ * getters read the pages and its state changes write back to them.
+ *
+ * Writes hold the write lock. Pages are never moved, so row columns are read without locking;
+ * the packed state byte is read and written with volatile element access.
+ */
+class CompactEnrollmentStore implements EnrollmentStore {
+    private static final int PAGE_BITS = 12;
+    static final int PAGE_ROWS = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_ROWS - 1;
+    // Rows for irregular ids start here; canonical sequences at or above it are irregular too
+    private static final int IRREGULAR_BASE = 1 << 30;
+    // Student column of a row that was never used; removed rows keep -1 - ordinal so old views still read
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int NONE = -1;
+    private static final int MAX_COURSES = Character.MAX_VALUE + 1;
+
+    // Packed state: bits 0-1 semester, 2-5 grade ordinal + 1 (0 = no grade), 6 completed, 7 active
+    private static final int SEMESTER_MASK = 0x03;
+    private static final int GRADE_SHIFT = 2;
+    private static final int GRADE_MASK = 0x0F << GRADE_SHIFT;
+    private static final int COMPLETED = 0x40;
+    private static final int ACTIVE = 0x80;
+
+    private static final Semester[] SEMESTERS = Semester.values();
+    private static final Grade[] GRADES = Grade.values();
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    static {
+        if (SEMESTERS.length > SEMESTER_MASK + 1 || GRADES.length >= (GRADE_MASK >> GRADE_SHIFT)) {
+            throw new ExceptionInInitializerError("Semester or grade no longer fits the packed state byte");
+        }
+    }
+
+    private static final class Page {
+        final int[] students = new int[PAGE_ROWS];
+        final char[] courses = new char[PAGE_ROWS];
+        final char[] days = new char[PAGE_ROWS];      // LocalDate.toEpochDay(), 1970 to 2149
+        final byte[] state = new byte[PAGE_ROWS];
+        final int[] previousByStudent = new int[PAGE_ROWS];
+
+        Page() {
+            Arrays.fill(students, EMPTY);
+        }
+    }
+
+    private volatile Page[] pages = new Page[16];
+    private volatile Page[] irregularPages = new Page[1];
+    private int size;
+
+    private final Map<String, Integer> irregularRows = new HashMap<>();
+    private String[] irregularIds = new String[16]; // by row - IRREGULAR_BASE
+    private int irregularCount;
+
+    private final Ordinals<Student> students = new Ordinals<>();
+    private int[] newestByStudent = new int[256];
+    private final Ordinals<Course> courses = new Ordinals<>();
+    private RowList[] byCourse = new RowList[64];
+    private final RowList[] bySemester = new RowList[SEMESTERS.length];
+    // Rows that were active when listed; entries that have since gone inactive are skipped and compacted away
+    private RowList active = new RowList();
+    private int inactiveInActiveList;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    CompactEnrollmentStore() {
+        for (int i = 0; i < bySemester.length; i++) {
+            bySemester[i] = new RowList();
+        }
+    }
+
+    // ========== WRITES ==========
+
+    @Override
+    public Enrollment add(Enrollment enrollment) {
+        char day = epochDay(enrollment.getEnrollmentDate().toEpochDay());
+        lock.writeLock().lock();
+        try {
+            String id = enrollment.getEnrollmentId();
+            if (rowOf(id) != NONE) {
+                throw new IllegalArgumentException("Enrollment ID already exists: " + id);
+            }
+            int student = studentOrdinal(enrollment.getStudent());
+            int course = courseOrdinal(enrollment.getCourse());
+            Grade grade = enrollment.getGrade();
+            int state = enrollment.getSemester().ordinal()
+                    | (grade != null ? grade.ordinal() + 1 : 0) << GRADE_SHIFT
+                    | (enrollment.isCompleted() ? COMPLETED : 0)
+                    | (enrollment.isActive() ? ACTIVE : 0);
+            int row = rowFor(id);
+            insert(row, student, course, day, state);
+            return new Row(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addAll(EnrollmentBatch batch) {
+        // One ordinal lookup per student and course of the whole chain, not per row
+        EnrollmentBatch.Chain chain = batch.chain();
+        if (chain.storeStudentOrdinals == null) {
+            chain.storeStudentOrdinals = new int[chain.students.length];
+            chain.storeCourseOrdinals = new int[chain.courses.length];
+        }
+        int[] studentOrdinals = chain.storeStudentOrdinals;
+        int[] courseOrdinals = chain.storeCourseOrdinals;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                char day = epochDay(batch.days[i]);
+                int sequence = batch.sequences[i];
+                int row;
+                if (sequence >= 0 && sequence < IRREGULAR_BASE) {
+                    if (isPresent(sequence)) {
+                        throw new IllegalArgumentException("Enrollment ID already exists: " + batch.id(i));
+                    }
+                    row = sequence;
+                } else {
+                    String id = batch.id(i);
+                    if (rowOf(id) != NONE) {
+                        throw new IllegalArgumentException("Enrollment ID already exists: " + id);
+                    }
+                    row = rowFor(id);
+                }
+                int studentRef = batch.studentRefs[i];
+                if (studentOrdinals[studentRef] == 0) {
+                    studentOrdinals[studentRef] = studentOrdinal(batch.studentAt(studentRef)) + 1;
+                }
+                int courseRef = batch.courseRefs[i];
+                if (courseOrdinals[courseRef] == 0) {
+                    courseOrdinals[courseRef] = courseOrdinal(batch.courseAt(courseRef)) + 1;
+                }
+                int grade = batch.grades[i];
+                int state = batch.semesters[i]
+                        | (grade + 1) << GRADE_SHIFT
+                        | (batch.completed[i] ? COMPLETED : 0)
+                        | (batch.active[i] ? ACTIVE : 0);
+                insert(row, studentOrdinals[studentRef] - 1, courseOrdinals[courseRef] - 1, day, state);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static char epochDay(long day) {
+        if (day < 0 || day > Character.MAX_VALUE) {
+            throw new IllegalArgumentException("Enrollment date outside 1970-2149: " + LocalDate.ofEpochDay(day));
+        }
+        return (char) day;
+    }
+
+    // Caller holds the write lock and has checked that the row is free
+    private void insert(int row, int student, int course, char day, int state) {
+        Page page = pageFor(row, true);
+        int index = row & PAGE_MASK;
+        page.courses[index] = (char) course;
+        page.days[index] = day;
+        BYTES.setVolatile(page.state, index, (byte) state);
+        page.previousByStudent[index] = newestByStudent[student];
+        newestByStudent[student] = row;
+        page.students[index] = student; // last: marks the row as present
+
+        byCourse[course].add(row);
+        bySemester[state & SEMESTER_MASK].add(row);
+        if ((state & ACTIVE) != 0) {
+            active.add(row);
+        }
+        size++;
+    }
+
+    @Override
+    public void markWithdrawn(Enrollment enrollment) {
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(enrollment.getEnrollmentId());
+            if (row != NONE) {
+                setState(row, stateOf(row) & ~(ACTIVE | COMPLETED));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void updateState(int row, Grade grade, boolean completed, boolean active) {
+        lock.writeLock().lock();
+        try {
+            if (!isPresent(row)) {
+                throw new IllegalStateException("Enrollment " + idOf(row) + " was removed from the store");
+            }
+            int semester = stateOf(row) & SEMESTER_MASK;
+            setState(row, semester
+                    | (grade != null ? grade.ordinal() + 1 : 0) << GRADE_SHIFT
+                    | (completed ? COMPLETED : 0)
+                    | (active ? ACTIVE : 0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock; keeps the active list in step with the ACTIVE bit
+    private void setState(int row, int state) {
+        Page page = pageFor(row, false);
+        int index = row & PAGE_MASK;
+        boolean wasActive = (stateOf(row) & ACTIVE) != 0;
+        boolean isActive = (state & ACTIVE) != 0;
+        if (wasActive && !isActive) {
+            inactiveInActiveList++;
+        } else if (!wasActive && isActive && inactiveInActiveList > 0) {
+            compactActiveList(); // drops this row's stale entry, if any, before it is listed again
+        }
+        BYTES.setVolatile(page.state, index, (byte) state);
+        if (!wasActive && isActive) {
+            active.add(row);
+        } else if (inactiveInActiveList > 1024 && inactiveInActiveList > active.count() / 2) {
+            compactActiveList();
+        }
+    }
+
+    @Override
+    public List<Enrollment> removeIf(Predicate<? super Enrollment> filter) {
+        lock.writeLock().lock();
+        try {
+            List<Enrollment> removed = new ArrayList<>();
+            forEachRow(row -> {
+                Row view = new Row(row);
+                if (filter.test(view)) {
+                    removed.add(view);
+                }
+            });
+            if (removed.isEmpty()) {
+                return removed;
+            }
+            BitSet students = new BitSet();
+            BitSet courses = new BitSet();
+            BitSet semesters = new BitSet();
+            for (Enrollment enrollment : removed) {
+                int row = ((Row) enrollment).row;
+                Page page = pageFor(row, false);
+                int index = row & PAGE_MASK;
+                int state = stateOf(row);
+                students.set(page.students[index]);
+                courses.set(page.courses[index]);
+                semesters.set(state & SEMESTER_MASK);
+                if ((state & ACTIVE) != 0) {
+                    inactiveInActiveList++; // no longer present, so the list skips it
+                }
+                page.students[index] = -1 - page.students[index];
+                if (row >= IRREGULAR_BASE) {
+                    irregularRows.remove(idOf(row));
+                }
+                size--;
+            }
+            // Each affected chain and list is rebuilt once
+            students.stream().forEach(this::unlinkRemoved);
+            courses.stream().forEach(course -> byCourse[course] = withoutRemoved(byCourse[course]));
+            semesters.stream().forEach(semester -> bySemester[semester] = withoutRemoved(bySemester[semester]));
+            compactActiveList();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlinkRemoved(int student) {
+        int newer = NONE;
+        for (int row = newestByStudent[student]; row != NONE; ) {
+            Page page = pageFor(row, false);
+            int previous = page.previousByStudent[row & PAGE_MASK];
+            if (isPresent(row)) {
+                newer = row;
+            } else if (newer == NONE) {
+                newestByStudent[student] = previous;
+            } else {
+                pageFor(newer, false).previousByStudent[newer & PAGE_MASK] = previous;
+            }
+            row = previous;
+        }
+    }
+
+    private RowList withoutRemoved(RowList list) {
+        RowList kept = new RowList();
+        list.forEach(row -> {
+            if (isPresent(row)) {
+                kept.add(row);
+            }
+        });
+        return kept;
+    }
+
+    private void compactActiveList() {
+        RowList live = new RowList();
+        active.forEach(row -> {
+            if (isPresent(row) && (stateOf(row) & ACTIVE) != 0) {
+                live.add(row);
+            }
+        });
+        active = live;
+        inactiveInActiveList = 0;
+    }
+
+    private int studentOrdinal(Student student) {
+        int ordinal = students.ordinalOf(student);
+        if (ordinal == NONE) {
+            ordinal = students.add(student);
+            if (ordinal == newestByStudent.length) {
+                newestByStudent = Arrays.copyOf(newestByStudent, ordinal * 2);
+            }
+            newestByStudent[ordinal] = NONE;
+        }
+        return ordinal;
+    }
+
+    private int courseOrdinal(Course course) {
+        int ordinal = courses.ordinalOf(course);
+        if (ordinal == NONE) {
+            if (courses.size() == MAX_COURSES) {
+                throw new IllegalStateException("Compact storage holds at most " + MAX_COURSES + " courses");
+            }
+            ordinal = courses.add(course);
+            if (ordinal == byCourse.length) {
+                byCourse = Arrays.copyOf(byCourse, ordinal * 2);
+            }
+            byCourse[ordinal] = new RowList();
+        }
+        return ordinal;
+    }
+
+    // ========== ROWS AND IDS ==========
+
+    // "ENR0042" is row 42; anything that would not format back identically is irregular
+    private static int canonicalSequence(String id) {
+        long sequence = IdGenerator.parseSequence(Enrollment.ID_PREFIX, id);
+        if (sequence >= 0 && sequence < IRREGULAR_BASE
+                && IdGenerator.format(Enrollment.ID_PREFIX, sequence).equals(id)) {
+            return (int) sequence;
+        }
+        return NONE;
+    }
+
+    // Row of a stored enrollment, or NONE; callers hold the lock
+    private int rowOf(String id) {
+        if (!irregularRows.isEmpty()) {
+            Integer row = irregularRows.get(id);
+            if (row != null) {
+                return row;
+            }
+        }
+        int row = canonicalSequence(id);
+        return row != NONE && isPresent(row) ? row : NONE;
+    }
+
+    // Row a new enrollment with this id goes into; callers hold the write lock and know the id is new
+    private int rowFor(String id) {
+        int row = canonicalSequence(id);
+        if (row != NONE) {
+            return row;
+        }
+        if (irregularCount == irregularIds.length) {
+            irregularIds = Arrays.copyOf(irregularIds, irregularCount * 2);
+        }
+        row = IRREGULAR_BASE + irregularCount;
+        irregularIds[irregularCount++] = id;
+        irregularRows.put(id, row);
+        return row;
+    }
+
+    private String idOf(int row) {
+        return row < IRREGULAR_BASE ? IdGenerator.format(Enrollment.ID_PREFIX, row) : irregularIds[row - IRREGULAR_BASE];
+    }
+
+    private Page pageFor(int row, boolean create) {
+        boolean irregular = row >= IRREGULAR_BASE;
+        Page[] table = irregular ? irregularPages : pages;
+        int number = (irregular ? row - IRREGULAR_BASE : row) >>> PAGE_BITS;
+        if (number < table.length && table[number] != null) {
+            return table[number];
+        }
+        if (!create) {
+            return null;
+        }
+        // Copy-on-write so lock-free readers always see a complete table
+        Page[] grown = number < table.length ? table.clone()
+                : Arrays.copyOf(table, Math.max(number + 1, table.length * 2));
+        grown[number] = new Page();
+        if (irregular) {
+            irregularPages = grown;
+        } else {
+            pages = grown;
+        }
+        return grown[number];
+    }
+
+    private boolean isPresent(int row) {
+        Page page = pageFor(row, false);
+        return page != null && page.students[row & PAGE_MASK] >= 0;
+    }
+
+    private int stateOf(int row) {
+        return ((byte) BYTES.getVolatile(pageFor(row, false).state, row & PAGE_MASK)) & 0xFF;
+    }
+
+    // Every present row in row order; callers hold the lock
+    private void forEachRow(IntConsumer action) {
+        for (Page[] table : new Page[][]{pages, irregularPages}) {
+            int base = table == pages ? 0 : IRREGULAR_BASE;
+            for (int number = 0; number < table.length; number++) {
+                Page page = table[number];
+                if (page == null) {
+                    continue;
+                }
+                for (int index = 0; index < PAGE_ROWS; index++) {
+                    if (page.students[index] >= 0) {
+                        action.accept(base + (number << PAGE_BITS) + index);
+                    }
+                }
+            }
+        }
+    }
+
+    // ========== QUERIES ==========
+
+    @Override
+    public Enrollment findById(String enrollmentId) {
+        lock.readLock().lock();
+        try {
+            int row = rowOf(enrollmentId);
+            return row != NONE ? new Row(row) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isActivelyEnrolled(Student student, Course course) {
+        lock.readLock().lock();
+        try {
+            int studentOrdinal = students.ordinalOf(student);
+            int courseOrdinal = courses.ordinalOf(course);
+            if (studentOrdinal == NONE || courseOrdinal == NONE) {
+                return false;
+            }
+            for (int row = newestByStudent[studentOrdinal]; row != NONE; ) {
+                Page page = pageFor(row, false);
+                int index = row & PAGE_MASK;
+                if (page.courses[index] == courseOrdinal && (stateOf(row) & ACTIVE) != 0) {
+                    return true;
+                }
+                row = page.previousByStudent[index];
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Enrollment> byStudent(Student student) {
+        lock.readLock().lock();
+        try {
+            List<Enrollment> result = new ArrayList<>();
+            int ordinal = students.ordinalOf(student);
+            if (ordinal != NONE) {
+                for (int row = newestByStudent[ordinal]; row != NONE; row = pageFor(row, false).previousByStudent[row & PAGE_MASK]) {
+                    result.add(new Row(row));
+                }
+                Collections.reverse(result); // oldest first, like the object store
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Enrollment> byCourse(Course course) {
+        lock.readLock().lock();
+        try {
+            int ordinal = courses.ordinalOf(course);
+            return ordinal != NONE ? rows(byCourse[ordinal], false) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Enrollment> bySemester(Semester semester) {
+        lock.readLock().lock();
+        try {
+            return rows(bySemester[semester.ordinal()], false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Enrollment> active() {
+        lock.readLock().lock();
+        try {
+            return rows(active, true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Enrollment> rows(RowList list, boolean activeOnly) {
+        List<Enrollment> result = new ArrayList<>(list.count());
+        list.forEach(row -> {
+            if (!activeOnly || (isPresent(row) && (stateOf(row) & ACTIVE) != 0)) {
+                result.add(new Row(row));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<Enrollment> all() {
+        lock.readLock().lock();
+        try {
+            List<Enrollment> result = new ArrayList<>(size);
+            forEachRow(row -> result.add(new Row(row)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Enrollment> action) {
+        lock.readLock().lock();
+        try {
+            forEachRow(row -> action.accept(new Row(row)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== SUPPORT ==========
+
+    /**
+     * Dense ordinals for students or courses: an open-addressing table of ordinal + 1 over an
+     * array of the values (about 12 bytes per value, where a HashMap entry costs about 48).
+     */
+    private static final class Ordinals<T> {
+        private volatile Object[] values = new Object[256];
+        private int[] slots = new int[512];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(int ordinal) {
+            return (T) values[ordinal];
+        }
+
+        int ordinalOf(T value) {
+            int mask = slots.length - 1;
+            for (int slot = spread(value.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                if (values[slots[slot] - 1].equals(value)) {
+                    return slots[slot] - 1;
+                }
+            }
+            return NONE;
+        }
+
+        int add(T value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+            if ((size + 1) * 4 > slots.length * 3) { // keep load factor under 0.75
+                slots = new int[slots.length * 2];
+                for (int ordinal = 0; ordinal < size; ordinal++) {
+                    insert(ordinal);
+                }
+            }
+            insert(size);
+            return size++;
+        }
+
+        private void insert(int ordinal) {
+            int mask = slots.length - 1;
+            int slot = spread(values[ordinal].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = ordinal + 1;
+        }
+
+        private static int spread(int h) {
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Append-only list of row numbers. Runs of consecutive rows are stored as a zigzag varint
+     * difference from the end of the previous run, with the low bit set when a varint run length
+     * follows, so mostly-consecutive lists such as the active list cost well under a byte per row.
+     * Bytes live in blocks of up to {@value #BLOCK_BYTES}, so a list never wastes more than one block.
+     */
+    private static final class RowList {
+        private static final int BLOCK_BYTES = 4096;
+
+        private byte[][] blocks = {new byte[16]};
+        private int blockCount = 1;
+        private int position; // in the last block
+        private int count;
+        private int last;     // final row of the last written run
+        private int runStart; // run still being extended, written when it breaks
+        private int runLength;
+
+        int count() {
+            return count;
+        }
+
+        void add(int row) {
+            if (runLength > 0 && row == runStart + runLength) {
+                runLength++;
+            } else {
+                writeRun();
+                runStart = row;
+                runLength = 1;
+            }
+            count++;
+        }
+
+        private void writeRun() {
+            if (runLength == 0) {
+                return;
+            }
+            long delta = (long) runStart - last;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            writeVarint(zigzag << 1 | (runLength > 1 ? 1 : 0));
+            if (runLength > 1) {
+                writeVarint(runLength - 2);
+            }
+            last = runStart + runLength - 1;
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            put((byte) value);
+        }
+
+        private void put(byte b) {
+            byte[] block = blocks[blockCount - 1];
+            if (position == block.length) {
+                if (block.length < BLOCK_BYTES) {
+                    block = Arrays.copyOf(block, block.length * 2);
+                    blocks[blockCount - 1] = block;
+                } else {
+                    if (blockCount == blocks.length) {
+                        blocks = Arrays.copyOf(blocks, blockCount * 2);
+                    }
+                    block = new byte[BLOCK_BYTES];
+                    blocks[blockCount++] = block;
+                    position = 0;
+                }
+            }
+            block[position++] = b;
+        }
+
+        void forEach(IntConsumer action) {
+            int previous = 0;
+            int start = 0;
+            boolean lengthNext = false;
+            long value = 0;
+            int shift = 0;
+            for (int i = 0; i < blockCount; i++) {
+                byte[] block = blocks[i];
+                int end = i == blockCount - 1 ? position : block.length;
+                for (int p = 0; p < end; p++) {
+                    byte b = block[p];
+                    value |= (long) (b & 0x7F) << shift;
+                    if (b < 0) {
+                        shift += 7;
+                        continue;
+                    }
+                    if (lengthNext) {
+                        int length = (int) value + 2;
+                        for (int row = start; row < start + length; row++) {
+                            action.accept(row);
+                        }
+                        previous = start + length - 1;
+                        lengthNext = false;
+                    } else {
+                        long zigzag = value >>> 1;
+                        start = (int) (previous + ((zigzag >>> 1) ^ -(zigzag & 1)));
+                        if ((value & 1) != 0) {
+                            lengthNext = true;
+                        } else {
+                            action.accept(start);
+                            previous = start;
+                        }
+                    }
+                    value = 0;
+                    shift = 0;
+                }
+            }
+            for (int row = runStart; row < runStart + runLength; row++) {
+                action.accept(row);
+            }
+        }
+    }
+
+    // ========== FLYWEIGHT VIEW ==========
+
+    /**
+     * Enrollment backed by one row of the store.
+     */
+    private final class Row extends Enrollment {
+        private final int row;
+
+        Row(int row) {
+            this.row = row;
+        }
+
+        private Page page() {
+            return pageFor(row, false);
+        }
+
+        @Override
+        public String getEnrollmentId() {
+            return idOf(row);
+        }
+
+        @Override
+        public Student getStudent() {
+            int student = page().students[row & PAGE_MASK];
+            return students.get(student >= 0 ? student : -1 - student);
+        }
+
+        @Override
+        public Course getCourse() {
+            return courses.get(page().courses[row & PAGE_MASK]);
+        }
+
+        @Override
+        public LocalDate getEnrollmentDate() {
+            return LocalDate.ofEpochDay(page().days[row & PAGE_MASK]);
+        }
+
+        @Override
+        public Semester getSemester() {
+            return SEMESTERS[stateOf(row) & SEMESTER_MASK];
+        }
+
+        @Override
+        public Grade getGrade() {
+            int code = (stateOf(row) & GRADE_MASK) >>> GRADE_SHIFT;
+            return code != 0 ? GRADES[code - 1] : null;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return (stateOf(row) & COMPLETED) != 0;
+        }
+
+        @Override
+        public boolean isActive() {
+            return (stateOf(row) & ACTIVE) != 0;
+        }
+
+        @Override
+        protected void updateState(Grade grade, boolean completed, boolean active) {
+            CompactEnrollmentStore.this.updateState(row, grade, completed, active);
+        }
+    }
+}
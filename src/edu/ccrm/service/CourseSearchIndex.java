@@ -0,0 +1,543 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Department;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Semester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory search over the course catalog.
+ *
+ * Each course gets a document number in catalog order. Codes and titles go into radix
+ * (path-compressed) prefix tries; title and description words go into an inverted index of
+ * sorted posting lists; department, credits, semester, instructor and active flag are kept as
+ * bitsets. A query intersects those as bitsets and only touches Course objects for the page it
+ * returns, except for the seats filter, which changes with every enrollment and is checked live.
+ *
+ * Lists and trie nodes covering more than 1/64 of the catalog also keep a bitset copy, built on
+ * first use and dropped when they grow, so broad terms like a one-letter prefix cost a few word ops.
+ *
+ * Not thread-safe on its own; CourseService owns it and adds courses as they are registered.
+ * Courses are filed under their semester, instructor and active flag as registered; the catalog
+ * has no edit operation, so those are not re-filed later.
+ */
+public class CourseSearchIndex {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final List<Course> courses = new ArrayList<>();
+    private final PrefixTrie codes = new PrefixTrie();
+    private final PrefixTrie titles = new PrefixTrie();
+    private final Map<String, Postings> words = new HashMap<>();
+    private final Map<Department, BitSet> byDepartment = new EnumMap<>(Department.class);
+    private BitSet[] byCredits = new BitSet[8];
+    private final Map<Semester, BitSet> bySemester = new EnumMap<>(Semester.class);
+    private final Map<Instructor, BitSet> byInstructor = new HashMap<>();
+    private final BitSet active = new BitSet();
+
+    void add(Course course) {
+        int doc = courses.size();
+        courses.add(course);
+        codes.insert(normalize(course.getCode()), doc);
+        titles.insert(normalize(course.getTitle()), doc);
+
+        for (String word : tokenize(course.getTitle())) {
+            words.computeIfAbsent(word, k -> new Postings()).addOnce(doc);
+        }
+        for (String word : tokenize(course.getDescription())) {
+            words.computeIfAbsent(word, k -> new Postings()).addOnce(doc);
+        }
+        if (course.getDepartment() != null) {
+            byDepartment.computeIfAbsent(course.getDepartment(), k -> new BitSet()).set(doc);
+        }
+        int credits = Math.max(0, course.getCredits());
+        if (credits >= byCredits.length) {
+            byCredits = Arrays.copyOf(byCredits, credits + 1);
+        }
+        if (byCredits[credits] == null) {
+            byCredits[credits] = new BitSet();
+        }
+        byCredits[credits].set(doc);
+
+        if (course.getSemester() != null) {
+            bySemester.computeIfAbsent(course.getSemester(), k -> new BitSet()).set(doc);
+        }
+        if (course.getInstructor() != null) {
+            byInstructor.computeIfAbsent(course.getInstructor(), k -> new BitSet()).set(doc);
+        }
+        active.set(doc, course.isActive());
+    }
+
+    public int size() {
+        return courses.size();
+    }
+
+    public Page search(Query query) {
+        BitSet candidates = null; // null means every course
+        if (query.codePrefix != null) {
+            candidates = restrict(candidates, codes.collect(normalize(query.codePrefix), courses.size()));
+        }
+        if (query.titlePrefix != null) {
+            candidates = restrict(candidates, titles.collect(normalize(query.titlePrefix), courses.size()));
+        }
+        if (query.prefix != null) {
+            String prefix = normalize(query.prefix);
+            BitSet either = (BitSet) codes.collect(prefix, courses.size()).clone();
+            either.or(titles.collect(prefix, courses.size()));
+            candidates = restrict(candidates, either);
+        }
+        if (query.keywords != null) {
+            candidates = restrict(candidates, matchAllWords(tokenize(query.keywords)));
+        }
+        if (query.department != null) {
+            candidates = restrict(candidates, byDepartment.getOrDefault(query.department, EMPTY));
+        }
+        if (query.minCredits > 0 || query.maxCredits < Integer.MAX_VALUE) {
+            BitSet inRange = new BitSet();
+            for (int c = Math.max(0, query.minCredits); c <= Math.min(query.maxCredits, byCredits.length - 1); c++) {
+                if (byCredits[c] != null) {
+                    inRange.or(byCredits[c]);
+                }
+            }
+            candidates = restrict(candidates, inRange);
+        }
+        if (query.semester != null) {
+            candidates = restrict(candidates, bySemester.getOrDefault(query.semester, EMPTY));
+        }
+        if (query.instructor != null) {
+            candidates = restrict(candidates, byInstructor.getOrDefault(query.instructor, EMPTY));
+        }
+        if (query.activeOnly) {
+            candidates = restrict(candidates, active);
+        }
+        if (candidates == null) {
+            candidates = new BitSet(courses.size());
+            candidates.set(0, courses.size());
+        }
+
+        long offset = (long) query.pageIndex * query.pageSize;
+        List<Course> page = new ArrayList<>(Math.min(query.pageSize, 64));
+        int total;
+        if (!query.seatsAvailable) {
+            // Everything is decided by the bitsets: count them, then skip straight to the page
+            total = candidates.cardinality();
+            int doc = candidates.nextSetBit(0);
+            for (long skipped = 0; skipped < offset && doc >= 0; skipped++) {
+                doc = candidates.nextSetBit(doc + 1);
+            }
+            for (; doc >= 0 && page.size() < query.pageSize; doc = candidates.nextSetBit(doc + 1)) {
+                page.add(courses.get(doc));
+            }
+        } else {
+            total = 0;
+            for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                Course course = courses.get(doc);
+                if (!course.hasSeatsAvailable()) {
+                    continue;
+                }
+                if (total >= offset && page.size() < query.pageSize) {
+                    page.add(course);
+                }
+                total++;
+            }
+        }
+        return new Page(page, total, query.pageIndex, query.pageSize);
+    }
+
+    private static final BitSet EMPTY = new BitSet();
+
+    // First restriction copies, so the index's own bitsets are never modified
+    private static BitSet restrict(BitSet candidates, BitSet allowed) {
+        if (candidates == null) {
+            return (BitSet) allowed.clone();
+        }
+        candidates.and(allowed);
+        return candidates;
+    }
+
+    private BitSet matchAllWords(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            BitSet all = new BitSet();
+            all.set(0, courses.size());
+            return all;
+        }
+        List<Postings> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Postings postings = words.get(token);
+            if (postings == null) {
+                return EMPTY;
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+        Postings rarest = lists.get(0);
+        int catalogSize = courses.size();
+        if (isDense(rarest.size, catalogSize)) {
+            // Every list is dense: AND their bitsets
+            BitSet result = (BitSet) rarest.bits().clone();
+            for (int l = 1; l < lists.size(); l++) {
+                result.and(lists.get(l).bits());
+            }
+            return result;
+        }
+        // Walk the rarest word and probe the others (bit test for dense lists, galloping search otherwise)
+        BitSet result = new BitSet();
+        int[] cursors = new int[lists.size()];
+        outer:
+        for (int i = 0; i < rarest.size; i++) {
+            int doc = rarest.docs[i];
+            for (int l = 1; l < lists.size(); l++) {
+                Postings other = lists.get(l);
+                if (isDense(other.size, catalogSize)) {
+                    if (!other.bits().get(doc)) {
+                        continue outer;
+                    }
+                    continue;
+                }
+                int at = other.seek(doc, cursors[l]);
+                cursors[l] = at;
+                if (at >= other.size) {
+                    break outer;
+                }
+                if (other.docs[at] != doc) {
+                    continue outer;
+                }
+            }
+            result.set(doc);
+        }
+        return result;
+    }
+
+    // Worth a bitset copy: the bitset is at most twice the size of the int list
+    static boolean isDense(int count, int catalogSize) {
+        return count >= 64 && count >= catalogSize / 64;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Lower-cased runs of letters and digits
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // ========== QUERY AND RESULTS ==========
+
+    /**
+     * Search criteria; every criterion set must match. Built fluently, e.g.
+     * {@code new Query().prefix("cs2").department(Department.COMPUTER_SCIENCE).seatsAvailable().page(0, 20)}.
+     */
+    public static final class Query {
+        private String codePrefix;
+        private String titlePrefix;
+        private String prefix;
+        private String keywords;
+        private Department department;
+        private Semester semester;
+        private Instructor instructor;
+        private int minCredits = 0;
+        private int maxCredits = Integer.MAX_VALUE;
+        private boolean seatsAvailable;
+        private boolean activeOnly;
+        private int pageIndex = 0;
+        private int pageSize = DEFAULT_PAGE_SIZE;
+
+        /** Course code starts with the text (case-insensitive). */
+        public Query codePrefix(String codePrefix) {
+            this.codePrefix = codePrefix;
+            return this;
+        }
+
+        /** Title starts with the text (case-insensitive). */
+        public Query titlePrefix(String titlePrefix) {
+            this.titlePrefix = titlePrefix;
+            return this;
+        }
+
+        /** Code or title starts with the text. */
+        public Query prefix(String prefix) {
+            this.prefix = prefix;
+            return this;
+        }
+
+        /** Every word appears in the title or description. */
+        public Query keywords(String keywords) {
+            this.keywords = keywords;
+            return this;
+        }
+
+        public Query department(Department department) {
+            this.department = department;
+            return this;
+        }
+
+        public Query semester(Semester semester) {
+            this.semester = semester;
+            return this;
+        }
+
+        public Query instructor(Instructor instructor) {
+            this.instructor = instructor;
+            return this;
+        }
+
+        public Query credits(int min, int max) {
+            if (min > max) {
+                throw new IllegalArgumentException("Min credits cannot exceed max credits");
+            }
+            this.minCredits = min;
+            this.maxCredits = max;
+            return this;
+        }
+
+        public Query seatsAvailable() {
+            this.seatsAvailable = true;
+            return this;
+        }
+
+        public Query activeOnly() {
+            this.activeOnly = true;
+            return this;
+        }
+
+        public Query page(int pageIndex, int pageSize) {
+            if (pageIndex < 0) {
+                throw new IllegalArgumentException("Page index cannot be negative");
+            }
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            this.pageIndex = pageIndex;
+            this.pageSize = pageSize;
+            return this;
+        }
+    }
+
+    /**
+     * One page of matches in catalog order, with the total match count across all pages.
+     */
+    public record Page(List<Course> courses, int totalMatches, int pageIndex, int pageSize) {
+        public boolean hasNextPage() {
+            return (long) (pageIndex + 1) * pageSize < totalMatches;
+        }
+
+        public int pageCount() {
+            return (totalMatches + pageSize - 1) / pageSize;
+        }
+    }
+
+    // ========== INDEX STRUCTURES ==========
+
+    // Ascending doc numbers; docs are added in increasing order, so appends keep it sorted
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+        private BitSet bits; // built on demand, dropped on growth
+
+        void addOnce(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+            bits = null;
+        }
+
+        BitSet bits() {
+            if (bits == null) {
+                bits = new BitSet();
+                for (int i = 0; i < size; i++) {
+                    bits.set(docs[i]);
+                }
+            }
+            return bits;
+        }
+
+        // Index of the first doc >= target at or after from (galloping, then binary search)
+        int seek(int target, int from) {
+            int bound = 1;
+            while (from + bound < size && docs[from + bound] < target) {
+                bound <<= 1;
+            }
+            int low = from + (bound >> 1);
+            int high = Math.min(size, from + bound + 1);
+            int at = Arrays.binarySearch(docs, low, high, target);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+
+    /**
+     * Radix trie: each edge carries a run of characters, so there are at most two nodes per key.
+     */
+    private static final class PrefixTrie {
+        private final Node root = new Node("");
+
+        void insert(String key, int doc) {
+            Node node = root;
+            node.touch();
+            int i = 0;
+            while (i < key.length()) {
+                int slot = node.find(key.charAt(i));
+                if (slot < 0) {
+                    Node leaf = new Node(key.substring(i));
+                    node.insertChild(-slot - 1, leaf);
+                    node = leaf;
+                    node.touch();
+                    break;
+                }
+                Node child = node.children[slot];
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    // Split the edge where the key diverges
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.insertChild(0, child);
+                    middle.subtreeDocs = child.subtreeDocs;
+                    node.children[slot] = middle;
+                    child = middle;
+                }
+                node = child;
+                node.touch();
+                i += common;
+            }
+            node.addDoc(doc);
+        }
+
+        /**
+         * Docs whose key starts with prefix. The result may be a cached set: callers must not modify it.
+         */
+        BitSet collect(String prefix, int catalogSize) {
+            Node node = root;
+            int i = 0;
+            while (i < prefix.length()) {
+                int slot = node.find(prefix.charAt(i));
+                if (slot < 0) {
+                    return EMPTY;
+                }
+                Node child = node.children[slot];
+                int common = commonPrefix(child.label, prefix, i);
+                if (i + common == prefix.length()) {
+                    node = child; // prefix ends inside or at the end of this edge
+                    break;
+                }
+                if (common < child.label.length()) {
+                    return EMPTY;
+                }
+                node = child;
+                i += common;
+            }
+            if (isDense(node.subtreeDocs, catalogSize)) {
+                if (node.bits == null) {
+                    node.bits = new BitSet(catalogSize);
+                    collectSubtree(node, node.bits);
+                }
+                return node.bits;
+            }
+            BitSet result = new BitSet();
+            collectSubtree(node, result);
+            return result;
+        }
+
+        private static void collectSubtree(Node node, BitSet result) {
+            for (int d = 0; d < node.docCount; d++) {
+                result.set(node.docs[d]);
+            }
+            for (int c = 0; c < node.childCount; c++) {
+                collectSubtree(node.children[c], result);
+            }
+        }
+
+        private static int commonPrefix(String label, String key, int from) {
+            int max = Math.min(label.length(), key.length() - from);
+            int n = 0;
+            while (n < max && label.charAt(n) == key.charAt(from + n)) {
+                n++;
+            }
+            return n;
+        }
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_DOCS = new int[0];
+
+        String label;
+        Node[] children = NO_CHILDREN; // sorted by first label character
+        int childCount;
+        int[] docs = NO_DOCS;
+        int docCount;
+        int subtreeDocs;
+        BitSet bits; // cached subtree docs for dense nodes
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        // A doc is being added at or below this node
+        void touch() {
+            subtreeDocs++;
+            bits = null;
+        }
+
+        // Binary search on first characters; returns -(insertion point) - 1 when absent
+        int find(char first) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+
+        void insertChild(int at, Node child) {
+            if (childCount == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+            }
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            children[at] = child;
+            childCount++;
+        }
+
+        void addDoc(int doc) {
+            if (docCount == docs.length) {
+                docs = Arrays.copyOf(docs, Math.max(1, docCount * 2));
+            }
+            docs[docCount++] = doc;
+        }
+    }
+}
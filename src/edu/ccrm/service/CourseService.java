@@ -1,24 +1,99 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.Course;
+import edu.ccrm.util.OperationMetrics;
+
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+/**
+ * Course catalog indexed by course code (insertion ordered for listing),
+ * with a search index for prefix, keyword and filter queries.
+ */
 public class CourseService {
-    private List<Course> courses = new ArrayList<>();
+    private static final OperationMetrics.Timer ADD = OperationMetrics.timer("course.add");
+    private static final OperationMetrics.Timer LIST = OperationMetrics.timer("course.list");
+    private static final OperationMetrics.Timer FIND_BY_CODE = OperationMetrics.timer("course.findByCode");
+    private static final OperationMetrics.Timer SEARCH = OperationMetrics.timer("course.search");
+
+    private final Map<String, Course> coursesByCode = new LinkedHashMap<>();
+    private final CourseSearchIndex searchIndex = new CourseSearchIndex();
+    private final List<RegistryListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(RegistryListener listener) {
+        listeners.add(listener);
+    }
 
     public void addCourse(Course course) {
-        courses.add(course);
+        long start = ADD.start();
+        try {
+            if (coursesByCode.containsKey(course.getCode())) {
+                throw new IllegalArgumentException("Course code already exists: " + course.getCode());
+            }
+            coursesByCode.put(course.getCode(), course);
+            searchIndex.add(course);
+            listeners.forEach(l -> l.onCourseAdded(course));
+            listeners.forEach(RegistryListener::onMutationComplete);
+        } finally {
+            ADD.stop(start);
+        }
+    }
+
+    /**
+     * Bulk counterpart of {@link #addCourse} for loaders: no per-record metrics or listener events.
+     * Only for startup, before listeners such as the journal are attached.
+     */
+    public void restoreCourses(Course[] courses) {
+        for (Course course : courses) {
+            if (coursesByCode.putIfAbsent(course.getCode(), course) != null) {
+                throw new IllegalArgumentException("Course code already exists: " + course.getCode());
+            }
+            searchIndex.add(course);
+        }
     }
 
     public List<Course> getAllCourses() {
-        return new ArrayList<>(courses);
+        long start = LIST.start();
+        try {
+            return new ArrayList<>(coursesByCode.values());
+        } finally {
+            LIST.stop(start);
+        }
+    }
+
+    /**
+     * Visit every course without copying the catalog (used by streaming export).
+     */
+    public void forEachCourse(Consumer<? super Course> action) {
+        coursesByCode.values().forEach(action);
+    }
+
+    public int getCourseCount() {
+        return coursesByCode.size();
     }
 
     public Course findCourseByCode(String code) {
-        return courses.stream()
-                .filter(c -> c.getCode().equals(code))
-                .findFirst()
-                .orElse(null);
+        long start = FIND_BY_CODE.start();
+        try {
+            return coursesByCode.get(code);
+        } finally {
+            FIND_BY_CODE.stop(start);
+        }
+    }
+
+    /**
+     * One page of courses matching every criterion in the query, in catalog order.
+     */
+    public CourseSearchIndex.Page searchCourses(CourseSearchIndex.Query query) {
+        long start = SEARCH.start();
+        try {
+            return searchIndex.search(query);
+        } finally {
+            SEARCH.stop(start);
+        }
     }
-}
\ No newline at end of file
+}
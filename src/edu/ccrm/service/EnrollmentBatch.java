@@ -0,0 +1,155 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.util.IdGenerator;
+
+import java.time.LocalDate;
+
+/**
+ * A block of persisted enrollments in column form, filled by a loader and applied in one pass by
+ * {@link EnrollmentService#restoreEnrollments}. Students and courses are given as positions in
+ * the tables passed to the constructor, so no lookups are needed per record.
+ *
+ * Each index is written once; different indexes may be filled from different threads, and the
+ * batch is handed over after they have all finished. Large loads are split into a chain of
+ * batches made with {@link #next}, applied in order to one service, so the per-student lookups
+ * resolved for one batch are reused by the rest.
+ */
+public final class EnrollmentBatch {
+    private static final Semester[] SEMESTERS = Semester.values();
+    private static final Grade[] GRADES = Grade.values();
+
+    private final Chain chain;
+    private final int size;
+    // Id sequence of "ENR" + sequence ids, or -1 with the id in irregularIds
+    final int[] sequences;
+    private final String[] irregularIds;
+    final int[] studentRefs;
+    final int[] courseRefs;
+    final int[] days;
+    final byte[] semesters;
+    final byte[] grades; // ordinal, -1 = no grade
+    final boolean[] completed;
+    final boolean[] active;
+
+    // Shared by every batch of a chain; the lookup arrays are filled in by the applying thread
+    static final class Chain {
+        final Student[] students;
+        final Course[] courses;
+        int[] storeStudentOrdinals; // store ordinal + 1 per table position, 0 = not resolved yet
+        int[] storeCourseOrdinals;
+        GpaTotals[] totals;
+
+        Chain(Student[] students, Course[] courses) {
+            this.students = students;
+            this.courses = courses;
+        }
+    }
+
+    public EnrollmentBatch(Student[] students, Course[] courses, int size) {
+        this(new Chain(students, courses), size);
+    }
+
+    private EnrollmentBatch(Chain chain, int size) {
+        this.chain = chain;
+        this.size = size;
+        this.sequences = new int[size];
+        this.irregularIds = new String[size];
+        this.studentRefs = new int[size];
+        this.courseRefs = new int[size];
+        this.days = new int[size];
+        this.semesters = new byte[size];
+        this.grades = new byte[size];
+        this.completed = new boolean[size];
+        this.active = new boolean[size];
+    }
+
+    /**
+     * An empty batch over the same student and course tables, to be applied after this one.
+     */
+    public EnrollmentBatch next(int size) {
+        return new EnrollmentBatch(chain, size);
+    }
+
+    /**
+     * @param sequence the id's sequence when it reads "ENR" + sequence, otherwise -1
+     * @param id the id itself when {@code sequence} is -1 (ignored otherwise)
+     * @param student position in the student table
+     * @param course position in the course table
+     * @param grade ordinal of the grade, or -1 when ungraded
+     * @param completed graded and counting towards the GPA (withdrawn enrollments can be too)
+     */
+    public void set(int index, int sequence, String id, int student, int course, Semester semester,
+                    int epochDay, int grade, boolean completed, boolean active) {
+        if (sequence < 0) {
+            irregularIds[index] = id;
+        }
+        sequences[index] = sequence;
+        studentRefs[index] = student;
+        courseRefs[index] = course;
+        days[index] = epochDay;
+        semesters[index] = (byte) semester.ordinal();
+        grades[index] = (byte) grade;
+        this.completed[index] = completed;
+        this.active[index] = active;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    Chain chain() {
+        return chain;
+    }
+
+    String id(int index) {
+        int sequence = sequences[index];
+        return sequence >= 0 ? IdGenerator.format(Enrollment.ID_PREFIX, sequence) : irregularIds[index];
+    }
+
+    Student student(int index) {
+        return chain.students[studentRefs[index]];
+    }
+
+    Course course(int index) {
+        return chain.courses[courseRefs[index]];
+    }
+
+    Student studentAt(int ref) {
+        return chain.students[ref];
+    }
+
+    Course courseAt(int ref) {
+        return chain.courses[ref];
+    }
+
+    Semester semester(int index) {
+        return SEMESTERS[semesters[index]];
+    }
+
+    LocalDate date(int index) {
+        return LocalDate.ofEpochDay(days[index]);
+    }
+
+    Grade grade(int index) {
+        byte grade = grades[index];
+        return grade >= 0 ? GRADES[grade] : null;
+    }
+
+    boolean isCompleted(int index) {
+        return completed[index];
+    }
+
+    boolean isActive(int index) {
+        return active[index];
+    }
+
+    Enrollment detached(int index) {
+        return Enrollment.detached(id(index), student(index), course(index), semester(index), date(index),
+                grade(index), isCompleted(index), isActive(index));
+    }
+}
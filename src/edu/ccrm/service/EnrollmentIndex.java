@@ -0,0 +1,208 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory multi-key index over enrollments.
+ * Keys: enrollmentId, student, course, semester and (student, course) for active enrollments.
+ * Queries cost time proportional to the size of their result.
+ * Thread-safe: writes are short O(1) critical sections, reads run concurrently.
+ */
+class EnrollmentIndex implements EnrollmentStore {
+    private final Map<String, Enrollment> byId = new LinkedHashMap<>();
+    private final Map<Student, List<Enrollment>> byStudent = new HashMap<>();
+    private final Map<Course, List<Enrollment>> byCourse = new HashMap<>();
+    private final Map<Semester, List<Enrollment>> bySemester = new EnumMap<>(Semester.class);
+    private final Map<ActiveKey, Enrollment> activeByStudentCourse = new HashMap<>();
+    private final Map<String, Enrollment> activeById = new LinkedHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Composite key for the (student, course, active) lookup
+    private record ActiveKey(Student student, Course course) { }
+
+    @Override
+    public Enrollment add(Enrollment enrollment) {
+        lock.writeLock().lock();
+        try {
+            return insert(enrollment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addAll(EnrollmentBatch batch) {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                insert(batch.detached(i));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private Enrollment insert(Enrollment enrollment) {
+        if (byId.putIfAbsent(enrollment.getEnrollmentId(), enrollment) != null) {
+            throw new IllegalArgumentException("Enrollment ID already exists: " + enrollment.getEnrollmentId());
+        }
+        byStudent.computeIfAbsent(enrollment.getStudent(), k -> new ArrayList<>()).add(enrollment);
+        byCourse.computeIfAbsent(enrollment.getCourse(), k -> new ArrayList<>()).add(enrollment);
+        bySemester.computeIfAbsent(enrollment.getSemester(), k -> new ArrayList<>()).add(enrollment);
+        if (enrollment.isActive()) {
+            activeByStudentCourse.put(new ActiveKey(enrollment.getStudent(), enrollment.getCourse()), enrollment);
+            activeById.put(enrollment.getEnrollmentId(), enrollment);
+        }
+        return enrollment;
+    }
+
+    @Override
+    public void markWithdrawn(Enrollment enrollment) {
+        lock.writeLock().lock();
+        try {
+            activeByStudentCourse.remove(new ActiveKey(enrollment.getStudent(), enrollment.getCourse()), enrollment);
+            activeById.remove(enrollment.getEnrollmentId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Enrollment findById(String enrollmentId) {
+        lock.readLock().lock();
+        try {
+            return byId.get(enrollmentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isActivelyEnrolled(Student student, Course course) {
+        lock.readLock().lock();
+        try {
+            return activeByStudentCourse.containsKey(new ActiveKey(student, course));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Enrollment> byStudent(Student student) {
+        return copyOf(byStudent, student);
+    }
+
+    @Override
+    public List<Enrollment> byCourse(Course course) {
+        return copyOf(byCourse, course);
+    }
+
+    @Override
+    public List<Enrollment> bySemester(Semester semester) {
+        return copyOf(bySemester, semester);
+    }
+
+    @Override
+    public List<Enrollment> active() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(activeById.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Enrollment> all() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byId.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Enrollment> action) {
+        lock.readLock().lock();
+        try {
+            byId.values().forEach(action);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Enrollment> removeIf(Predicate<? super Enrollment> filter) {
+        lock.writeLock().lock();
+        try {
+            List<Enrollment> removed = new ArrayList<>();
+            byId.values().removeIf(enrollment -> filter.test(enrollment) && removed.add(enrollment));
+            if (removed.isEmpty()) {
+                return removed;
+            }
+            Set<Enrollment> gone = new HashSet<>(removed);
+            Set<Student> students = new HashSet<>();
+            Set<Course> courses = new HashSet<>();
+            Set<Semester> semesters = new HashSet<>();
+            for (Enrollment enrollment : removed) {
+                students.add(enrollment.getStudent());
+                courses.add(enrollment.getCourse());
+                semesters.add(enrollment.getSemester());
+                activeByStudentCourse.remove(new ActiveKey(enrollment.getStudent(), enrollment.getCourse()), enrollment);
+                activeById.remove(enrollment.getEnrollmentId());
+            }
+            // Each affected bucket is filtered once
+            students.forEach(student -> removeFrom(byStudent, student, gone));
+            courses.forEach(course -> removeFrom(byCourse, course, gone));
+            semesters.forEach(semester -> removeFrom(bySemester, semester, gone));
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, List<Enrollment>> map, K key, Set<Enrollment> gone) {
+        List<Enrollment> bucket = map.get(key);
+        if (bucket != null && bucket.removeIf(gone::contains) && bucket.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    private <K> List<Enrollment> copyOf(Map<K, List<Enrollment>> map, K key) {
+        lock.readLock().lock();
+        try {
+            List<Enrollment> bucket = map.get(key);
+            return bucket != null ? new ArrayList<>(bucket) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
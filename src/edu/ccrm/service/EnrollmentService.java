@@ -1,76 +1,403 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.util.OperationMetrics;
+import edu.ccrm.util.RegistryEvents;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
+/**
+ * Enrollment operations, safe to call from many threads.
+ * Per-student lock striping serializes the duplicate check, credit check and
+ * student-side updates for one student; seats are taken with a CAS on the course,
+ * so requests for different students and courses proceed in parallel.
+ *
+ * GPA is maintained incrementally: each student has running totals that grading,
+ * withdrawal and addEnrollment adjust in O(1), so calculateGPA is a lookup.
+ *
+ * Enrollments live either as objects in a hash index (default) or, for very large
+ * histories, as rows in a compact struct-of-arrays store; see {@link Storage}.
+ * With object storage, finished enrollments of closed terms can also be moved off-heap
+ * into a read-only memory-mapped archive (see {@link #archiveClosedTerms}); queries
+ * return archived and live enrollments together.
+ */
 public class EnrollmentService {
-    private final List<Enrollment> enrollments = new ArrayList<>();
+    private static final OperationMetrics.Timer ENROLL = OperationMetrics.timer("enrollment.enroll");
+    private static final OperationMetrics.Timer ADD = OperationMetrics.timer("enrollment.add");
+    private static final OperationMetrics.Timer RESTORE = OperationMetrics.timer("enrollment.restore");
+    private static final OperationMetrics.Timer RECORD_GRADE = OperationMetrics.timer("enrollment.recordGrade");
+    private static final OperationMetrics.Timer WITHDRAW = OperationMetrics.timer("enrollment.withdraw");
+    private static final OperationMetrics.Timer FIND_BY_ID = OperationMetrics.timer("enrollment.findById");
+    private static final OperationMetrics.Timer BY_STUDENT = OperationMetrics.timer("enrollment.byStudent");
+    private static final OperationMetrics.Timer GPA = OperationMetrics.timer("enrollment.calculateGPA");
+    private static final OperationMetrics.Timer STANDINGS = OperationMetrics.timer("enrollment.standings");
+    private static final OperationMetrics.Timer TRANSCRIPT = OperationMetrics.timer("enrollment.transcript");
 
-    public Enrollment enrollStudent(Student student, Course course, Semester semester) {
-        // Check if student is already enrolled
-        boolean alreadyEnrolled = enrollments.stream()
-                .anyMatch(e -> e.getStudent().equals(student) &&
-                        e.getCourse().equals(course) &&
-                        e.isActive());
+    private static final int LOCK_STRIPES = 64; // power of two
+
+    // Dean's list rule used by the standings run
+    public static final double DEANS_LIST_MIN_GPA = 3.5;
+    public static final int DEANS_LIST_MIN_CREDITS = 12;
+
+    /**
+     * How enrollments are held in memory.
+     */
+    public enum Storage {
+        /** One Enrollment object per enrollment, indexed by hash maps. */
+        OBJECTS,
+        /** Paged primitive columns: about 19 bytes per enrollment including all lookups; callers get flyweight views. */
+        COMPACT
+    }
 
-        if (alreadyEnrolled) {
-            throw new IllegalArgumentException("Student already enrolled in this course");
+    private final EnrollmentStore index;
+    private final Storage storage;
+    private volatile ClosedTermArchive archive; // null until enabled
+    private final ReentrantLock[] studentLocks = new ReentrantLock[LOCK_STRIPES];
+    private final Map<Student, GpaTotals> gpaTotals = new ConcurrentHashMap<>();
+    private final List<RegistryListener> listeners = new CopyOnWriteArrayList<>();
+    private final TranscriptEngine transcripts = new TranscriptEngine(this);
+
+    // When true, every calculateGPA call cross-checks the running totals against a full recompute
+    private volatile boolean gpaVerification = false;
+
+    public EnrollmentService(StudentService students) {
+        this(students, Storage.OBJECTS);
+    }
+
+    /**
+     * @param students the service student edits go through; cached transcripts are dropped on
+     *                 its update and deactivation events
+     */
+    public EnrollmentService(StudentService students, Storage storage) {
+        this.storage = storage;
+        this.index = storage == Storage.COMPACT ? new CompactEnrollmentStore() : new EnrollmentIndex();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            studentLocks[i] = new ReentrantLock();
         }
+        listeners.add(transcripts);
+        students.addListener(transcripts);
+    }
 
-        Enrollment enrollment = new Enrollment(student, course, semester);
-        enrollments.add(enrollment);
-        return enrollment;
+    /**
+     * Listener events are called while the student's lock is held, so per-student events arrive in order;
+     * onMutationComplete runs after the lock is released.
+     */
+    public void addListener(RegistryListener listener) {
+        listeners.add(listener);
+    }
+
+    ReentrantLock lockFor(Student student) {
+        int h = student.hashCode();
+        return studentLocks[(h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    public Enrollment enrollStudent(Student student, Course course, Semester semester) {
+        long start = ENROLL.start();
+        RegistryEvents.Enroll event = new RegistryEvents.Enroll();
+        event.begin();
+        Enrollment enrollment = null;
+        String failure = null;
+        try {
+            ReentrantLock lock = lockFor(student);
+            lock.lock();
+            try {
+                // Check if student is already enrolled
+                if (index.isActivelyEnrolled(student, course)
+                        || (archive != null && archive.isActivelyEnrolled(student, course))) {
+                    throw new IllegalArgumentException("Student already enrolled in this course");
+                }
+
+                // Constructor checks credits and atomically reserves the seat
+                Enrollment created = new Enrollment(student, course, semester);
+                Enrollment added;
+                try {
+                    added = index.add(created);
+                } catch (RuntimeException e) {
+                    created.withdraw(); // give back the seat and credits, e.g. on a duplicate ID
+                    throw e;
+                }
+                listeners.forEach(l -> l.onEnrollmentAdded(added));
+                enrollment = added;
+            } finally {
+                lock.unlock();
+            }
+            listeners.forEach(RegistryListener::onMutationComplete);
+            return enrollment;
+        } catch (RuntimeException e) {
+            failure = e.getMessage();
+            throw e;
+        } finally {
+            ENROLL.stop(start);
+            if (event.shouldCommit()) {
+                event.studentId = student.getId();
+                event.courseCode = course.getCode();
+                event.semester = semester != null ? semester.name() : null;
+                event.enrollmentId = enrollment != null ? enrollment.getEnrollmentId() : null;
+                event.failure = failure;
+                event.commit();
+            }
+        }
     }
 
     public void recordGrade(String enrollmentId, Grade grade) {
-        Enrollment enrollment = findEnrollmentById(enrollmentId);
-        if (enrollment != null) {
-            enrollment.recordGrade(grade);
-        } else {
-            throw new IllegalArgumentException("Enrollment not found: " + enrollmentId);
+        long start = RECORD_GRADE.start();
+        RegistryEvents.RecordGrade event = new RegistryEvents.RecordGrade();
+        event.begin();
+        Enrollment enrollment = null;
+        String failure = null;
+        try {
+            enrollment = findEnrollmentById(enrollmentId);
+            if (enrollment == null) {
+                throw new IllegalArgumentException("Enrollment not found: " + enrollmentId);
+            }
+            Enrollment graded = enrollment;
+            if (archive != null && archive.contains(graded)) {
+                throw new IllegalStateException("Enrollment " + enrollmentId + " belongs to a closed term and is archived");
+            }
+
+            ReentrantLock lock = lockFor(graded.getStudent());
+            lock.lock();
+            try {
+                boolean counted = GpaTotals.counts(graded);
+                Grade previous = graded.getGrade();
+                graded.recordGrade(grade);
+
+                GpaTotals totals = totalsFor(graded.getStudent());
+                int credits = graded.getCourse().getCredits();
+                if (counted) {
+                    totals.remove(previous, credits);
+                }
+                if (GpaTotals.counts(graded)) {
+                    totals.add(grade, credits);
+                }
+                listeners.forEach(l -> l.onGradeRecorded(graded));
+            } finally {
+                lock.unlock();
+            }
+            listeners.forEach(RegistryListener::onMutationComplete);
+        } catch (RuntimeException e) {
+            failure = e.getMessage();
+            throw e;
+        } finally {
+            RECORD_GRADE.stop(start);
+            if (event.shouldCommit()) {
+                event.enrollmentId = enrollmentId;
+                event.studentId = enrollment != null ? enrollment.getStudent().getId() : null;
+                event.grade = grade != null ? grade.name() : null;
+                event.failure = failure;
+                event.commit();
+            }
         }
     }
 
     public void withdrawStudent(String enrollmentId) {
-        Enrollment enrollment = findEnrollmentById(enrollmentId);
-        if (enrollment != null) {
-            enrollment.withdraw();
-        } else {
-            throw new IllegalArgumentException("Enrollment not found: " + enrollmentId);
+        long start = WITHDRAW.start();
+        RegistryEvents.Withdraw event = new RegistryEvents.Withdraw();
+        event.begin();
+        Enrollment enrollment = null;
+        String failure = null;
+        try {
+            enrollment = findEnrollmentById(enrollmentId);
+            if (enrollment == null) {
+                throw new IllegalArgumentException("Enrollment not found: " + enrollmentId);
+            }
+            Enrollment withdrawn = enrollment;
+            if (archive != null && archive.contains(withdrawn)) {
+                throw new IllegalStateException("Enrollment " + enrollmentId + " belongs to a closed term and is archived");
+            }
+
+            ReentrantLock lock = lockFor(withdrawn.getStudent());
+            lock.lock();
+            try {
+                // Guard against releasing the same seat twice
+                if (!withdrawn.isActive()) {
+                    throw new IllegalArgumentException("Enrollment already withdrawn: " + enrollmentId);
+                }
+                boolean counted = GpaTotals.counts(withdrawn);
+                withdrawn.withdraw();
+                index.markWithdrawn(withdrawn);
+                if (counted) {
+                    totalsFor(withdrawn.getStudent()).remove(withdrawn.getGrade(), withdrawn.getCourse().getCredits());
+                }
+                listeners.forEach(l -> l.onWithdrawn(withdrawn));
+            } finally {
+                lock.unlock();
+            }
+            listeners.forEach(RegistryListener::onMutationComplete);
+        } catch (RuntimeException e) {
+            failure = e.getMessage();
+            throw e;
+        } finally {
+            WITHDRAW.stop(start);
+            if (event.shouldCommit()) {
+                event.enrollmentId = enrollmentId;
+                event.studentId = enrollment != null ? enrollment.getStudent().getId() : null;
+                event.courseCode = enrollment != null ? enrollment.getCourse().getCode() : null;
+                event.failure = failure;
+                event.commit();
+            }
         }
     }
 
     public Enrollment findEnrollmentById(String enrollmentId) {
-        return enrollments.stream()
-                .filter(e -> e.getEnrollmentId().equals(enrollmentId))
-                .findFirst()
-                .orElse(null);
+        long start = FIND_BY_ID.start();
+        try {
+            Enrollment enrollment = index.findById(enrollmentId);
+            if (enrollment == null && archive != null) {
+                enrollment = archive.findById(enrollmentId);
+            }
+            return enrollment;
+        } finally {
+            FIND_BY_ID.stop(start);
+        }
     }
 
     public List<Enrollment> getEnrollmentsByStudent(Student student) {
-        return enrollments.stream()
-                .filter(e -> e.getStudent().equals(student))
-                .collect(Collectors.toList());
+        long start = BY_STUDENT.start();
+        try {
+            return withArchived(index.byStudent(student), a -> a.byStudent(student));
+        } finally {
+            BY_STUDENT.stop(start);
+        }
     }
 
     public List<Enrollment> getEnrollmentsByCourse(Course course) {
-        return enrollments.stream()
-                .filter(e -> e.getCourse().equals(course))
-                .collect(Collectors.toList());
+        return withArchived(index.byCourse(course), a -> a.select(e -> e.getCourse().equals(course)));
+    }
+
+    public List<Enrollment> getEnrollmentsBySemester(Semester semester) {
+        return withArchived(index.bySemester(semester), a -> a.select(e -> e.getSemester() == semester));
     }
 
     public List<Enrollment> getActiveEnrollments() {
-        return enrollments.stream()
-                .filter(Enrollment::isActive)
-                .collect(Collectors.toList());
+        return withArchived(index.active(), a -> a.select(Enrollment::isActive));
+    }
+
+    /**
+     * Visit a student's enrollments, archived ones first. Archived enrollments are passed as a
+     * reused cursor, so the action must not keep references to them.
+     */
+    void forEachByStudent(Student student, Consumer<? super Enrollment> action) {
+        ClosedTermArchive current = archive;
+        if (current != null) {
+            current.forEachByStudent(student, action);
+        }
+        index.byStudent(student).forEach(action);
+    }
+
+    // Archived (older) enrollments first, then live ones
+    private List<Enrollment> withArchived(List<Enrollment> live, Function<ClosedTermArchive, List<Enrollment>> archived) {
+        ClosedTermArchive current = archive;
+        if (current == null) {
+            return live;
+        }
+        List<Enrollment> result = archived.apply(current);
+        result.addAll(live);
+        return result;
+    }
+
+    // ========== CLOSED-TERM ARCHIVE ==========
+
+    /**
+     * Enable moving closed-term enrollments off-heap; segment files are mapped from {@code directory}.
+     * Only object storage supports this: the compact store is already the low-overhead option.
+     */
+    public void enableClosedTermArchive(Path directory) throws IOException {
+        if (storage != Storage.OBJECTS) {
+            throw new IllegalStateException("Closed-term archive requires object storage");
+        }
+        if (archive == null) {
+            archive = new ClosedTermArchive(directory);
+        }
+    }
+
+    /**
+     * Move every finished enrollment (completed or withdrawn) dated before {@code termStart} into
+     * the off-heap archive. Archived enrollments are read-only: they still count towards GPA,
+     * transcripts and exports and still block re-enrolling in a completed course, but can no
+     * longer be withdrawn or regraded. Must be called while no other thread is mutating enrollments.
+     * @return number of enrollments moved
+     */
+    public int archiveClosedTerms(LocalDate termStart) throws IOException {
+        ClosedTermArchive current = archive;
+        if (current == null) {
+            throw new IllegalStateException("Closed-term archive is not enabled");
+        }
+        Predicate<Enrollment> closed = e -> e.getEnrollmentDate().isBefore(termStart)
+                && (e.isCompleted() || !e.isActive());
+        List<Enrollment> finished = new ArrayList<>();
+        index.forEach(e -> {
+            if (closed.test(e)) {
+                finished.add(e);
+            }
+        });
+        current.archive(finished); // written before removal, so a failed write loses nothing
+        index.removeIf(closed);
+        transcripts.invalidateAll(); // archived rows are listed first, so line order changes
+        return finished.size();
+    }
+
+    public int getArchivedEnrollmentCount() {
+        ClosedTermArchive current = archive;
+        return current != null ? current.size() : 0;
+    }
+
+    private GpaTotals totalsFor(Student student) {
+        return gpaTotals.computeIfAbsent(student, k -> new GpaTotals());
+    }
+
+    public boolean isGpaVerification() {
+        return gpaVerification;
+    }
+
+    public void setGpaVerification(boolean gpaVerification) {
+        this.gpaVerification = gpaVerification;
     }
 
     /**
-     * Calculate GPA for a student - THIS METHOD WAS MISSING
+     * Calculate GPA for a student in O(1) from the running totals.
      */
     public double calculateGPA(Student student) {
+        long start = GPA.start();
+        ReentrantLock lock = lockFor(student);
+        lock.lock();
+        try {
+            GpaTotals totals = gpaTotals.get(student);
+            double gpa = totals != null ? totals.gpa() : 0.0;
+
+            if (gpaVerification) {
+                double expected = recalculateGPA(student);
+                if (Math.abs(expected - gpa) > 1e-9) {
+                    throw new IllegalStateException("GPA totals out of sync for " + student.getId() +
+                            ": incremental=" + gpa + ", recomputed=" + expected);
+                }
+            }
+            return gpa;
+        } finally {
+            lock.unlock();
+            GPA.stop(start);
+        }
+    }
+
+    /**
+     * Full recompute of a student's GPA from their enrollments (used for verification).
+     */
+    public double recalculateGPA(Student student) {
         List<Enrollment> studentEnrollments = getEnrollmentsByStudent(student);
 
         // Filter only completed enrollments with grades
@@ -101,52 +428,202 @@ public class EnrollmentService {
         return totalCredits > 0 ? totalQualityPoints / totalCredits : 0.0;
     }
 
+    // ========== BULK STANDINGS ==========
+
+    /**
+     * Cumulative GPA, dean's list and class rank for every student with graded work.
+     */
+    public List<StudentStanding> computeStandings() {
+        long start = STANDINGS.start();
+        try {
+            return computeStandings(getAllEnrollments());
+        } finally {
+            STANDINGS.stop(start);
+        }
+    }
+
+    /**
+     * Term GPA, dean's list and class rank using only the given semester's enrollments.
+     */
+    public List<StudentStanding> computeStandings(Semester semester) {
+        long start = STANDINGS.start();
+        try {
+            return computeStandings(getEnrollmentsBySemester(semester));
+        } finally {
+            STANDINGS.stop(start);
+        }
+    }
+
     /**
-     * Generate transcript for a student
+     * Groups enrollments by student in one parallel pass, then ranks each department in
+     * parallel. Ties share a rank; percentile = (below + half of ties) / department size.
+     * Results are ordered by department, then rank.
+     */
+    private List<StudentStanding> computeStandings(List<Enrollment> source) {
+        Map<Student, GpaTotals> totalsByStudent = source.parallelStream()
+                .filter(GpaTotals::counts)
+                .collect(Collectors.groupingByConcurrent(Enrollment::getStudent,
+                        Collector.of(GpaTotals::new,
+                                (totals, e) -> totals.add(e.getGrade(), e.getCourse().getCredits()),
+                                GpaTotals::merge)));
+
+        Map<Optional<Department>, List<Map.Entry<Student, GpaTotals>>> byDepartment = totalsByStudent.entrySet().parallelStream()
+                .filter(entry -> entry.getValue().getGradedCredits() > 0)
+                .collect(Collectors.groupingBy(entry -> Optional.ofNullable(resolveDepartment(entry.getKey()))));
+
+        return byDepartment.entrySet().parallelStream()
+                .flatMap(group -> rankDepartment(group.getKey().orElse(null), group.getValue()).stream())
+                .sorted(Comparator.comparing((StudentStanding st) -> st.getDepartment() != null ? st.getDepartment().ordinal() : Integer.MAX_VALUE)
+                        .thenComparingInt(StudentStanding::getRank))
+                .collect(Collectors.toList());
+    }
+
+    private static List<StudentStanding> rankDepartment(Department department, List<Map.Entry<Student, GpaTotals>> members) {
+        members.sort(Comparator.comparingDouble((Map.Entry<Student, GpaTotals> e) -> e.getValue().gpa()).reversed());
+
+        int size = members.size();
+        List<StudentStanding> standings = new ArrayList<>(size);
+        int start = 0;
+        while (start < size) {
+            // Find the run of students tied at this GPA
+            double gpa = members.get(start).getValue().gpa();
+            int end = start + 1;
+            while (end < size && members.get(end).getValue().gpa() == gpa) {
+                end++;
+            }
+            int ties = end - start;
+            int below = size - end;
+            double percentile = 100.0 * (below + 0.5 * ties) / size;
+
+            for (int i = start; i < end; i++) {
+                Student student = members.get(i).getKey();
+                GpaTotals totals = members.get(i).getValue();
+                boolean deansList = gpa >= DEANS_LIST_MIN_GPA && totals.getGradedCredits() >= DEANS_LIST_MIN_CREDITS;
+                standings.add(new StudentStanding(student, department, gpa, totals.getGradedCredits(),
+                        start + 1, size, percentile, deansList));
+            }
+            start = end;
+        }
+        return standings;
+    }
+
+    private static Department resolveDepartment(Student student) {
+        return student.getKnownDepartment();
+    }
+
+    /**
+     * Generate transcript for a student (cached until their enrollments or grades change)
      */
     public String generateTranscript(Student student) {
-        StringBuilder transcript = new StringBuilder();
-
-        // Use the student's method
-        transcript.append(student.getTranscriptHeader()).append("\n\n");
-
-        transcript.append("COURSE WORK:\n");
-        transcript.append("-".repeat(50)).append("\n");
-        transcript.append(String.format("%-10s %-30s %-5s %-10s %-8s\n",
-                "Code", "Title", "Credits", "Grade", "Points"));
-        transcript.append("-".repeat(50)).append("\n");
-
-        // Add each enrollment to the transcript
-        getEnrollmentsByStudent(student).forEach(enrollment -> {
-            String gradeDisplay = enrollment.getGrade() != null ?
-                    enrollment.getGrade().name() : "In Progress";
-            String pointsDisplay = enrollment.getGrade() != null ?
-                    String.format("%.1f", enrollment.getGrade().getGradePoints()) : "-";
-
-            transcript.append(String.format("%-10s %-30s %-5s %-10s %-8s\n",
-                    enrollment.getCourse().getCode(),
-                    enrollment.getCourse().getTitle(),
-                    enrollment.getCourse().getCredits() + "cr",
-                    gradeDisplay,
-                    pointsDisplay
-            ));
-        });
+        long start = TRANSCRIPT.start();
+        RegistryEvents.Transcript event = new RegistryEvents.Transcript();
+        event.begin();
+        String transcript = null;
+        try {
+            transcript = transcripts.transcript(student);
+            return transcript;
+        } finally {
+            TRANSCRIPT.stop(start);
+            if (event.shouldCommit()) {
+                event.studentId = student.getId();
+                event.length = transcript != null ? transcript.length() : 0;
+                event.commit();
+            }
+        }
+    }
 
-        // Calculate and display GPA
-        double gpa = calculateGPA(student);
-        transcript.append("\n").append("-".repeat(50)).append("\n");
-        transcript.append(String.format("CUMULATIVE GPA: %.2f", gpa));
+    public TranscriptEngine getTranscriptEngine() {
+        return transcripts;
+    }
 
-        return transcript.toString();
+    public void addEnrollment(Enrollment added) {
+        long start = ADD.start();
+        try {
+            if (added != null) {
+                ReentrantLock lock = lockFor(added.getStudent());
+                lock.lock();
+                try {
+                    Enrollment enrollment = index.add(added);
+                    if (GpaTotals.counts(enrollment)) {
+                        totalsFor(enrollment.getStudent()).add(enrollment.getGrade(), enrollment.getCourse().getCredits());
+                    }
+                    listeners.forEach(l -> l.onEnrollmentAdded(enrollment));
+                } finally {
+                    lock.unlock();
+                }
+                listeners.forEach(RegistryListener::onMutationComplete);
+            }
+        } finally {
+            ADD.stop(start);
+        }
     }
 
-    public void addEnrollment(Enrollment enrollment) {
-        if (enrollment != null) {
-            enrollments.add(enrollment);
+    /**
+     * Bulk counterpart of {@link #addEnrollment} for loaders. The whole batch is stored under one
+     * lock acquisition. Active enrollments are re-attached to their students and courses, and GPA
+     * totals (completed enrollments, active or not) are looked up once per student rather than
+     * once per row. There are no per-record metrics or listener events, so this is only for
+     * startup, before listeners such as the journal are attached and while no other thread uses
+     * the service.
+     */
+    public void restoreEnrollments(EnrollmentBatch batch) {
+        long start = RESTORE.start();
+        try {
+            index.addAll(batch);
+            EnrollmentBatch.Chain chain = batch.chain();
+            if (chain.totals == null) {
+                chain.totals = new GpaTotals[chain.students.length];
+            }
+            GpaTotals[] totals = chain.totals;
+            for (int i = 0; i < batch.size(); i++) {
+                Student student = batch.student(i);
+                Course course = batch.course(i);
+                boolean completed = batch.isCompleted(i);
+                if (batch.isActive(i)) {
+                    Enrollment.reattach(student, course, batch.semester(i), completed);
+                }
+                // Same rule as GpaTotals.counts: a withdrawn enrollment graded afterwards counts too
+                if (completed) {
+                    int ref = batch.studentRefs[i];
+                    if (totals[ref] == null) {
+                        totals[ref] = totalsFor(student);
+                    }
+                    totals[ref].add(batch.grade(i), course.getCredits());
+                }
+            }
+            transcripts.invalidateAll();
+        } finally {
+            RESTORE.stop(start);
         }
     }
 
+    /**
+     * Live plus archived enrollments.
+     */
+    public int getEnrollmentCount() {
+        ClosedTermArchive current = archive;
+        return index.size() + (current != null ? current.size() : 0);
+    }
+
     public List<Enrollment> getAllEnrollments() {
-        return new ArrayList<>(enrollments);
+        ClosedTermArchive current = archive;
+        if (current == null) {
+            return index.all();
+        }
+        List<Enrollment> all = new ArrayList<>(current.size() + index.size());
+        current.forEach(all::add);
+        all.addAll(index.all());
+        return all;
+    }
+
+    /**
+     * Visit every enrollment without copying the list (used by streaming export).
+     */
+    public void forEachEnrollment(Consumer<? super Enrollment> action) {
+        ClosedTermArchive current = archive;
+        if (current != null) {
+            current.forEach(action);
+        }
+        index.forEach(action);
     }
 }
\ No newline at end of file
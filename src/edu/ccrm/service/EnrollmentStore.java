@@ -0,0 +1,57 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Storage and lookup of enrollments behind {@link EnrollmentService}.
+ * Implementations are thread-safe; list results are fresh copies the caller may keep.
+ */
+interface EnrollmentStore {
+
+    /**
+     * Store a new enrollment.
+     * @return the instance callers should use from now on (the argument itself, or a view of the stored row)
+     */
+    Enrollment add(Enrollment enrollment);
+
+    /**
+     * Store every enrollment of a restored batch under one lock acquisition. Only the storage
+     * side: the caller re-attaches active enrollments to their students and courses.
+     */
+    void addAll(EnrollmentBatch batch);
+
+    /**
+     * Must be called after an enrollment is withdrawn so the active keys stay in sync.
+     */
+    void markWithdrawn(Enrollment enrollment);
+
+    Enrollment findById(String enrollmentId);
+
+    boolean isActivelyEnrolled(Student student, Course course);
+
+    List<Enrollment> byStudent(Student student);
+
+    List<Enrollment> byCourse(Course course);
+
+    List<Enrollment> bySemester(Semester semester);
+
+    List<Enrollment> active();
+
+    List<Enrollment> all();
+
+    void forEach(Consumer<? super Enrollment> action);
+
+    int size();
+
+    /**
+     * Remove and return every enrollment matching the filter (used to move closed terms off-heap).
+     */
+    List<Enrollment> removeIf(Predicate<? super Enrollment> filter);
+}
@@ -0,0 +1,51 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+
+/**
+ * Running GPA aggregates for one student.
+ * Quality points are kept in tenths of a point so repeated add/remove never drifts.
+ * Not synchronized: callers hold the student's lock.
+ */
+class GpaTotals {
+    private long qualityTenths;
+    private int gradedCredits;
+
+    // Same rule calculateGPA has always used: completed enrollments with a grade
+    static boolean counts(Enrollment enrollment) {
+        return enrollment.isCompleted() && enrollment.hasGrade();
+    }
+
+    void add(Grade grade, int credits) {
+        qualityTenths += tenths(grade) * credits;
+        gradedCredits += credits;
+    }
+
+    void remove(Grade grade, int credits) {
+        qualityTenths -= tenths(grade) * credits;
+        gradedCredits -= credits;
+    }
+
+    GpaTotals merge(GpaTotals other) {
+        qualityTenths += other.qualityTenths;
+        gradedCredits += other.gradedCredits;
+        return this;
+    }
+
+    double getQualityPoints() {
+        return qualityTenths / 10.0;
+    }
+
+    int getGradedCredits() {
+        return gradedCredits;
+    }
+
+    double gpa() {
+        return gradedCredits > 0 ? qualityTenths / (10.0 * gradedCredits) : 0.0;
+    }
+
+    private static long tenths(Grade grade) {
+        return Math.round(grade.getGradePoints() * 10);
+    }
+}
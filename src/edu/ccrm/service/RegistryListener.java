@@ -0,0 +1,37 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+
+/**
+ * Observer notified after each successful mutation of the registry services.
+ * Callbacks run on the mutating thread, in mutation order, so they must be quick.
+ * All methods default to no-ops; implement only what you need.
+ */
+public interface RegistryListener {
+
+    default void onStudentAdded(Student student) { }
+
+    default void onStudentUpdated(Student student) { }
+
+    default void onStudentDeactivated(Student student) { }
+
+    default void onCourseAdded(Course course) { }
+
+    /**
+     * Fired for new enrollments and for existing ones loaded through addEnrollment.
+     */
+    default void onEnrollmentAdded(Enrollment enrollment) { }
+
+    default void onGradeRecorded(Enrollment enrollment) { }
+
+    default void onWithdrawn(Enrollment enrollment) { }
+
+    /**
+     * Fired once per successful mutating call, after its events and with no service lock held,
+     * just before the call returns. Unlike the events, this may block (the journal waits here
+     * for the change to be durable).
+     */
+    default void onMutationComplete() { }
+}
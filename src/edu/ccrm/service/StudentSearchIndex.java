@@ -0,0 +1,500 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Typo-tolerant search over student names and email addresses.
+ *
+ * Two levels: each distinct word (letter runs of names and email local parts) is a vocabulary
+ * entry with a posting list of the students that use it, and each vocabulary word is cut into
+ * padded bigrams ("$smith$" -> "$s", "sm", ...) that point back to the words. A query word is
+ * first expanded against the vocabulary (exact, prefix, or within one or two edits, Damerau-style,
+ * found via shared bigrams), which stays small even for a large roster. The students for every
+ * query word are then intersected, scored, and the top K returned.
+ *
+ * Digit runs ("smith42@...") are nearly all unique, so they are not vocabulary words: students are
+ * listed under the first one to three digits of each run, and a number in a query narrows the
+ * intersection by its leading digits before the full number is checked on the survivors. A query
+ * of digits alone ("42") is answered from those lists.
+ *
+ * Updated students are re-added under a new number and the old number is marked dead; the
+ * student lists are rebuilt once dead entries outnumber live ones. Methods are synchronized
+ * because searches reuse scratch arrays sized to the roster.
+ */
+public class StudentSearchIndex {
+    public static final int DEFAULT_LIMIT = 10;
+
+    private static final char PAD = '$';
+    private static final int NUMBER_PREFIX = 3;
+
+    // Students, by number; words per student feed the "how much of the name was matched" tie-break
+    private final List<Student> docs = new ArrayList<>();
+    private int[] docWordCount = new int[1024];
+    private final Map<String, Integer> docById = new HashMap<>();
+    private final BitSet dead = new BitSet();
+    private int deadCount;
+
+    // Vocabulary: word -> id -> students using it; bigram -> word ids
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final List<Postings> wordDocs = new ArrayList<>();
+    private final Map<Long, Postings> gramWords = new HashMap<>();
+    private final Map<String, Postings> numberPrefixes = new HashMap<>();
+
+    // Scratch state for search
+    private float[] docScore = new float[0];
+    private int[] gramHits = new int[0];
+
+    synchronized void add(Student student) {
+        Integer previous = docById.get(student.getId());
+        if (previous != null) {
+            dead.set(previous);
+            deadCount++;
+        }
+        index(student);
+        if (deadCount > docs.size() - deadCount) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Re-index a student whose name or email changed.
+     */
+    synchronized void update(Student student) {
+        add(student);
+    }
+
+    public synchronized int size() {
+        return docs.size() - deadCount;
+    }
+
+    private void index(Student student) {
+        int doc = docs.size();
+        docs.add(student);
+        docById.put(student.getId(), doc);
+        List<String> studentWords = new ArrayList<>();
+        List<String> numbers = new ArrayList<>();
+        splitStudent(student, studentWords, numbers);
+        if (doc == docWordCount.length) {
+            docWordCount = Arrays.copyOf(docWordCount, doc * 2);
+        }
+        docWordCount[doc] = studentWords.size();
+        for (String word : studentWords) {
+            wordDocs.get(wordId(word)).addOnce(doc);
+        }
+        for (String number : numbers) {
+            for (int length = 1; length <= Math.min(NUMBER_PREFIX, number.length()); length++) {
+                numberPrefixes.computeIfAbsent(number.substring(0, length), k -> new Postings()).addOnce(doc);
+            }
+        }
+    }
+
+    private int wordId(String word) {
+        Integer id = wordIds.get(word);
+        if (id != null) {
+            return id;
+        }
+        int created = words.size();
+        wordIds.put(word, created);
+        words.add(word);
+        wordDocs.add(new Postings());
+        String padded = PAD + word + PAD;
+        for (int i = 0; i + 2 <= padded.length(); i++) {
+            gramWords.computeIfAbsent(gramKey(padded, i), k -> new Postings()).addOnce(created);
+        }
+        return created;
+    }
+
+    // ========== SEARCH ==========
+
+    /**
+     * Best matches for {@code text} (words of a name and/or an email address), best first.
+     * Every query word must match some word of the student; words of one character are ignored.
+     */
+    public synchronized List<Match> search(String text, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        // Only the local part of an email is indexed; an exact address is confirmed at scoring time
+        String normalized = normalize(text);
+        int at = normalized.indexOf('@');
+        String exactEmail = at > 0 ? normalized : null;
+        List<String> queryWords = new ArrayList<>();
+        List<String> queryNumbers = new ArrayList<>();
+        splitWords(at > 0 ? normalized.substring(0, at) : normalized, queryWords, queryNumbers);
+        queryWords.removeIf(word -> word.length() < 2);
+        if (queryWords.isEmpty() && queryNumbers.isEmpty()) {
+            return List.of();
+        }
+
+        // Per query word: the sorted students having a matching word, with the best word score
+        List<ScoredDocs> perWord = new ArrayList<>(queryWords.size());
+        for (String query : queryWords) {
+            ScoredDocs matched = matchWord(query);
+            if (matched.size == 0) {
+                return List.of();
+            }
+            perWord.add(matched);
+        }
+        for (String number : queryNumbers) {
+            // Leading digits only narrow the set; the number itself is scored below
+            Postings prefixed = numberPrefixes.get(number.substring(0, Math.min(NUMBER_PREFIX, number.length())));
+            if (prefixed == null) {
+                return List.of();
+            }
+            perWord.add(new ScoredDocs(prefixed.docs, new float[prefixed.size], prefixed.size));
+        }
+        perWord.sort(Comparator.comparingInt(s -> s.size));
+
+        PriorityQueue<Match> top = new PriorityQueue<>(RANKING);
+        ScoredDocs rarest = perWord.get(0);
+        int[] cursors = new int[perWord.size()];
+        outer:
+        for (int i = 0; i < rarest.size; i++) {
+            int doc = rarest.docs[i];
+            if (dead.get(doc)) {
+                continue;
+            }
+            float total = rarest.scores[i];
+            for (int w = 1; w < perWord.size(); w++) {
+                ScoredDocs other = perWord.get(w);
+                int found = seek(other.docs, other.size, doc, cursors[w]);
+                cursors[w] = found;
+                if (found >= other.size) {
+                    break outer;
+                }
+                if (other.docs[found] != doc) {
+                    continue outer;
+                }
+                total += other.scores[found];
+            }
+            Student student = null;
+            if (!queryNumbers.isEmpty() || exactEmail != null) {
+                student = docs.get(doc);
+                String email = student.getEmail();
+                if (exactEmail != null && exactEmail.equalsIgnoreCase(email)) {
+                    addRanked(top, new Match(student, 2.0), limit);
+                    continue;
+                }
+                for (String number : queryNumbers) {
+                    double best = numberScore(email, number);
+                    if (best == 0) {
+                        continue outer;
+                    }
+                    total += best;
+                }
+            }
+            // Mean word score, scaled down a little when the student has words the query did not mention
+            int queried = queryWords.size() + queryNumbers.size();
+            int studentWords = Math.max(docWordCount[doc], Math.max(1, queryWords.size()));
+            double score = total / queried * (0.9 + 0.1 * queryWords.size() / studentWords);
+            if (top.size() < limit || score > top.peek().score()) {
+                addRanked(top, new Match(student != null ? student : docs.get(doc), score), limit);
+            }
+        }
+
+        Match[] ranked = top.toArray(new Match[0]);
+        Arrays.sort(ranked, RANKING.reversed());
+        return List.of(ranked);
+    }
+
+    private static void addRanked(PriorityQueue<Match> top, Match match, int limit) {
+        top.add(match);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    private static final Comparator<Match> RANKING = Comparator.comparingDouble(Match::score)
+            .thenComparing(m -> m.student().getFullName(), Comparator.reverseOrder());
+
+    // Vocabulary words matching the query word, then the union of their students
+    private ScoredDocs matchWord(String query) {
+        if (gramHits.length < words.size()) {
+            gramHits = new int[words.size() + (words.size() >> 2)];
+        }
+        int allowed = allowedEdits(query);
+
+        // Words sharing enough bigrams with the query (one edit changes at most three); the
+        // trailing "x$" gram is left out so words the query only begins still qualify
+        String padded = PAD + query;
+        int queryGrams = padded.length() - 1;
+        int needed = Math.max(1, queryGrams - 3 * allowed);
+        Postings touched = new Postings();
+        for (int i = 0; i < queryGrams; i++) {
+            Postings postings = gramWords.get(gramKey(padded, i));
+            if (postings == null) {
+                continue;
+            }
+            for (int p = 0; p < postings.size; p++) {
+                int word = postings.docs[p];
+                if (gramHits[word]++ == 0) {
+                    touched.add(word);
+                }
+            }
+        }
+        Postings wordMatches = new Postings();
+        float[] wordScores = new float[touched.size];
+        for (int t = 0; t < touched.size; t++) {
+            int word = touched.docs[t];
+            if (gramHits[word] >= needed) {
+                double score = wordScore(query, words.get(word));
+                if (score > 0) {
+                    wordScores[wordMatches.size] = (float) score;
+                    wordMatches.add(word);
+                }
+            }
+            gramHits[word] = 0;
+        }
+
+        if (wordMatches.size == 1) {
+            // Common case: one word, whose list is already sorted
+            Postings only = wordDocs.get(wordMatches.docs[0]);
+            float[] scores = new float[only.size];
+            Arrays.fill(scores, wordScores[0]);
+            return new ScoredDocs(only.docs, scores, only.size);
+        }
+
+        // Union: best score per student in a scratch array, then sort the students touched
+        if (docScore.length < docs.size()) {
+            docScore = new float[docs.size() + (docs.size() >> 2)];
+        }
+        int[] union = new int[16];
+        int count = 0;
+        for (int m = 0; m < wordMatches.size; m++) {
+            Postings postings = wordDocs.get(wordMatches.docs[m]);
+            float score = wordScores[m];
+            for (int p = 0; p < postings.size; p++) {
+                int doc = postings.docs[p];
+                if (docScore[doc] == 0) {
+                    if (count == union.length) {
+                        union = Arrays.copyOf(union, count * 2);
+                    }
+                    union[count++] = doc;
+                }
+                docScore[doc] = Math.max(docScore[doc], score);
+            }
+        }
+        if (count > docs.size() / 16) {
+            // Dense: a scan of the score array yields students in order, cheaper than sorting
+            int at = 0;
+            for (int doc = 0; doc < docs.size(); doc++) {
+                if (docScore[doc] != 0) {
+                    union[at++] = doc;
+                }
+            }
+        } else {
+            Arrays.sort(union, 0, count);
+        }
+        float[] scores = new float[count];
+        for (int i = 0; i < count; i++) {
+            scores[i] = docScore[union[i]];
+            docScore[union[i]] = 0;
+        }
+        return new ScoredDocs(union, scores, count);
+    }
+
+    // ========== SCORING ==========
+
+    // 1.0 if a digit run of the email's local part equals number, 0.9 if one starts with it, else 0
+    static double numberScore(String email, String number) {
+        int end = email.lastIndexOf('@');
+        if (end < 0) {
+            end = email.length();
+        }
+        double best = 0;
+        int i = 0;
+        while (i < end) {
+            if (!Character.isDigit(email.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < end && Character.isDigit(email.charAt(i))) {
+                i++;
+            }
+            if (email.startsWith(number, start) && start + number.length() <= i) {
+                if (i - start == number.length()) {
+                    return 1.0;
+                }
+                best = 0.9;
+            }
+        }
+        return best;
+    }
+
+    private static int allowedEdits(String query) {
+        return query.length() >= 8 ? 2 : query.length() >= 3 ? 1 : 0;
+    }
+
+    /**
+     * 1.0 exact, 0.9 prefix, 0.8/0.6 for one/two edits, 0.7/0.5 for edits against a prefix; else 0.
+     */
+    static double wordScore(String query, String word) {
+        if (word.equals(query)) {
+            return 1.0;
+        }
+        if (word.startsWith(query)) {
+            return 0.9;
+        }
+        int allowed = allowedEdits(query);
+        if (allowed == 0 || word.length() < query.length() - allowed) {
+            return 0;
+        }
+        int[] distances = editDistances(query, word, allowed);
+        if (distances[0] <= allowed) {
+            return 0.8 - 0.2 * (distances[0] - 1);
+        }
+        if (distances[1] <= allowed) {
+            return 0.7 - 0.2 * (distances[1] - 1); // typo in a partly typed word
+        }
+        return 0;
+    }
+
+    /**
+     * Optimal-string-alignment distance from query to the whole word, and to the closest prefix
+     * of the word; values above {@code max} are reported as max + 1.
+     */
+    static int[] editDistances(String query, String word, int max) {
+        int m = query.length();
+        int n = word.length();
+        int[] twoBack = new int[n + 1];
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char q = query.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                char w = word.charAt(j - 1);
+                int cost = q == w ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && q == word.charAt(j - 2) && query.charAt(i - 2) == w) {
+                    d = Math.min(d, twoBack[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) {
+                return new int[] {max + 1, max + 1};
+            }
+            int[] recycled = twoBack;
+            twoBack = previous;
+            previous = current;
+            current = recycled;
+        }
+        int prefix = max + 1;
+        for (int j = 0; j <= n; j++) {
+            prefix = Math.min(prefix, previous[j]);
+        }
+        return new int[] {Math.min(previous[n], max + 1), prefix};
+    }
+
+    /**
+     * A ranked result; score is 2.0 for an exact email match, otherwise in (0, 1].
+     */
+    public record Match(Student student, double score) {
+    }
+
+    // ========== INDEX STRUCTURES ==========
+
+    // Letter and digit runs of the name and email local part
+    private static void splitStudent(Student student, List<String> letters, List<String> digits) {
+        splitWords(normalize(student.getFullName()), letters, digits);
+        String email = normalize(student.getEmail());
+        int at = email.lastIndexOf('@');
+        splitWords(at >= 0 ? email.substring(0, at) : email, letters, digits);
+    }
+
+    // Splits lower-cased text into runs of letters and runs of digits; anything else separates
+    private static void splitWords(String text, List<String> letters, List<String> digits) {
+        int start = -1;
+        boolean digitRun = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            boolean letter = Character.isLetter(c);
+            boolean digit = Character.isDigit(c);
+            if (start >= 0 && (digitRun ? !digit : !letter)) {
+                (digitRun ? digits : letters).add(text.substring(start, i));
+                start = -1;
+            }
+            if (start < 0 && (letter || digit)) {
+                start = i;
+                digitRun = digit;
+            }
+        }
+    }
+
+    private static long gramKey(String text, int at) {
+        return ((long) text.charAt(at) << 16) | text.charAt(at + 1);
+    }
+
+    // Index of the first entry >= target at or after from (galloping, then binary search)
+    private static int seek(int[] sorted, int size, int target, int from) {
+        int bound = 1;
+        while (from + bound < size && sorted[from + bound] < target) {
+            bound <<= 1;
+        }
+        int low = from + (bound >> 1);
+        int high = Math.min(size, from + bound + 1);
+        int found = Arrays.binarySearch(sorted, low, high, target);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    // Drop dead entries by re-adding the live students in their current order (vocabulary is kept)
+    private void rebuild() {
+        List<Student> live = new ArrayList<>(docs.size() - deadCount);
+        for (int doc = 0; doc < docs.size(); doc++) {
+            if (!dead.get(doc)) {
+                live.add(docs.get(doc));
+            }
+        }
+        docs.clear();
+        docById.clear();
+        dead.clear();
+        deadCount = 0;
+        for (Postings postings : wordDocs) {
+            postings.size = 0;
+        }
+        numberPrefixes.clear();
+        live.forEach(this::index);
+    }
+
+    private static String normalize(String text) {
+        return CourseSearchIndex.normalize(text);
+    }
+
+    private record ScoredDocs(int[] docs, float[] scores, int size) {
+    }
+
+    // Ascending numbers; a word repeated in one student's name is listed once
+    private static final class Postings {
+        int[] docs = new int[2];
+        int size;
+
+        void addOnce(int doc) {
+            if (size == 0 || docs[size - 1] != doc) {
+                add(doc);
+            }
+        }
+
+        void add(int value) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = value;
+        }
+    }
+}
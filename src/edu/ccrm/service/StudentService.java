@@ -1,37 +1,215 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.Student;
+import edu.ccrm.util.OperationMetrics;
+
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+/**
+ * Student registry backed by hash indexes.
+ * Primary index: id -> Student (insertion ordered for listing).
+ * Secondary index: regNo -> Student.
+ * Name/email search: trigram index with typo-tolerant ranking (see StudentSearchIndex).
+ */
 public class StudentService {
-    private List<Student> students = new ArrayList<>();
+    private static final OperationMetrics.Timer ADD = OperationMetrics.timer("student.add");
+    private static final OperationMetrics.Timer UPDATE = OperationMetrics.timer("student.update");
+    private static final OperationMetrics.Timer DEACTIVATE = OperationMetrics.timer("student.deactivate");
+    private static final OperationMetrics.Timer LIST = OperationMetrics.timer("student.list");
+    private static final OperationMetrics.Timer FIND_BY_ID = OperationMetrics.timer("student.findById");
+    private static final OperationMetrics.Timer FIND_BY_REG = OperationMetrics.timer("student.findByReg");
+    private static final OperationMetrics.Timer SEARCH = OperationMetrics.timer("student.search");
+
+    private final Map<String, Student> studentsById = new LinkedHashMap<>();
+    private final Map<String, Student> studentsByReg = new HashMap<>();
+    private final StudentSearchIndex searchIndex = new StudentSearchIndex();
+    private final List<RegistryListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(RegistryListener listener) {
+        listeners.add(listener);
+    }
 
     public void addStudent(Student student) {
-        if (student != null) {
-            students.add(student);
+        long start = ADD.start();
+        try {
+            if (student != null) {
+                if (studentsById.containsKey(student.getId())) {
+                    throw new IllegalArgumentException("Student ID already exists: " + student.getId());
+                }
+                String regNo = student.getRegNo();
+                if (regNo != null && studentsByReg.containsKey(regNo)) {
+                    throw new IllegalArgumentException("Registration number already exists: " + regNo);
+                }
+
+                studentsById.put(student.getId(), student);
+                if (regNo != null) {
+                    studentsByReg.put(regNo, student);
+                }
+                searchIndex.add(student);
+                listeners.forEach(l -> l.onStudentAdded(student));
+                listeners.forEach(RegistryListener::onMutationComplete);
+            }
+        } finally {
+            ADD.stop(start);
+        }
+    }
+
+    /**
+     * Bulk counterpart of {@link #addStudent} for loaders: the same checks and indexing, without
+     * per-record metrics or listener events. Only for startup, before listeners such as the
+     * journal are attached.
+     */
+    public void restoreStudents(Student[] students) {
+        for (Student student : students) {
+            if (studentsById.putIfAbsent(student.getId(), student) != null) {
+                throw new IllegalArgumentException("Student ID already exists: " + student.getId());
+            }
+            String regNo = student.getRegNo();
+            if (regNo != null && studentsByReg.putIfAbsent(regNo, student) != null) {
+                studentsById.remove(student.getId());
+                throw new IllegalArgumentException("Registration number already exists: " + regNo);
+            }
+            searchIndex.add(student);
+        }
+    }
+
+    /**
+     * Copy the regNo, name, email and department of {@code changes} onto the stored student with
+     * the same ID, re-indexing its regNo. The stored instance stays in place, so its enrollments,
+     * credit ledger, limits and status are kept.
+     */
+    public void updateStudent(Student changes) {
+        long start = UPDATE.start();
+        try {
+            Student existing = studentsById.get(changes.getId());
+            if (existing == null) {
+                throw new IllegalArgumentException("Student not found: " + changes.getId());
+            }
+
+            String regNo = changes.getRegNo();
+            Student regOwner = regNo != null ? studentsByReg.get(regNo) : null;
+            if (regOwner != null && !regOwner.equals(existing)) {
+                throw new IllegalArgumentException("Registration number already exists: " + regNo);
+            }
+
+            if (existing.getRegNo() != null) {
+                studentsByReg.remove(existing.getRegNo());
+            }
+            existing.setRegNo(regNo);
+            existing.setFullName(changes.getFullName());
+            existing.setEmail(changes.getEmail());
+            existing.setDepartment(changes.getDepartment());
+            if (regNo != null) {
+                studentsByReg.put(regNo, existing);
+            }
+            searchIndex.update(existing);
+            listeners.forEach(l -> l.onStudentUpdated(existing));
+            listeners.forEach(RegistryListener::onMutationComplete);
+        } finally {
+            UPDATE.stop(start);
+        }
+    }
+
+    /**
+     * Deactivate a student. The record stays indexed so history remains reachable.
+     */
+    public void deactivateStudent(String id) {
+        long start = DEACTIVATE.start();
+        try {
+            Student student = studentsById.get(id);
+            if (student == null) {
+                throw new IllegalArgumentException("Student not found: " + id);
+            }
+            student.deactivate();
+            listeners.forEach(l -> l.onStudentDeactivated(student));
+            listeners.forEach(RegistryListener::onMutationComplete);
+        } finally {
+            DEACTIVATE.stop(start);
         }
     }
 
     public List<Student> getAllStudents() {
-        return new ArrayList<>(students);
+        long start = LIST.start();
+        try {
+            return new ArrayList<>(studentsById.values());
+        } finally {
+            LIST.stop(start);
+        }
     }
 
-    public Student findStudentById(String id) {
-        for (Student student : students) {
-            if (student.getId().equals(id)) {
-                return student;
+    /**
+     * Visit every student without copying the roster (used by streaming export).
+     */
+    public void forEachStudent(Consumer<? super Student> action) {
+        studentsById.values().forEach(action);
+    }
+
+    public List<Student> getActiveStudents() {
+        List<Student> active = new ArrayList<>();
+        for (Student student : studentsById.values()) {
+            if (student.isActive()) {
+                active.add(student);
             }
         }
-        return null;
+        return active;
+    }
+
+    public int getStudentCount() {
+        return studentsById.size();
+    }
+
+    public Student findStudentById(String id) {
+        long start = FIND_BY_ID.start();
+        try {
+            return studentsById.get(id);
+        } finally {
+            FIND_BY_ID.stop(start);
+        }
     }
 
     public Student findByReg(String regNo) {
-        for (Student student : students) {
-            if (student.getRegNo().equals(regNo)) {
-                return student;
+        long start = FIND_BY_REG.start();
+        try {
+            return studentsByReg.get(regNo);
+        } finally {
+            FIND_BY_REG.stop(start);
+        }
+    }
+
+    /**
+     * Students whose ID, registration number, name or email best match the text, tolerating
+     * small typos in names and emails; best first.
+     * Name/email changes must go through updateStudent to be searchable.
+     */
+    public List<StudentSearchIndex.Match> searchStudents(String text, int limit) {
+        long start = SEARCH.start();
+        try {
+            List<StudentSearchIndex.Match> matches = searchIndex.search(text, limit);
+            // An exact ID or registration number wins outright
+            String key = text.trim();
+            Student exact = studentsById.get(key);
+            if (exact == null) {
+                exact = studentsByReg.get(key);
+            }
+            if (exact == null) {
+                return matches;
+            }
+            List<StudentSearchIndex.Match> ranked = new ArrayList<>(limit);
+            ranked.add(new StudentSearchIndex.Match(exact, 2.0));
+            for (StudentSearchIndex.Match match : matches) {
+                if (ranked.size() < limit && !match.student().equals(exact)) {
+                    ranked.add(match);
+                }
             }
+            return ranked;
+        } finally {
+            SEARCH.stop(start);
         }
-        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Department;
+import edu.ccrm.domain.Student;
+
+/**
+ * One student's result from an end-of-term standings run: GPA, class rank
+ * within their department and dean's list status. Immutable.
+ */
+public class StudentStanding {
+    private final Student student;
+    private final Department department; // null when undeclared or unrecognized
+    private final double gpa;
+    private final int gradedCredits;
+    private final int rank;
+    private final int departmentSize;
+    private final double percentile;
+    private final boolean deansList;
+
+    StudentStanding(Student student, Department department, double gpa, int gradedCredits,
+                    int rank, int departmentSize, double percentile, boolean deansList) {
+        this.student = student;
+        this.department = department;
+        this.gpa = gpa;
+        this.gradedCredits = gradedCredits;
+        this.rank = rank;
+        this.departmentSize = departmentSize;
+        this.percentile = percentile;
+        this.deansList = deansList;
+    }
+
+    public Student getStudent() { return student; }
+    public Department getDepartment() { return department; }
+    public double getGpa() { return gpa; }
+    public int getGradedCredits() { return gradedCredits; }
+    public int getRank() { return rank; }
+    public int getDepartmentSize() { return departmentSize; }
+    public double getPercentile() { return percentile; }
+    public boolean isDeansList() { return deansList; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s) GPA %.2f - rank %d/%d in %s, %.1f percentile%s",
+                student.getFullName(), student.getId(), gpa, rank, departmentSize,
+                department != null ? department.getCode() : "Undeclared",
+                percentile, deansList ? " [Dean's List]" : "");
+    }
+}
@@ -0,0 +1,310 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Department;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Renders student transcripts and keeps the rendered text per student.
+ *
+ * Rendering is one pass over the student's enrollments, appending padded columns straight into
+ * a StringBuilder (no per-line String.format). The cached copy is dropped whenever the student's
+ * enrollments, grades or details change; the engine learns about those as a {@link RegistryListener}
+ * of both EnrollmentService and its StudentService, which EnrollmentService sets up itself.
+ * Cache fills and invalidations both happen under the student's lock, so a stale render can
+ * never be stored over a newer change.
+ *
+ * Bulk export renders a whole department or semester to one file per student in parallel;
+ * it reads the cache but does not fill it.
+ */
+public class TranscriptEngine implements RegistryListener {
+    static final int DEFAULT_MAX_CACHED = 50_000;
+    // Students per bulk task; large enough to amortise task overhead, small enough to balance threads
+    private static final int BULK_SLICE = 256;
+
+    private static final String RULE = "-".repeat(50);
+    private static final String COLUMN_HEADER = String.format("%-10s %-30s %-5s %-10s %-8s\n",
+            "Code", "Title", "Credits", "Grade", "Points");
+    private static final String[] POINTS = new String[Grade.values().length];
+
+    static {
+        for (Grade grade : Grade.values()) {
+            POINTS[grade.ordinal()] = String.format("%.1f", grade.getGradePoints());
+        }
+    }
+
+    private final EnrollmentService enrollments;
+    private final Map<Student, String> cache = new ConcurrentHashMap<>();
+    private volatile int maxCached = DEFAULT_MAX_CACHED;
+
+    TranscriptEngine(EnrollmentService enrollments) {
+        this.enrollments = enrollments;
+    }
+
+    /**
+     * The student's transcript, rendered on first use and cached until the student's record changes.
+     */
+    public String transcript(Student student) {
+        String cached = cache.get(student);
+        if (cached != null) {
+            return cached;
+        }
+        ReentrantLock lock = enrollments.lockFor(student);
+        lock.lock();
+        try {
+            cached = cache.get(student);
+            if (cached == null) {
+                StringBuilder out = new StringBuilder(1024);
+                render(student, out);
+                cached = out.toString();
+                store(student, cached);
+            }
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void writeTranscript(Student student, Appendable out) throws IOException {
+        out.append(transcript(student));
+    }
+
+    /**
+     * Render without touching the cache, reusing the caller's buffer (cleared first).
+     */
+    public void render(Student student, StringBuilder out) {
+        out.setLength(0);
+        ReentrantLock lock = enrollments.lockFor(student);
+        lock.lock();
+        try {
+            out.append(student.getTranscriptHeader()).append("\n\n");
+            out.append("COURSE WORK:\n");
+            out.append(RULE).append('\n');
+            out.append(COLUMN_HEADER);
+            out.append(RULE).append('\n');
+
+            // Archived rows are read in place through a cursor, so nothing here may keep them
+            enrollments.forEachByStudent(student, enrollment -> appendLine(out, enrollment));
+
+            out.append('\n').append(RULE).append('\n');
+            out.append(String.format("CUMULATIVE GPA: %.2f", enrollments.calculateGPA(student)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Same layout as "%-10s %-30s %-5s %-10s %-8s\n": left-aligned, padded, never truncated
+    private static void appendLine(StringBuilder out, Enrollment enrollment) {
+        Grade grade = enrollment.getGrade();
+
+        int start = out.length();
+        out.append(enrollment.getCourse().getCode());
+        pad(out, start, 10);
+
+        start = out.length();
+        out.append(enrollment.getCourse().getTitle());
+        pad(out, start, 30);
+
+        start = out.length();
+        out.append(enrollment.getCourse().getCredits()).append("cr");
+        pad(out, start, 5);
+
+        start = out.length();
+        out.append(grade != null ? grade.name() : "In Progress");
+        pad(out, start, 10);
+
+        start = out.length();
+        out.append(grade != null ? POINTS[grade.ordinal()] : "-");
+        pad(out, start, 8);
+        out.setCharAt(out.length() - 1, '\n');
+    }
+
+    // Pads the field begun at start to width, then adds the column separator
+    private static void pad(StringBuilder out, int start, int width) {
+        for (int n = out.length() - start; n < width; n++) {
+            out.append(' ');
+        }
+        out.append(' ');
+    }
+
+    // ========== CACHE ==========
+
+    private void store(Student student, String rendered) {
+        int limit = maxCached;
+        if (limit == 0) {
+            return;
+        }
+        // Approximate bound: when full, drop an arbitrary eighth in one sweep rather than track
+        // recency on every read (one entry at a time would rescan the emptied table head each time)
+        if (cache.size() >= limit) {
+            int target = limit - Math.max(1, limit / 8);
+            Iterator<Student> it = cache.keySet().iterator();
+            while (it.hasNext() && cache.size() > target) {
+                it.next();
+                it.remove();
+            }
+        }
+        cache.put(student, rendered);
+    }
+
+    public void invalidate(Student student) {
+        ReentrantLock lock = enrollments.lockFor(student);
+        lock.lock();
+        try {
+            cache.remove(student);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop every cached transcript (e.g. after course titles change or enrollments are archived).
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    public int getCachedCount() {
+        return cache.size();
+    }
+
+    public int getMaxCached() {
+        return maxCached;
+    }
+
+    public void setMaxCached(int maxCached) {
+        if (maxCached < 0) {
+            throw new IllegalArgumentException("Max cached transcripts cannot be negative");
+        }
+        this.maxCached = maxCached;
+        if (maxCached == 0) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public void onStudentUpdated(Student student) {
+        invalidate(student);
+    }
+
+    @Override
+    public void onStudentDeactivated(Student student) {
+        invalidate(student);
+    }
+
+    @Override
+    public void onEnrollmentAdded(Enrollment enrollment) {
+        invalidate(enrollment.getStudent());
+    }
+
+    @Override
+    public void onGradeRecorded(Enrollment enrollment) {
+        invalidate(enrollment.getStudent());
+    }
+
+    @Override
+    public void onWithdrawn(Enrollment enrollment) {
+        invalidate(enrollment.getStudent());
+    }
+
+    // ========== BULK EXPORT ==========
+
+    /**
+     * Write a transcript file for every student in {@code roster} belonging to {@code department}.
+     * @return number of transcripts written
+     */
+    public int exportDepartment(Department department, Collection<Student> roster, Path directory) throws IOException {
+        List<Student> members = new ArrayList<>();
+        for (Student student : roster) {
+            if (student.getKnownDepartment() == department) {
+                members.add(student);
+            }
+        }
+        return exportAll(members, directory);
+    }
+
+    /**
+     * Write a transcript file for every student with an enrollment in {@code semester}.
+     * @return number of transcripts written
+     */
+    public int exportSemester(Semester semester, Path directory) throws IOException {
+        Set<Student> members = new LinkedHashSet<>();
+        for (Enrollment enrollment : enrollments.getEnrollmentsBySemester(semester)) {
+            members.add(enrollment.getStudent());
+        }
+        return exportAll(new ArrayList<>(members), directory);
+    }
+
+    /**
+     * Render each student to {@code <directory>/<studentId>.txt} using one thread per core.
+     * Each worker reuses one buffer; file writes happen outside the student's lock. A student ID
+     * that would resolve outside {@code directory} fails the export.
+     */
+    public int exportAll(List<Student> students, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                (students.size() + BULK_SLICE - 1) / BULK_SLICE));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> slices = new ArrayList<>();
+            for (int from = 0; from < students.size(); from += BULK_SLICE) {
+                List<Student> slice = students.subList(from, Math.min(students.size(), from + BULK_SLICE));
+                slices.add(pool.submit(() -> exportSlice(slice, directory)));
+            }
+            int written = 0;
+            for (Future<Integer> slice : slices) {
+                written += slice.get();
+            }
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Transcript export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Transcript export failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int exportSlice(List<Student> slice, Path directory) throws IOException {
+        Path target = directory.normalize();
+        StringBuilder buffer = new StringBuilder(4096);
+        for (Student student : slice) {
+            // Ids come from imported files; one like "../x" must not write outside the directory
+            Path file = target.resolve(student.getId() + ".txt").normalize();
+            if (!target.equals(file.getParent())) {
+                throw new IllegalArgumentException("Student ID is not a valid file name: " + student.getId());
+            }
+            CharSequence text = cache.get(student);
+            if (text == null) {
+                render(student, buffer);
+                text = buffer;
+            }
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.append(text);
+            }
+        }
+        return slice.size();
+    }
+}
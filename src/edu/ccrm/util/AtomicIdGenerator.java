@@ -0,0 +1,27 @@
+package edu.ccrm.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free in-process ID generator backed by an AtomicLong.
+ * Unique within one JVM; seed it with {@link #reserveThrough} after loading data.
+ */
+public class AtomicIdGenerator implements IdGenerator {
+    private final String prefix;
+    private final AtomicLong next;
+
+    public AtomicIdGenerator(String prefix, long firstSequence) {
+        this.prefix = prefix;
+        this.next = new AtomicLong(firstSequence);
+    }
+
+    @Override
+    public String nextId() {
+        return IdGenerator.format(prefix, next.getAndIncrement());
+    }
+
+    @Override
+    public void reserveThrough(long sequence) {
+        next.accumulateAndGet(sequence + 1, Math::max);
+    }
+}
@@ -0,0 +1,107 @@
+package edu.ccrm.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ID generator that is unique across restarts and across several JVMs sharing a data directory.
+ *
+ * The sequence file holds the next unallocated sequence number. Each thread leases a block
+ * of {@code blockSize} numbers under an exclusive file lock and then hands them out with no
+ * further synchronization. Unused numbers in a block are skipped after a restart, which
+ * leaves gaps but never duplicates. {@link #reserveThrough} also raises an in-process floor that
+ * every lease checks, so numbers already leased to a thread are skipped once they are reserved.
+ *
+ * File locks are held per JVM, not per thread, so generators in one process that share a
+ * sequence file also take a shared in-process monitor for that file.
+ */
+public class FileBlockIdGenerator implements IdGenerator {
+    // One monitor per sequence file, shared by every generator in this JVM
+    private static final Map<Path, Object> FILE_MONITORS = new ConcurrentHashMap<>();
+
+    private final String prefix;
+    private final Path sequenceFile;
+    private final int blockSize;
+    private final Object fileMonitor;
+
+    // Per-thread lease: [next, end)
+    private final ThreadLocal<long[]> lease = ThreadLocal.withInitial(() -> new long[]{0, 0});
+    // Lowest sequence that may still be handed out; leased numbers below it were reserved
+    private final AtomicLong floor = new AtomicLong();
+
+    public FileBlockIdGenerator(String prefix, Path sequenceFile, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.prefix = prefix;
+        this.sequenceFile = sequenceFile;
+        this.blockSize = blockSize;
+        this.fileMonitor = FILE_MONITORS.computeIfAbsent(
+                sequenceFile.toAbsolutePath().normalize(), path -> new Object());
+    }
+
+    @Override
+    public String nextId() {
+        long[] range = lease.get();
+        long lowest = floor.get();
+        if (range[0] < lowest) {
+            range[0] = lowest; // drop reserved numbers; a fresh block below starts above them
+        }
+        if (range[0] >= range[1]) {
+            range[0] = allocate(blockSize);
+            range[1] = range[0] + blockSize;
+        }
+        return IdGenerator.format(prefix, range[0]++);
+    }
+
+    @Override
+    public void reserveThrough(long sequence) {
+        // File first: blocks allocated after the floor is raised must already start above it
+        updateHighWater(sequence + 1, 0);
+        floor.accumulateAndGet(sequence + 1, Math::max);
+    }
+
+    private long allocate(int count) {
+        return updateHighWater(0, count);
+    }
+
+    /**
+     * Atomically (across threads and processes) raises the stored high-water mark to at least
+     * {@code atLeast}, then advances it by {@code count}. Returns the value before advancing.
+     */
+    private long updateHighWater(long atLeast, int count) {
+        synchronized (fileMonitor) {
+            try (FileChannel channel = FileChannel.open(sequenceFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+                    long current = 1;
+                    if (channel.size() >= Long.BYTES) {
+                        channel.read(buffer, 0);
+                        current = buffer.flip().getLong();
+                    }
+                    current = Math.max(current, atLeast);
+
+                    buffer.clear();
+                    buffer.putLong(current + count).flip();
+                    channel.write(buffer, 0);
+                    channel.force(true);
+                    return current;
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot update ID sequence file " + sequenceFile, e);
+            }
+        }
+    }
+}
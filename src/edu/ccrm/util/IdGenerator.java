@@ -0,0 +1,44 @@
+package edu.ccrm.util;
+
+/**
+ * Strategy for generating unique record IDs such as "ENR0001".
+ * Implementations must be thread-safe.
+ */
+public interface IdGenerator {
+
+    String nextId();
+
+    /**
+     * Make sure every future ID has a sequence number greater than {@code sequence}.
+     * Call this with IDs loaded from persisted data before generating new ones.
+     */
+    void reserveThrough(long sequence);
+
+    /**
+     * Builds prefix + sequence zero-padded to at least 4 digits, without String.format.
+     * Sequences past 9999 simply get more digits instead of wrapping.
+     */
+    static String format(String prefix, long sequence) {
+        String digits = Long.toString(sequence);
+        StringBuilder sb = new StringBuilder(prefix.length() + Math.max(4, digits.length()));
+        sb.append(prefix);
+        for (int i = digits.length(); i < 4; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    /**
+     * Reverse of {@link #format}; returns -1 if the ID does not match the prefix.
+     */
+    static long parseSequence(String prefix, String id) {
+        if (id == null || !id.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
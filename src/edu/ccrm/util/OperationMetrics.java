@@ -0,0 +1,229 @@
+package edu.ccrm.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Process-wide latency and throughput metrics for service operations.
+ *
+ * Each operation owns a {@link Timer}, normally held in a static final field of the service:
+ * <pre>
+ *     long start = FIND.start();
+ *     try { ... } finally { FIND.stop(start); }
+ * </pre>
+ * Every call is counted (a LongAdder increment). Latency is timed for every call until an
+ * operation has {@value #FULL_SAMPLES} samples, then for one call in -Dccrm.metricsSampleEvery
+ * (default 16, a power of two): two nanoTime reads per call would cost more than the lookups they
+ * measure. -Dccrm.metrics=false turns every timer into a no-op.
+ */
+public final class OperationMetrics {
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("ccrm.metrics"));
+    static final int FULL_SAMPLES = 1000;
+    private static final int SAMPLE_MASK = Integer.highestOneBit(
+            Math.max(1, Integer.getInteger("ccrm.metricsSampleEvery", 16))) - 1;
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static volatile long resetAt = System.nanoTime();
+    private static ScheduledExecutorService dumper;
+    // Counts at the previous periodic dump, for per-interval throughput
+    private static final Map<String, Long> lastDumpCounts = new HashMap<>();
+    private static long lastDumpAt = System.nanoTime();
+
+    private OperationMetrics() {
+    }
+
+    public static final class Timer {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        // 0 while every call is timed; racy updates only shift when sampling starts
+        private int sampleMask;
+        private int samples;
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Count the call. @return a start stamp to pass to {@link #stop}, or 0 if this call is not timed
+         */
+        public long start() {
+            if (!ENABLED) {
+                return 0;
+            }
+            calls.increment();
+            if ((ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+                return 0;
+            }
+            return System.nanoTime();
+        }
+
+        public void stop(long start) {
+            if (start != 0) {
+                histogram.record(System.nanoTime() - start);
+                if (sampleMask == 0 && ++samples >= FULL_SAMPLES) {
+                    sampleMask = SAMPLE_MASK;
+                }
+            }
+        }
+
+        public Stats snapshot() {
+            return new Stats(calls.sum(), histogram.snapshot());
+        }
+
+        private void reset() {
+            calls.reset();
+            histogram.reset();
+            samples = 0;
+            sampleMask = 0;
+        }
+    }
+
+    /**
+     * Exact call count, with latency from the timed sample of those calls.
+     */
+    public record Stats(long calls, LatencyHistogram.Snapshot latency) { }
+
+    /**
+     * The timer for an operation, created on first use (names like "student.findById").
+     */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static void reset() {
+        TIMERS.values().forEach(Timer::reset);
+        resetAt = System.nanoTime();
+    }
+
+    /**
+     * Operations that have been recorded at least once, by name.
+     */
+    public static Map<String, Stats> snapshot() {
+        Map<String, Stats> snapshots = new TreeMap<>();
+        TIMERS.forEach((name, timer) -> {
+            Stats snapshot = timer.snapshot();
+            if (snapshot.calls() > 0) {
+                snapshots.put(name, snapshot);
+            }
+        });
+        return snapshots;
+    }
+
+    // ========== REPORTING ==========
+
+    /**
+     * Table of every recorded operation: calls, throughput since the last reset, and latency in microseconds.
+     */
+    public static String report() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - resetAt) / 1e9);
+        Map<String, Stats> snapshots = snapshot();
+        return table(snapshots, name -> snapshots.get(name).calls() / seconds, "ops/s since reset");
+    }
+
+    private static String table(Map<String, Stats> snapshots,
+                                ToDoubleFunction<String> rateFor, String rateLabel) {
+        if (!ENABLED) {
+            return "Metrics are disabled (-Dccrm.metrics=false)\n";
+        }
+        if (snapshots.isEmpty()) {
+            return "No operations recorded yet\n";
+        }
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%-28s %10s %12s %10s %10s %10s %10s %10s%n", "Operation", "Calls",
+                "Rate", "Mean us", "p50 us", "p99 us", "p99.9 us", "Max us"));
+        snapshots.forEach((name, stats) -> {
+            LatencyHistogram.Snapshot s = stats.latency();
+            out.append(String.format(Locale.ROOT, "%-28s %10d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    name, stats.calls(), rateFor.applyAsDouble(name), s.getMeanNanos() / 1000.0,
+                    s.getPercentileNanos(50) / 1000.0, s.getPercentileNanos(99) / 1000.0,
+                    s.getPercentileNanos(99.9) / 1000.0, s.getMaxNanos() / 1000.0));
+        });
+        out.append("Rate = ").append(rateLabel).append('\n');
+        return out.toString();
+    }
+
+    /**
+     * Append a timestamped report to {@code file} every {@code intervalSeconds} on a daemon thread,
+     * with throughput measured over each interval. Replaces any earlier schedule.
+     */
+    public static synchronized void startPeriodicDump(Path file, long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("Dump interval must be positive");
+        }
+        stopPeriodicDump();
+        lastDumpAt = System.nanoTime();
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            try {
+                dump(file);
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("Error writing metrics: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    /**
+     * Append one report to {@code file}; rates cover the time since the previous dump.
+     */
+    public static synchronized void dump(Path file) throws IOException {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - lastDumpAt) / 1e9);
+        Map<String, Stats> snapshots = snapshot();
+
+        // Interval throughput from the change in call count (a reset in between restarts from zero)
+        Map<String, Double> rates = new HashMap<>();
+        for (String name : snapshots.keySet()) {
+            long count = snapshots.get(name).calls();
+            long previous = lastDumpCounts.getOrDefault(name, 0L);
+            rates.put(name, (count >= previous ? count - previous : count) / seconds);
+            lastDumpCounts.put(name, count);
+        }
+        lastDumpAt = now;
+
+        String report = "=== " + LocalDateTime.now().format(STAMP) + " ===\n"
+                + table(snapshots, rates::get, "ops/s over this interval")
+                + "\n";
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, report, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,163 @@
+package edu.ccrm.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for registry operations, so profiles can be read against the
+ * enrollments, transcripts and file jobs that were running.
+ *
+ * Callers follow the JFR idiom: create, {@code begin()}, do the work, then fill the fields and
+ * {@code commit()} only if {@code shouldCommit()}. With no recording (or the event disabled)
+ * the JIT removes the event object entirely.
+ *
+ * Per-record events are disabled unless a recording enables them, e.g. with the bundled profile:
+ * {@code -XX:StartFlightRecording:settings=default.jfc,settings=src/edu/ccrm/config/ccrm.jfc,filename=ccrm.jfr}.
+ * File and backup events are on by default; they are rare and long.
+ */
+public final class RegistryEvents {
+    private RegistryEvents() {
+    }
+
+    @Name("edu.ccrm.Enroll")
+    @Label("Enroll")
+    @Category({"CCRM", "Enrollment"})
+    @Description("A student enrolling in a course, including failed attempts")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Enroll extends Event {
+        @Label("Student ID")
+        public String studentId;
+        @Label("Course Code")
+        public String courseCode;
+        @Label("Semester")
+        public String semester;
+        @Label("Enrollment ID")
+        @Description("Null when the enrollment was refused")
+        public String enrollmentId;
+        @Label("Failure")
+        public String failure;
+    }
+
+    @Name("edu.ccrm.Withdraw")
+    @Label("Withdraw")
+    @Category({"CCRM", "Enrollment"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Withdraw extends Event {
+        @Label("Enrollment ID")
+        public String enrollmentId;
+        @Label("Student ID")
+        public String studentId;
+        @Label("Course Code")
+        public String courseCode;
+        @Label("Failure")
+        public String failure;
+    }
+
+    @Name("edu.ccrm.RecordGrade")
+    @Label("Record Grade")
+    @Category({"CCRM", "Enrollment"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class RecordGrade extends Event {
+        @Label("Enrollment ID")
+        public String enrollmentId;
+        @Label("Student ID")
+        public String studentId;
+        @Label("Grade")
+        public String grade;
+        @Label("Failure")
+        public String failure;
+    }
+
+    @Name("edu.ccrm.Transcript")
+    @Label("Transcript")
+    @Category({"CCRM", "Enrollment"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Transcript extends Event {
+        @Label("Student ID")
+        public String studentId;
+        @Label("Length")
+        @Description("Characters in the rendered transcript")
+        public int length;
+    }
+
+    @Name("edu.ccrm.CsvImport")
+    @Label("CSV Import")
+    @Category({"CCRM", "File"})
+    @StackTrace(false)
+    public static final class CsvImport extends Event {
+        @Label("File")
+        public String file;
+        @Label("Rows")
+        @Description("Rows imported")
+        public long rows;
+        @Label("Errors")
+        public long errors;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+        @Label("Threads")
+        public int threads;
+    }
+
+    @Name("edu.ccrm.CsvExport")
+    @Label("CSV Export")
+    @Category({"CCRM", "File"})
+    @StackTrace(false)
+    public static final class CsvExport extends Event {
+        @Label("File")
+        public String file;
+        @Label("Rows")
+        public long rows;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+        @Label("Failure")
+        public String failure;
+    }
+
+    @Name("edu.ccrm.Backup")
+    @Label("Backup")
+    @Category({"CCRM", "File"})
+    @StackTrace(false)
+    public static final class Backup extends Event {
+        @Label("Operation")
+        @Description("create or restore")
+        public String operation;
+        @Label("Backup Name")
+        public String name;
+        @Label("Files")
+        public int files;
+        @Label("Changed Files")
+        public int changedFiles;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+        @Label("Failure")
+        public String failure;
+    }
+
+    /**
+     * Size of a file for an event field; -1 if it cannot be read.
+     */
+    public static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package edu.ccrm.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared canonical copies of repeated strings, plus an optional compact encoding for ASCII text.
+ *
+ * {@link #canonical} returns one shared instance per distinct value, so a million students in
+ * the same few departments or email domains hold references to a handful of Strings. Only
+ * low-cardinality values should be pooled: the pool is never trimmed.
+ *
+ * {@link #pack} stores pure-ASCII text as a bare byte[] when compact storage is on, which saves
+ * the String object header on every field; {@link #unpack} turns it back into a String on read.
+ */
+public final class StringPool {
+    // Past this size values are no longer added, so a mis-used pool cannot grow without bound
+    private static final int MAX_POOLED = 1 << 20;
+
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+    private static volatile boolean compactAscii = Boolean.getBoolean("ccrm.compactStrings");
+
+    private StringPool() {
+    }
+
+    /**
+     * The shared instance equal to {@code value} (null stays null).
+     */
+    public static String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = POOL.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (POOL.size() >= MAX_POOLED) {
+            return value;
+        }
+        pooled = POOL.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    public static int size() {
+        return POOL.size();
+    }
+
+    public static boolean isCompactAscii() {
+        return compactAscii;
+    }
+
+    /**
+     * Applies to values packed from now on; values already stored keep their form.
+     */
+    public static void setCompactAscii(boolean enabled) {
+        compactAscii = enabled;
+    }
+
+    // ========== COMPACT ASCII ==========
+
+    /**
+     * Storage form of a text field: a byte[] for ASCII text when compact storage is on,
+     * otherwise the String itself.
+     */
+    public static Object pack(String value) {
+        if (value == null || !compactAscii) {
+            return value;
+        }
+        int length = value.length();
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                return value;
+            }
+            bytes[i] = (byte) c;
+        }
+        return bytes;
+    }
+
+    public static String unpack(Object stored) {
+        if (stored instanceof byte[]) {
+            return new String((byte[]) stored, StandardCharsets.ISO_8859_1);
+        }
+        return (String) stored;
+    }
+}